@@ -0,0 +1,41 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.async;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filename handling run for every published asset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageKeyBenchmark {
+
+    private final String[] filenames = {
+            "logo.png",
+            "..\\sub/../My Image.JPG",
+            "clips/2025/summer\tcampaign-final-v3.MP4",
+            "no-extension-but-typed"
+    };
+    private final String[] contentTypes = {null, "", null, "video/mp4"};
+
+    @Benchmark
+    public void sanitizeFilename(Blackhole bh) {
+        for (String filename : filenames) {
+            bh.consume(AsyncAssetPublisherAdapter.sanitizeFilename(filename));
+        }
+    }
+
+    @Benchmark
+    public void resolveFolder(Blackhole bh) {
+        for (int i = 0; i < filenames.length; i++) {
+            bh.consume(AsyncAssetPublisherAdapter.resolveFolder(contentTypes[i],
+                    AsyncAssetPublisherAdapter.sanitizeFilename(filenames[i])));
+        }
+    }
+}
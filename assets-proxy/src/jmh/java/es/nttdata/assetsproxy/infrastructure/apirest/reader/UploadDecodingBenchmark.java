@@ -0,0 +1,57 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.infrastructure.adapter.spool.ContentSpoolAdapter;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON upload body to {@link AssetDomain}: streaming base64 decode into the spool plus
+ * {@link AssetDtoMapper#toDomain}. Payloads below the spool memory threshold stay off-heap, larger ones
+ * go to a file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadDecodingBenchmark {
+
+    @Param({"1024", "262144", "4194304"})
+    private int payloadBytes;
+
+    private AssetUploadRequestReader reader;
+    private AssetDtoMapper mapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        ContentSpoolAdapter spool = new ContentSpoolAdapter(Files.createTempDirectory("jmh-spool"), 65536,
+                DataSize.ofKilobytes(256), DataSize.ofMegabytes(64));
+        reader = new AssetUploadRequestReader(new ObjectMapper(), spool, 1000);
+        mapper = new AssetDtoMapperImpl();
+        byte[] payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        body = ("{\"filename\":\"banner.png\",\"contentType\":\"image/png\",\"encodedFile\":\""
+                + Base64.getEncoder().encodeToString(payload) + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Integer decodeAndMap() {
+        AssetDomain asset = mapper.toDomain(reader.read(new ByteArrayInputStream(body)));
+        asset.getContent().release();
+        return asset.getSize();
+    }
+}
@@ -0,0 +1,41 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.mapper;
+
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetEntityMapperBenchmark {
+
+    private final AssetEntityMapper mapper = new AssetEntityMapperImpl();
+    private AssetDomain asset;
+    private AssetRow row;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        asset = new AssetDomain(1L, "banner.jpg", "image/jpeg", 123, "images/ab/cd/banner.jpg", now, AssetStatus.COMPLETED);
+        asset.setContentDigest("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+        row = new AssetRow(1L, "banner.jpg", "image/jpeg", 123, "images/ab/cd/banner.jpg", now, "COMPLETED",
+                asset.getContentDigest());
+    }
+
+    @Benchmark
+    public AssetDomain entityRoundTrip() {
+        return mapper.toDomain(mapper.toEntity(asset));
+    }
+
+    @Benchmark
+    public AssetDomain rowToDomain() {
+        return mapper.toDomain(row);
+    }
+}
@@ -0,0 +1,102 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SortDirection;
+import es.nttdata.assetsproxy.infrastructure.adapter.repository.AssetRepositoryAdapter;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetSpecifications.*;
+
+/**
+ * Search specifications: building them into a criteria query, and running whole searches through the
+ * repository adapter against the embedded H2 database of the {@code h2} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetSpecificationsBenchmark {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Param("10000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private AssetRepositoryAdapter adapter;
+    private EntityManager entityManager;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AssetsProxyApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .run();
+        adapter = context.getBean(AssetRepositoryAdapter.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        List<AssetDomain> batch = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            String type = i % 3 == 0 ? "video/mp4" : "image/png";
+            batch.add(new AssetDomain(null, "asset-" + i + (i % 3 == 0 ? ".mp4" : ".png"), type, i,
+                    null, BASE.plusMinutes(i), AssetStatus.COMPLETED));
+            if (batch.size() == 1000) {
+                adapter.saveAll(batch);
+                batch.clear();
+            }
+        }
+        adapter.saveAll(batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public CriteriaQuery<AssetEntity> composeToCriteria() {
+        Specification<AssetEntity> spec = uploadedAtFrom(BASE.plusDays(1))
+                .and(uploadedAtTo(BASE.plusDays(3)))
+                .and(filenameMatches("asset-1.*\\.png$"))
+                .and(contentTypeEquals("image/png"));
+        var cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AssetEntity> query = cb.createQuery(AssetEntity.class);
+        Root<AssetEntity> root = query.from(AssetEntity.class);
+        return query.where(spec.toPredicate(root, query, cb));
+    }
+
+    @Benchmark
+    public List<AssetDomain> searchByDateRange() {
+        return adapter.search(new SearchCriteria(BASE.plusDays(1), BASE.plusDays(2), null, null, SortDirection.DESC));
+    }
+
+    @Benchmark
+    public List<AssetDomain> searchByFilenameRegex() {
+        return adapter.search(new SearchCriteria(null, null, "asset-99[0-9]\\.png$", "image/png", SortDirection.ASC));
+    }
+
+    @Benchmark
+    public Object firstPageOf50() {
+        return adapter.searchPage(new SearchCriteria(null, null, null, null, SortDirection.DESC, 50, null));
+    }
+}
@@ -0,0 +1,126 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.domain.port.async.AssetPublisherPort;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.domain.port.spool.UploadSessionPort;
+import es.nttdata.assetsproxy.domain.port.usecase.ChunkedUploadPort;
+import es.nttdata.assetsproxy.domain.port.usecase.UploadAssetPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
+/**
+ * Resumable uploads: the content arrives in chunks appended to a session, and once complete the
+ * assembled content goes through {@link UploadAssetPort#accept}, and from there to the
+ * {@link AssetPublisherPort}, like any other upload.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ChunkedUploadUseCase implements ChunkedUploadPort {
+
+    /**
+     * Asset sizes are stored as an int.
+     */
+    static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final UploadSessionPort sessions;
+    private final UploadAssetPort uploads;
+    private final AssetPublisherPort publisher;
+
+    @Override
+    public UploadSession create(String filename, String contentType, Long size) {
+        if (filename == null || filename.isBlank()) {
+            throw new BusinessException("filename must not be blank");
+        }
+        if (contentType == null || contentType.isBlank()) {
+            throw new BusinessException("contentType must not be blank");
+        }
+        if (size != null && (size < 1 || size > MAX_SIZE)) {
+            throw new BusinessException("size must be between 1 and " + MAX_SIZE);
+        }
+        try {
+            UploadSession session = sessions.create(filename, contentType, size);
+            log.info("Upload session {} opened for {} ({} bytes)", session.id(), filename, size);
+            return session;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public UploadSession find(String sessionId) {
+        try {
+            return sessions.find(sessionId).orElseThrow(() -> notFound(sessionId));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public UploadSession append(String sessionId, long offset, String checksum, ContentSpoolPort.ContentWriter chunk) {
+        if (offset < 0) {
+            throw new BusinessException("offset must not be negative");
+        }
+        find(sessionId);
+        try {
+            return sessions.append(sessionId, offset, checksum, chunk);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Long complete(String sessionId, String checksum) {
+        UploadSession session = find(sessionId);
+        if (session.offset() == 0) {
+            throw new BusinessException("Upload session " + sessionId + " has no content");
+        }
+        if (session.offset() > MAX_SIZE) {
+            throw new BusinessException("Upload session " + sessionId + " exceeds " + MAX_SIZE + " bytes");
+        }
+        if (session.size() != null && session.offset() != session.size()) {
+            throw new BusinessException("Upload session " + sessionId + " has " + session.offset()
+                    + " of " + session.size() + " bytes");
+        }
+        AssetDomain asset = new AssetDomain(null, session.filename(), session.contentType(),
+                Math.toIntExact(session.offset()), null, OffsetDateTime.now(), AssetStatus.PENDING);
+        // the session is only consumed once there is room to publish it: a 429 leaves it to be completed later
+        publisher.checkCapacity(asset);
+        AssetContent content;
+        try {
+            content = sessions.complete(sessionId, checksum);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        asset.setContent(content);
+        asset.setContentDigest(content.checksum());
+        Long id = uploads.accept(asset);
+        log.info("Upload session {} completed as asset {}", sessionId, id);
+        return id;
+    }
+
+    @Override
+    public void abort(String sessionId) {
+        find(sessionId);
+        try {
+            sessions.abort(sessionId);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static UploadSessionNotFoundException notFound(String sessionId) {
+        return new UploadSessionNotFoundException("Upload session " + sessionId + " not found or expired");
+    }
+}
@@ -0,0 +1,40 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import es.nttdata.assetsproxy.domain.port.usecase.DownloadAssetPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class DownloadAssetUseCase implements DownloadAssetPort {
+
+    private final AssetRepositoryPort repository;
+    private final StoragePort storage;
+
+    @Override
+    public AssetDomain open(Long id) {
+        AssetDomain asset = repository.findById(id)
+                .filter(found -> found.getStatus() == AssetStatus.COMPLETED && found.getUrl() != null)
+                .orElseThrow(() -> new AssetNotFoundException("Asset " + id + " has no published content"));
+        try {
+            asset.setContent(storage.open(asset.getUrl(), asset.getContentDigest()));
+        } catch (NoSuchFileException ex) {
+            log.error("Content of asset {} is missing from storage at {}", id, asset.getUrl());
+            throw new AssetNotFoundException("Asset " + id + " has no published content");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return asset;
+    }
+}
@@ -1,7 +1,10 @@
 package es.nttdata.assetsproxy.application.usecase;
 
 import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
 import es.nttdata.assetsproxy.domain.port.usecase.SearchAssetsPort;
@@ -10,7 +13,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -29,4 +34,37 @@ public class SearchAssetsUseCase implements SearchAssetsPort {
         log.info("Items found {}", result.size());
         return result;
     }
+
+    @Override
+    public AssetPage searchPage(SearchCriteria criteria) {
+        SearchCriteriaValidator.validate(criteria);
+        if (criteria.limit() == SearchCriteria.UNPAGED) {
+            throw new BusinessException("limit must be between 1 and " + SearchCriteriaValidator.MAX_PAGE_SIZE);
+        }
+        AssetPage page = repository.searchPage(criteria);
+        if(page == null){
+            throw new AssetNotFoundException("No assets found with the provided criteria");
+        }
+        log.info("Items found {} (more pages: {})", page.items().size(), page.next() != null);
+        return page;
+    }
+
+    @Override
+    public long stream(SearchCriteria criteria, Consumer<AssetDomain> sink) {
+        SearchCriteriaValidator.validate(criteria);
+        long streamed = repository.streamSearch(criteria, sink);
+        log.info("Items streamed {}", streamed);
+        return streamed;
+    }
+
+    @Override
+    public List<AssetCount> count(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("from must not be after to");
+        }
+        return repository.countByTypeAndStatus(from, to);
+    }
 }
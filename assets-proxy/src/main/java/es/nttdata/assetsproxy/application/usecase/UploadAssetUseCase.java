@@ -1,39 +1,271 @@
 package es.nttdata.assetsproxy.application.usecase;
 
 import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.UploadResult;
 import es.nttdata.assetsproxy.domain.port.async.AssetPublisherPort;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
+import es.nttdata.assetsproxy.domain.port.idempotency.IdempotencyPort;
+import es.nttdata.assetsproxy.domain.port.metrics.UploadMetricsPort;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
 import es.nttdata.assetsproxy.domain.port.usecase.UploadAssetPort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class UploadAssetUseCase implements UploadAssetPort {
 
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
     private final AssetRepositoryPort repository;
     private final AssetPublisherPort publisher;
+    private final UploadMetricsPort metrics;
+    private final AssetEventsPort events;
+    private final IdempotencyPort idempotency;
 
     @Override
     public Long accept(AssetDomain asset) {
-        if (asset == null) {
-            throw new BusinessException("Asset must not be null");
+        return accept(asset, null);
+    }
+
+    @Override
+    public Long accept(String idempotencyKey, List<String> replayMetadata, Supplier<AssetDomain> asset) {
+        if (idempotencyKey == null) {
+            return accept(asset.get());
         }
-        if (asset.getFilename() == null || asset.getFilename().isBlank()) {
-            throw new BusinessException("Asset name is required");
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must have between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(replayMetadata);
+        // a replay is answered before its body is read
+        Optional<Long> previous = idempotency.find(idempotencyKey, fingerprint);
+        if (previous.isPresent()) {
+            log.info("Upload with Idempotency-Key {} was already accepted as asset {}", idempotencyKey, previous.get());
+            return previous.get();
+        }
+        AssetDomain request = asset.get();
+        String error = validationError(request);
+        if (error != null) {
+            releaseContent(request);
+            throw new BusinessException(error);
+        }
+        try {
+            previous = idempotency.claim(idempotencyKey, fingerprint);
+        } catch (RuntimeException e) {
+            releaseContent(request);
+            throw e;
+        }
+        if (previous.isPresent()) {
+            // accepted by a request that claimed the key since the lookup
+            releaseContent(request);
+            log.info("Upload with Idempotency-Key {} was already accepted as asset {}", idempotencyKey, previous.get());
+            return previous.get();
+        }
+        try {
+            return accept(request, idempotencyKey);
+        } catch (RuntimeException e) {
+            idempotency.release(idempotencyKey);
+            throw e;
+        }
+    }
+
+    private Long accept(AssetDomain asset, String idempotencyKey) {
+        long start = System.nanoTime();
+        boolean accepted = false;
+        try {
+            Long id = acceptOne(asset, idempotencyKey);
+            accepted = true;
+            return id;
+        } finally {
+            metrics.accepted(false, System.nanoTime() - start, accepted ? 1 : 0, accepted ? 0 : 1);
+        }
+    }
+
+    private Long acceptOne(AssetDomain asset, String idempotencyKey) {
+        String error = validationError(asset);
+        if (error != null) {
+            releaseContent(asset);
+            throw new BusinessException(error);
         }
         log.info("Saving data from file {}", asset.getFilename());
-        AssetDomain saved = repository.save(asset);
-        asset.setId(saved.getId());
-        try{
-            publisher.publishAsync(asset);
-        }catch (Exception e) {
-            throw new BusinessException("Upload publisher rejected the asset "+e.getMessage());
+        AssetDomain saved;
+        boolean duplicate;
+        try {
+            duplicate = reusePublished(asset, new HashMap<>());
+            if (!duplicate) {
+                publisher.checkCapacity(asset);
+            }
+            saved = repository.save(asset, idempotencyKey);
+        } catch (RuntimeException e) {
+            releaseContent(asset);
+            throw e;
+        }
+        if (duplicate) {
+            releaseContent(asset);
+            reused(asset, saved.getId());
+        } else {
+            publish(asset, saved.getId());
         }
         log.info("The data has been saved successfully {}", asset.getFilename());
         return saved.getId();
     }
+
+    @Override
+    public List<UploadResult> acceptAll(List<AssetDomain> assets) {
+        if (assets == null || assets.isEmpty()) {
+            throw new BusinessException("At least one asset is required");
+        }
+        long start = System.nanoTime();
+        UploadResult[] results = new UploadResult[assets.size()];
+        List<AssetDomain> valid = new ArrayList<>(assets.size());
+        List<Integer> positions = new ArrayList<>(assets.size());
+        Map<String, Optional<String>> published = new HashMap<>();
+        for (int i = 0; i < assets.size(); i++) {
+            AssetDomain asset = assets.get(i);
+            String error = validationError(asset);
+            if (error == null) {
+                try {
+                    if (!reusePublished(asset, published)) {
+                        publisher.checkCapacity(asset);
+                    }
+                } catch (PublishCapacityExceededException e) {
+                    error = capacityError(e);
+                } catch (RuntimeException e) {
+                    valid.forEach(UploadAssetUseCase::releaseContent);
+                    releaseAll(assets.subList(i, assets.size()));
+                    throw e;
+                }
+            }
+            if (error != null) {
+                releaseContent(asset);
+                results[i] = UploadResult.rejected(error);
+            } else {
+                valid.add(asset);
+                positions.add(i);
+            }
+        }
+        if (!valid.isEmpty()) {
+            log.info("Saving data from {} files in one batch", valid.size());
+            List<AssetDomain> saved;
+            try {
+                saved = repository.saveAll(valid);
+            } catch (RuntimeException e) {
+                valid.forEach(UploadAssetUseCase::releaseContent);
+                throw e;
+            }
+            for (int j = 0; j < valid.size(); j++) {
+                AssetDomain asset = valid.get(j);
+                if (asset.getStatus() == AssetStatus.COMPLETED) {
+                    releaseContent(asset);
+                    reused(asset, saved.get(j).getId());
+                    results[positions.get(j)] = UploadResult.accepted(saved.get(j).getId());
+                } else {
+                    publish(asset, saved.get(j).getId());
+                    results[positions.get(j)] = UploadResult.accepted(saved.get(j).getId());
+                }
+            }
+        }
+        int accepted = (int) Arrays.stream(results).filter(UploadResult::isAccepted).count();
+        metrics.accepted(true, System.nanoTime() - start, accepted, results.length - accepted);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Identical content (same digest and size) that was already published is not published again: the
+     * asset is stored straight as COMPLETED with the existing storage URL. {@code published} memoizes
+     * lookups within one request.
+     */
+    private boolean reusePublished(AssetDomain asset, Map<String, Optional<String>> published) {
+        if (asset.getContentDigest() == null || asset.getSize() == null || asset.getSize() == 0) {
+            return false;
+        }
+        Optional<String> url = published.computeIfAbsent(asset.getContentDigest() + ":" + asset.getSize(),
+                key -> repository.findPublishedUrl(asset.getContentDigest(), asset.getSize()));
+        metrics.contentLookup(url.isPresent(), asset.getSize());
+        if (url.isEmpty()) {
+            return false;
+        }
+        log.info("Content of {} was already published, reusing {}", asset.getFilename(), url.get());
+        asset.setUrl(url.get());
+        asset.setStatus(AssetStatus.COMPLETED);
+        return true;
+    }
+
+    /**
+     * A reused asset never goes through the publisher, so its only status change is announced here.
+     */
+    private void reused(AssetDomain asset, Long id) {
+        asset.setId(id);
+        events.statusChanged(asset, null, AssetStatus.COMPLETED, asset.getUrl());
+    }
+
+    /**
+     * The publish job was saved with the asset and now owns its content; the publisher is only woken up.
+     */
+    private void publish(AssetDomain asset, Long id) {
+        asset.setId(id);
+        publisher.publishAsync(asset);
+    }
+
+    private static String validationError(AssetDomain asset) {
+        if (asset == null) {
+            return "Asset must not be null";
+        }
+        if (asset.getFilename() == null || asset.getFilename().isBlank()) {
+            return "Asset name is required";
+        }
+        return null;
+    }
+
+    /**
+     * What a replay under the same Idempotency-Key must repeat: the metadata its request declared up front.
+     */
+    static String fingerprint(List<String> replayMetadata) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(FINGERPRINT_ALGORITHM + " is not available", ex);
+        }
+        for (String part : replayMetadata) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String capacityError(PublishCapacityExceededException e) {
+        return e.getMessage() + ", retry after " + Math.max(1, e.getRetryAfter().toSeconds()) + "s";
+    }
+
+    private static void releaseAll(List<AssetDomain> assets) {
+        assets.forEach(UploadAssetUseCase::releaseContent);
+    }
+
+    /**
+     * Once the publisher has the asset it owns the content; before that, whoever fails releases it.
+     */
+    private static void releaseContent(AssetDomain asset) {
+        if (asset != null && asset.getContent() != null) {
+            asset.getContent().release();
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.port.usecase.WatchAssetsPort;
+import es.nttdata.assetsproxy.domain.validation.StatusWatchValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class WatchAssetsUseCase implements WatchAssetsPort {
+
+    private static final int BATCH = 256;
+
+    private final AssetEventsPort events;
+    private final AssetRepositoryPort repository;
+    private final Duration maxDuration;
+    private final Duration heartbeat;
+
+    public WatchAssetsUseCase(AssetEventsPort events,
+                              AssetRepositoryPort repository,
+                              @Value("${assets.events.max-duration:5m}") Duration maxDuration,
+                              @Value("${assets.events.heartbeat:15s}") Duration heartbeat) {
+        this.events = events;
+        this.repository = repository;
+        this.maxDuration = maxDuration;
+        this.heartbeat = heartbeat;
+    }
+
+    @Override
+    public long watch(StatusWatch watch, Consumer<AssetStatusEvent> sink, Runnable idle, Runnable resync) {
+        StatusWatchValidator.validate(watch);
+        boolean resumes = watch.lastEventId() != null && events.epoch().equals(watch.lastEventEpoch());
+        if (watch.lastEventId() != null && !resumes) {
+            // ids of another run, e.g. another instance behind the balancer or before a restart
+            resync.run();
+        }
+        if (!resumes && watch.assetId() != null) {
+            // its final event may be gone from the buffer, or never have been in this instance's
+            Optional<AssetStatusEvent> finished = finished(watch.assetId());
+            if (finished.isPresent()) {
+                sink.accept(finished.get());
+                return 1;
+            }
+        }
+        // a single asset is followed from the oldest retained event: it may have changed before the client connected
+        long position = resumes ? watch.lastEventId()
+                : watch.assetId() != null ? 0 : events.lastEventId();
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long lastSent = System.nanoTime();
+        long sent = 0;
+        try {
+            for (long now = lastSent; now - deadline < 0; now = System.nanoTime()) {
+                long wait = Math.min(deadline - now, Math.max(0, lastSent + heartbeat.toNanos() - now));
+                List<AssetStatusEvent> batch = events.awaitAfter(position, BATCH, Duration.ofNanos(wait));
+                for (AssetStatusEvent event : batch) {
+                    position = event.id();
+                    if (matches(watch, event)) {
+                        sink.accept(event);
+                        sent++;
+                        lastSent = System.nanoTime();
+                        if (watch.assetId() != null && event.to().isFinal()) {
+                            return sent;
+                        }
+                    }
+                }
+                if (System.nanoTime() - lastSent >= heartbeat.toNanos()) {
+                    idle.run();
+                    lastSent = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Status watch {} ended after {} events", watch, sent);
+        return sent;
+    }
+
+    /**
+     * The current status of an asset that cannot change anymore, as an event without a previous status.
+     */
+    private Optional<AssetStatusEvent> finished(Long assetId) {
+        return repository.findById(assetId)
+                .filter(asset -> asset.getStatus().isFinal())
+                .map(asset -> new AssetStatusEvent(events.epoch(), events.lastEventId(), asset.getId(),
+                        asset.getFilename(), asset.getContentType(), null, asset.getStatus(), asset.getUrl(),
+                        OffsetDateTime.now()));
+    }
+
+    private static boolean matches(StatusWatch watch, AssetStatusEvent event) {
+        return (watch.assetId() == null || watch.assetId().equals(event.assetId()))
+                && (watch.contentType() == null || watch.contentType().equalsIgnoreCase(event.contentType()));
+    }
+}
@@ -1,18 +1,21 @@
 package es.nttdata.assetsproxy.boot.config;
 
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
+import es.nttdata.assetsproxy.infrastructure.adapter.async.PublishQueue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.time.Duration;
 
 @Configuration
-@EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    @Bean(destroyMethod = "shutdown")
+    public PublishQueue publishQueue(@Value("${assets.publish.max-concurrency:16}") int maxConcurrency,
+                                     @Value("${assets.publish.max-queued:1000}") int maxQueued,
+                                     @Value("${assets.publish.max-pending-bytes:512MB}") DataSize maxPendingBytes,
+                                     @Value("${assets.publish.retry-after:5s}") Duration retryAfter) {
+        return new PublishQueue(maxConcurrency, maxQueued, maxPendingBytes.toBytes(), retryAfter);
     }
 }
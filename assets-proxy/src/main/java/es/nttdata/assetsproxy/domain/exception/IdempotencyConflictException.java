@@ -0,0 +1,5 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) { super(message); }
+}
@@ -0,0 +1,5 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+public class IdempotencyMismatchException extends RuntimeException {
+    public IdempotencyMismatchException(String message) { super(message); }
+}
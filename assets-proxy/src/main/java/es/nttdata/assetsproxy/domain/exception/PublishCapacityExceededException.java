@@ -0,0 +1,15 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+import java.time.Duration;
+
+public class PublishCapacityExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PublishCapacityExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
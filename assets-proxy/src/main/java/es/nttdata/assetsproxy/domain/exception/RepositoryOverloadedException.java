@@ -0,0 +1,15 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+import java.time.Duration;
+
+public class RepositoryOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RepositoryOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,13 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long offset;
+
+    public UploadOffsetMismatchException(String message, long offset) {
+        super(message);
+        this.offset = offset;
+    }
+
+    public long getOffset() { return offset; }
+}
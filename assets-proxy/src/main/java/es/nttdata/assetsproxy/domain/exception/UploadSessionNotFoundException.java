@@ -0,0 +1,5 @@
+package es.nttdata.assetsproxy.domain.exception;
+
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException(String message) { super(message); }
+}
@@ -0,0 +1,54 @@
+package es.nttdata.assetsproxy.domain.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Handle to the binary content of an asset while it travels through the proxy.
+ * The bytes live outside the domain model (spool, storage...), so the handle must be
+ * released once the asset no longer needs them.
+ */
+public interface AssetContent {
+
+    long size();
+
+    /**
+     * Hex encoded SHA-256 digest computed while the content was received.
+     */
+    String checksum();
+
+    InputStream openStream() throws IOException;
+
+    /**
+     * Writes the whole content into {@code target} from position 0. Handles backed by a file or by
+     * direct buffers override this to hand their bytes to the channel without copying them through the heap.
+     */
+    default void transferTo(FileChannel target) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(openStream())) {
+            long position = 0;
+            while (position < size()) {
+                long n = target.transferFrom(source, position, size() - position);
+                if (n <= 0) {
+                    throw new EOFException("Content ended after " + position + " of " + size() + " bytes");
+                }
+                position += n;
+            }
+        }
+    }
+
+    /**
+     * The file holding exactly this content, when there is one, so it can be handed to the OS
+     * (e.g. sendfile) instead of being read.
+     */
+    default Optional<Path> localFile() {
+        return Optional.empty();
+    }
+
+    void release();
+}
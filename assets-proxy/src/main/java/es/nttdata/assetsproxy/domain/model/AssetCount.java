@@ -0,0 +1,7 @@
+package es.nttdata.assetsproxy.domain.model;
+
+/**
+ * Number of assets of one content type in one status.
+ */
+public record AssetCount(String contentType, AssetStatus status, long count) {
+}
@@ -16,8 +16,9 @@ public class AssetDomain {
     private String url;
     private OffsetDateTime uploadDate;
     private AssetStatus status;
+    private String contentDigest;
 
-    private byte[] fileBytes;
+    private AssetContent content;
 
     public AssetDomain() {
     }
@@ -0,0 +1,12 @@
+package es.nttdata.assetsproxy.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of a keyset paginated search. {@code next} is null on the last page.
+ */
+public record AssetPage(
+        List<AssetDomain> items,
+        SearchCursor next
+) {
+}
@@ -9,5 +9,20 @@ public enum AssetStatus {
     PENDING,
     UPLOADING,
     COMPLETED,
-    FAILED
-}
\ No newline at end of file
+    FAILED;
+
+    /**
+     * PENDING -> UPLOADING -> COMPLETED, and FAILED from any non final state.
+     */
+    public boolean canTransitionTo(AssetStatus next) {
+        return switch (this) {
+            case PENDING -> next == UPLOADING || next == FAILED;
+            case UPLOADING -> next == COMPLETED || next == FAILED;
+            case COMPLETED, FAILED -> false;
+        };
+    }
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
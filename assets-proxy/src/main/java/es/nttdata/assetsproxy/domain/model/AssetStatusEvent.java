@@ -0,0 +1,22 @@
+package es.nttdata.assetsproxy.domain.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One status change of an asset. {@code id} grows by one per event within an {@code epoch}, one run of
+ * the instance that numbered it, so a client can resume after the last one it saw as long as it comes
+ * back to the same run; {@code from} is null when the asset was stored directly in {@code to}, or when
+ * the event only reports the status an asset already had.
+ */
+public record AssetStatusEvent(
+        String epoch,
+        long id,
+        Long assetId,
+        String filename,
+        String contentType,
+        AssetStatus from,
+        AssetStatus to,
+        String url,
+        OffsetDateTime at
+) {
+}
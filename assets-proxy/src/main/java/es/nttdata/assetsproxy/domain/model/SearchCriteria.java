@@ -2,11 +2,26 @@ package es.nttdata.assetsproxy.domain.model;
 
 import java.time.OffsetDateTime;
 
+/**
+ * {@code limit} and {@code after} only apply to paged searches; {@link #UNPAGED} means no limit.
+ */
 public record SearchCriteria(
         OffsetDateTime uploadDateStart,
         OffsetDateTime uploadDateEnd,
         String filenamePattern,
         String filetype,
-        SortDirection sortDirection
+        SortDirection sortDirection,
+        int limit,
+        SearchCursor after
 ) {
+
+    public static final int UNPAGED = 0;
+
+    public SearchCriteria(OffsetDateTime uploadDateStart,
+                          OffsetDateTime uploadDateEnd,
+                          String filenamePattern,
+                          String filetype,
+                          SortDirection sortDirection) {
+        this(uploadDateStart, uploadDateEnd, filenamePattern, filetype, sortDirection, UNPAGED, null);
+    }
 }
@@ -0,0 +1,13 @@
+package es.nttdata.assetsproxy.domain.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Position of the last asset of a page, in (uploadDate, id) order.
+ * The next page starts right after it.
+ */
+public record SearchCursor(
+        OffsetDateTime uploadDate,
+        Long id
+) {
+}
@@ -0,0 +1,13 @@
+package es.nttdata.assetsproxy.domain.model;
+
+/**
+ * What a status stream follows: the changes after {@code lastEventId} of {@code lastEventEpoch} (both null
+ * for live changes only) of one asset and/or one content type (null for any).
+ */
+public record StatusWatch(
+        String lastEventEpoch,
+        Long lastEventId,
+        Long assetId,
+        String contentType
+) {
+}
@@ -0,0 +1,22 @@
+package es.nttdata.assetsproxy.domain.model;
+
+/**
+ * Outcome of one asset of a batch upload: the id it was accepted with, or why it was rejected.
+ */
+public record UploadResult(
+        Long id,
+        String error
+) {
+
+    public static UploadResult accepted(Long id) {
+        return new UploadResult(id, null);
+    }
+
+    public static UploadResult rejected(String error) {
+        return new UploadResult(null, error);
+    }
+
+    public boolean isAccepted() {
+        return id != null;
+    }
+}
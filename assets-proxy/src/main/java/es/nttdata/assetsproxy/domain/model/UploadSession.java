@@ -0,0 +1,18 @@
+package es.nttdata.assetsproxy.domain.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A resumable upload in progress: {@code offset} bytes have been received and made durable so far,
+ * out of {@code size} when the client declared it (null otherwise). Untouched sessions are dropped at
+ * {@code expiresAt}.
+ */
+public record UploadSession(
+        String id,
+        String filename,
+        String contentType,
+        Long size,
+        long offset,
+        OffsetDateTime expiresAt
+) {
+}
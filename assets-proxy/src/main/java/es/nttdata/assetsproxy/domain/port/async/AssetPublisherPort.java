@@ -4,5 +4,16 @@ import es.nttdata.assetsproxy.domain.model.AssetDomain;
 
 public interface AssetPublisherPort {
 
+    /**
+     * Wakes the publisher for an asset saved with its publish job, so the job does not wait for the next
+     * poll of the outbox. Publishing, and its failures, happen from there.
+     */
     void publishAsync(AssetDomain asset);
+
+    /**
+     * Cheap admission check done before any work is spent on the asset.
+     * Throws {@code PublishCapacityExceededException} when the publisher cannot take it right now.
+     */
+    default void checkCapacity(AssetDomain asset) {
+    }
 }
@@ -0,0 +1,32 @@
+package es.nttdata.assetsproxy.domain.port.events;
+
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface AssetEventsPort {
+
+    /**
+     * Records a status change of {@code asset}; {@code from} is null when it was stored directly in {@code to}.
+     */
+    void statusChanged(AssetDomain asset, AssetStatus from, AssetStatus to, String url);
+
+    /**
+     * Up to {@code max} events after {@code lastEventId}, waiting at most {@code timeout} for the first
+     * one. Events no longer retained are skipped: the ids of the result then jump.
+     */
+    List<AssetStatusEvent> awaitAfter(long lastEventId, int max, Duration timeout) throws InterruptedException;
+
+    /**
+     * Id of the newest event, 0 when there is none yet.
+     */
+    long lastEventId();
+
+    /**
+     * Identifies this run of the event buffer: ids of another epoch say nothing about what a client missed.
+     */
+    String epoch();
+}
@@ -0,0 +1,37 @@
+package es.nttdata.assetsproxy.domain.port.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyPort {
+
+    /**
+     * Id of the asset already accepted under {@code key}, looked up by the key alone; empty when the key is
+     * free, in which case it still has to be {@link #claim claimed}.
+     *
+     * @throws es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException while another request
+     *                                                                             holds the key
+     * @throws es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException when the key was claimed by
+     *                                                                             a different request
+     */
+    Optional<Long> find(String key, String fingerprint);
+
+    /**
+     * Id of the asset already accepted under {@code key}, or empty when the key is now claimed by the
+     * caller. A claimed key is completed by saving its asset with
+     * {@link es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort#save(es.nttdata.assetsproxy.domain.model.AssetDomain, String)},
+     * in the same transaction as the asset, or given up with {@link #release}.
+     *
+     * @param fingerprint identifies the request within the key: a replay must come with the same one
+     * @throws es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException while another request
+     *                                                                             holds the key
+     * @throws es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException when the key was claimed by
+     *                                                                             a different request
+     */
+    Optional<Long> claim(String key, String fingerprint);
+
+    /**
+     * Gives up a claimed key whose request failed, so that a retry can claim it again, even when its asset
+     * was already saved under it.
+     */
+    void release(String key);
+}
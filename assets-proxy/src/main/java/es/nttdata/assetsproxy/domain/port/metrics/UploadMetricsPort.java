@@ -0,0 +1,14 @@
+package es.nttdata.assetsproxy.domain.port.metrics;
+
+public interface UploadMetricsPort {
+
+    /**
+     * Records a lookup of already published content; on a hit, {@code bytes} were not published again.
+     */
+    void contentLookup(boolean hit, long bytes);
+
+    /**
+     * Records one accept call, single or batch: how long it took and how many assets it accepted and rejected.
+     */
+    void accepted(boolean batch, long elapsedNanos, int accepted, int rejected);
+}
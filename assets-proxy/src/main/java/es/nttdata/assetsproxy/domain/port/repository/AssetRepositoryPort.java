@@ -1,21 +1,82 @@
 package es.nttdata.assetsproxy.domain.port.repository;
 
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AssetRepositoryPort {
 
     Optional<AssetDomain> findById(Long id);
 
-    AssetDomain save(AssetDomain asset);
+    /**
+     * Same as {@link #findById(Long)}, narrowed to the asset's upload date when it is known (not null), so
+     * only the partition holding it is read.
+     */
+    Optional<AssetDomain> findById(Long id, OffsetDateTime uploadDate);
+
+    default AssetDomain save(AssetDomain asset) {
+        return save(asset, null);
+    }
+
+    /**
+     * Same as {@link #save(AssetDomain)}, also completing the idempotency key the caller claimed for it (when
+     * not null) in the same transaction: the key is accepted exactly when the asset is.
+     */
+    AssetDomain save(AssetDomain asset, String idempotencyKey);
+
+    /**
+     * Inserts all the assets in one transaction and one batched write. Returns them saved, in order.
+     */
+    List<AssetDomain> saveAll(List<AssetDomain> assets);
 
     List<AssetDomain> search(SearchCriteria criteria);
 
-    void updateStatus(Long id, AssetStatus status);
+    /**
+     * Storage URL of a COMPLETED asset with the same content digest and size, if there is one.
+     */
+    Optional<String> findPublishedUrl(String contentDigest, int size);
+
+    AssetPage searchPage(SearchCriteria criteria);
+
+    /**
+     * Hands every matching asset to the sink as it is read, without materializing the result.
+     * Returns the number of assets streamed.
+     */
+    long streamSearch(SearchCriteria criteria, Consumer<AssetDomain> sink);
+
+    /**
+     * Moves the asset from {@code from} to {@code to} (setting the storage URL too when not null) in a
+     * single conditional update. Returns false when the asset was not in {@code from} anymore or the
+     * transition is not allowed, so concurrent or duplicate transitions lose without any lock.
+     */
+    default boolean transition(Long id, AssetStatus from, AssetStatus to, String storageUrl) {
+        return transition(id, null, from, to, storageUrl);
+    }
+
+    /**
+     * Same as {@link #transition(Long, AssetStatus, AssetStatus, String)}, narrowed to the asset's upload date
+     * when it is known (not null), so only the partition holding it is updated.
+     */
+    boolean transition(Long id, OffsetDateTime uploadDate, AssetStatus from, AssetStatus to, String storageUrl);
+
+    /**
+     * Assets uploaded between both days (UTC, inclusive) by content type and status, read from
+     * incrementally maintained daily counts rather than the assets themselves.
+     */
+    List<AssetCount> countByTypeAndStatus(LocalDate from, LocalDate to);
 
-    void updateStorageUrl(Long id, String storageUrl);
+    /**
+     * Number of assets in each status, read from the same daily counts as {@link #countByTypeAndStatus};
+     * statuses without assets are missing from the map.
+     */
+    Map<AssetStatus, Long> countByStatus();
 }
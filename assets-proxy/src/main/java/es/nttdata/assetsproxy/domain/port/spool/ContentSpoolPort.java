@@ -0,0 +1,31 @@
+package es.nttdata.assetsproxy.domain.port.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ContentSpoolPort {
+
+    /**
+     * Stores whatever the writer produces and returns a handle to it. Size and checksum
+     * are computed on the way through, so the content is never held in memory as a whole.
+     */
+    AssetContent spool(ContentWriter writer) throws IOException;
+
+    /**
+     * Moves the content where it survives a restart and returns a reference {@link #reopen} resolves,
+     * possibly in another process. The handle passed in must not be read afterwards.
+     */
+    String retain(AssetContent content) throws IOException;
+
+    /**
+     * Handle to retained content; releasing it deletes the content for good.
+     */
+    AssetContent reopen(String reference, String checksum) throws IOException;
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
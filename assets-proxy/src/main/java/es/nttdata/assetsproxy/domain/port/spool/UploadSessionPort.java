@@ -0,0 +1,32 @@
+package es.nttdata.assetsproxy.domain.port.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface UploadSessionPort {
+
+    UploadSession create(String filename, String contentType, Long size) throws IOException;
+
+    Optional<UploadSession> find(String id) throws IOException;
+
+    /**
+     * Appends what {@code chunk} writes at {@code offset}, which must be the session's current offset.
+     * With a {@code checksum} (hex SHA-256) the chunk is kept only if its bytes match it. The new
+     * offset is durable once this returns.
+     *
+     * @throws es.nttdata.assetsproxy.domain.exception.UploadOffsetMismatchException when {@code offset}
+     *                                                                               is not the current one
+     */
+    UploadSession append(String id, long offset, String checksum, ContentSpoolPort.ContentWriter chunk) throws IOException;
+
+    /**
+     * Ends the session and hands its bytes over as spooled content, checked against {@code checksum}
+     * (hex SHA-256 of the whole content) when given.
+     */
+    AssetContent complete(String id, String checksum) throws IOException;
+
+    void abort(String id) throws IOException;
+}
@@ -0,0 +1,23 @@
+package es.nttdata.assetsproxy.domain.port.storage;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+
+import java.io.IOException;
+
+public interface StoragePort {
+
+    /**
+     * Persists the content under {@code key} (e.g. {@code images/<uuid>-logo.png}) and returns the
+     * location it can be retrieved from, which becomes the asset url. Keys are unique, so an existing
+     * object is never overwritten.
+     */
+    String store(String key, AssetContent content) throws IOException;
+
+    /**
+     * Handle to the content stored at {@code location}, as returned by {@link #store}. It is read
+     * only: releasing it leaves the stored object alone.
+     *
+     * @throws java.nio.file.NoSuchFileException when nothing is stored there
+     */
+    AssetContent open(String location, String checksum) throws IOException;
+}
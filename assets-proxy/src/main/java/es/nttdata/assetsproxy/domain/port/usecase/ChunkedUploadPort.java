@@ -0,0 +1,21 @@
+package es.nttdata.assetsproxy.domain.port.usecase;
+
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+
+public interface ChunkedUploadPort {
+
+    UploadSession create(String filename, String contentType, Long size);
+
+    UploadSession find(String sessionId);
+
+    UploadSession append(String sessionId, long offset, String checksum, ContentSpoolPort.ContentWriter chunk);
+
+    /**
+     * Accepts the assembled content as a new asset, exactly as a single request upload would, and
+     * returns its id.
+     */
+    Long complete(String sessionId, String checksum);
+
+    void abort(String sessionId);
+}
@@ -0,0 +1,14 @@
+package es.nttdata.assetsproxy.domain.port.usecase;
+
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+
+public interface DownloadAssetPort {
+
+    /**
+     * The asset with a read-only handle to its published content as {@code content}.
+     *
+     * @throws es.nttdata.assetsproxy.domain.exception.AssetNotFoundException when the asset does not
+     *         exist, is not COMPLETED yet or its content is gone from storage
+     */
+    AssetDomain open(Long id);
+}
@@ -1,11 +1,27 @@
 package es.nttdata.assetsproxy.domain.port.usecase;
 
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface SearchAssetsPort {
 
     List<AssetDomain> search(SearchCriteria criteria);
+
+    /**
+     * Keyset paginated search: returns at most {@code criteria.limit()} assets after {@code criteria.after()}.
+     */
+    AssetPage searchPage(SearchCriteria criteria);
+
+    long stream(SearchCriteria criteria, Consumer<AssetDomain> sink);
+
+    /**
+     * Assets uploaded between both days (UTC, inclusive) by content type and status.
+     */
+    List<AssetCount> count(LocalDate from, LocalDate to);
 }
@@ -1,9 +1,28 @@
 package es.nttdata.assetsproxy.domain.port.usecase;
 
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.UploadResult;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 public interface UploadAssetPort {
 
     Long accept(AssetDomain asset);
 
+    /**
+     * Accepts the asset once per {@code idempotencyKey}: a key accepted before returns the same id without
+     * calling {@code asset}, so a retried request is not read, saved nor published again. The retry must
+     * repeat the {@code replayMetadata} of the first request, what it declares of the upload before its body
+     * (filename, content type, length, digest; nulls allowed), or it is refused. A null key behaves as
+     * {@link #accept(AssetDomain)}.
+     */
+    Long accept(String idempotencyKey, List<String> replayMetadata, Supplier<AssetDomain> asset);
+
+    /**
+     * Accepts every valid asset with a single batched write. The results follow the order of
+     * {@code assets}; an invalid or rejected asset does not fail the others.
+     */
+    List<UploadResult> acceptAll(List<AssetDomain> assets);
+
 }
@@ -0,0 +1,19 @@
+package es.nttdata.assetsproxy.domain.port.usecase;
+
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
+
+import java.util.function.Consumer;
+
+public interface WatchAssetsPort {
+
+    /**
+     * Hands the status changes matching {@code watch} to {@code sink} as they happen, and calls
+     * {@code idle} after every heartbeat interval without any. When the watch resumes from an epoch that
+     * is not the current one, {@code resync} is called first: the client may have missed changes and
+     * should reload what it shows. Returns the number of events sent once the maximum duration has passed,
+     * the watched asset has reached a final status or the thread is interrupted; an exception thrown by
+     * {@code sink}, {@code idle} or {@code resync} ends it too.
+     */
+    long watch(StatusWatch watch, Consumer<AssetStatusEvent> sink, Runnable idle, Runnable resync);
+}
@@ -0,0 +1,158 @@
+package es.nttdata.assetsproxy.domain.validation;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides whether a {@code filename} search expression may reach the database. It has to be a valid
+ * regular expression written in the syntax Java and PostgreSQL share: Java-only constructs (possessive
+ * quantifiers, {@code \p{..}} and other letter escapes, named or flag groups, nested classes) would pass
+ * {@link Pattern} and then fail in the database. The constructs that make regex matching blow up
+ * (backreferences, quantified groups that already contain an unbounded quantifier, such as {@code (a+)+})
+ * are refused up front too. Verdicts are cached by pattern, so a repeated search is not compiled and
+ * scanned again.
+ */
+public final class FilenamePatternPolicy {
+
+    public static final int MAX_LENGTH = 256;
+    private static final int CACHE_SIZE = 512;
+
+    private static final Map<String, String> VERDICTS = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+    private static final String ACCEPTED = "";
+
+    // letter escapes that mean the same in both engines; \D, \S and \W are refused inside brackets by PostgreSQL
+    private static final String ESCAPES = "dswDSWtnrf";
+    private static final String CLASS_ESCAPES = "dswtnrf";
+    private static final String[] GROUP_PREFIXES = {"(?:", "(?=", "(?!", "(?<=", "(?<!"};
+
+    private FilenamePatternPolicy() {}
+
+    public static void check(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            return;
+        }
+        String verdict = VERDICTS.get(pattern);
+        if (verdict == null) {
+            verdict = evaluate(pattern);
+            VERDICTS.put(pattern, verdict);
+        }
+        if (!verdict.isEmpty()) {
+            throw new BusinessException(verdict);
+        }
+    }
+
+    private static String evaluate(String pattern) {
+        if (pattern.length() > MAX_LENGTH) {
+            return "filename pattern must not exceed " + MAX_LENGTH + " characters";
+        }
+        try {
+            Pattern.compile(pattern);
+        } catch (PatternSyntaxException ex) {
+            return "filename must be a valid regular expression: " + ex.getDescription();
+        }
+        return scan(pattern);
+    }
+
+    /**
+     * Walks the expression tracking, per open group, whether it holds an unbounded quantifier, and refusing
+     * what PostgreSQL would read differently or not at all.
+     */
+    private static String scan(String pattern) {
+        Deque<Boolean> groups = new ArrayDeque<>();
+        boolean unbounded = false;
+        boolean inClass = false;
+        boolean closedUnboundedGroup = false;
+        boolean quantified = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            boolean justClosed = false;
+            boolean quantifier = false;
+            if (c == '\\') {
+                char escaped = i + 1 < pattern.length() ? pattern.charAt(i + 1) : ' ';
+                if (!inClass && Character.isDigit(escaped) && escaped != '0') {
+                    return "filename pattern must not use backreferences";
+                }
+                if (Character.isLetterOrDigit(escaped) && (inClass ? CLASS_ESCAPES : ESCAPES).indexOf(escaped) < 0) {
+                    return "filename pattern must not use \\" + escaped + (inClass ? " inside brackets" : "");
+                }
+                i++;
+            } else if (inClass) {
+                if (c == '[' || (c == '&' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '&')) {
+                    return "filename pattern must not nest or intersect character classes";
+                }
+                inClass = c != ']';
+            } else if (c == '[') {
+                inClass = true;
+                // a leading ] or ^] is a literal member, not the end of the class
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == '(') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '?' && !plainGroup(pattern, i)) {
+                    return "filename pattern must only use plain, (?:, (?=, (?!, (?<= and (?<! groups";
+                }
+                groups.push(unbounded);
+                unbounded = false;
+            } else if (c == ')' && !groups.isEmpty()) {
+                closedUnboundedGroup = unbounded;
+                unbounded = groups.pop() || unbounded;
+                justClosed = true;
+            } else if (c == '+' && quantified) {
+                return "filename pattern must not use possessive quantifiers";
+            } else if (c == '*' || c == '+' || (c == '{' && isRepeat(pattern, i))) {
+                boolean unboundedRepeat = c != '{' || isUnboundedRepeat(pattern, i);
+                if (unboundedRepeat && i > 0 && pattern.charAt(i - 1) == ')' && closedUnboundedGroup) {
+                    return "filename pattern must not nest unbounded quantifiers";
+                }
+                unbounded |= unboundedRepeat;
+                if (c == '{') {
+                    i = pattern.indexOf('}', i);
+                }
+                quantifier = true;
+            } else if (c == '?') {
+                // after another quantifier it makes it lazy, which both engines support
+                quantifier = !quantified;
+            }
+            if (!justClosed && c != '*' && c != '+' && c != '?' && c != '{') {
+                closedUnboundedGroup = false;
+            }
+            quantified = quantifier;
+        }
+        return ACCEPTED;
+    }
+
+    private static boolean plainGroup(String pattern, int open) {
+        for (String prefix : GROUP_PREFIXES) {
+            if (pattern.startsWith(prefix, open)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRepeat(String pattern, int open) {
+        int close = pattern.indexOf('}', open);
+        return close > open && pattern.substring(open + 1, close).matches("\\d+(,\\d*)?");
+    }
+
+    private static boolean isUnboundedRepeat(String pattern, int open) {
+        int close = pattern.indexOf('}', open);
+        return close > open && pattern.substring(open + 1, close).matches("\\d+,");
+    }
+}
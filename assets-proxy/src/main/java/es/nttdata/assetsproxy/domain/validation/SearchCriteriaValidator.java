@@ -6,6 +6,8 @@ import es.nttdata.assetsproxy.domain.model.SearchCriteria;
 
 public final class SearchCriteriaValidator {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private SearchCriteriaValidator() {}
 
     public static void validate(SearchCriteria criteria) {
@@ -16,6 +18,7 @@ public final class SearchCriteriaValidator {
         if (isBlank(criteria.filenamePattern())) {
             throw new BusinessException(("Filename must not be empty or blank"));
         }
+        FilenamePatternPolicy.check(criteria.filenamePattern());
 
         if (isBlank(criteria.filetype())) {
             throw new BusinessException(("Filetype must not be empty or blank"));
@@ -25,6 +28,10 @@ public final class SearchCriteriaValidator {
                 && !criteria.uploadDateStart().isBefore(criteria.uploadDateEnd())) {
             throw new BusinessException(("uploadDateStart must be strictly before uploadDateEnd"));
         }
+
+        if (criteria.limit() < SearchCriteria.UNPAGED || criteria.limit() > MAX_PAGE_SIZE) {
+            throw new BusinessException(("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
     }
 
     private static boolean isBlank(String value) {
@@ -0,0 +1,24 @@
+package es.nttdata.assetsproxy.domain.validation;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
+
+public final class StatusWatchValidator {
+
+    private StatusWatchValidator() {}
+
+    public static void validate(StatusWatch watch) {
+        if (watch == null) {
+            throw new BusinessException("Status watch cannot be null");
+        }
+        if (watch.lastEventId() != null && watch.lastEventId() < 0) {
+            throw new BusinessException("Last-Event-ID must not be negative");
+        }
+        if (watch.lastEventId() != null && (watch.lastEventEpoch() == null || watch.lastEventEpoch().isBlank())) {
+            throw new BusinessException("Last-Event-ID must be <epoch>-<sequence>");
+        }
+        if (watch.contentType() != null && watch.contentType().isBlank()) {
+            throw new BusinessException("contentType must not be empty or blank");
+        }
+    }
+}
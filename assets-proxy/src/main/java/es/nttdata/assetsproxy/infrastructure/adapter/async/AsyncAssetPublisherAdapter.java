@@ -1,21 +1,46 @@
 package es.nttdata.assetsproxy.infrastructure.adapter.async;
 
 import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.domain.port.async.AssetPublisherPort;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
-import lombok.RequiredArgsConstructor;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import es.nttdata.assetsproxy.infrastructure.adapter.repository.PublishOutbox;
+import es.nttdata.assetsproxy.infrastructure.persistence.routing.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Relays the publish outbox to storage. Accepted assets already have their job committed with them;
+ * a relay thread claims jobs in batches (as many as the {@link PublishQueue} has room for) and runs
+ * them there. {@link #publishAsync} only wakes the relay so a new job does not wait for the next poll.
+ * Every status change is counted in {@code assets.status.transitions} and every publish is timed in
+ * {@code assets.publish}, tagged by content type, size bucket and outcome, and handed to the
+ * {@link AssetEventsPort} for the status stream.
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Component
 public class AsyncAssetPublisherAdapter implements AssetPublisherPort {
 
@@ -23,41 +48,278 @@ public class AsyncAssetPublisherAdapter implements AssetPublisherPort {
 
     private static final Set<String> VIDEO_EXTENSIONS = Set.of(".mp4", ".mov", ".mpeg", ".webm");
 
+    private static final long[] SIZE_BUCKETS = {64L << 10, 1L << 20, 16L << 20, 256L << 20};
+
+    private static final String[] SIZE_BUCKET_TAGS = {"lt64KB", "lt1MB", "lt16MB", "lt256MB", "ge256MB"};
+
     private final AssetRepositoryPort repository;
+    private final PublishQueue queue;
+    private final StoragePort storage;
+    private final PublishOutbox outbox;
+    private final ContentSpoolPort spool;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final int maxAttempts;
+    private final MeterRegistry registry;
+    private final AssetEventsPort events;
+    private final Semaphore wakeups = new Semaphore(0);
+    private volatile boolean running;
+    private Thread relay;
+
+    public AsyncAssetPublisherAdapter(AssetRepositoryPort repository,
+                                      PublishQueue queue,
+                                      StoragePort storage,
+                                      PublishOutbox outbox,
+                                      ContentSpoolPort spool,
+                                      MeterRegistry registry,
+                                      AssetEventsPort events,
+                                      @Value("${assets.outbox.batch-size:50}") int batchSize,
+                                      @Value("${assets.outbox.poll-interval:1s}") Duration pollInterval,
+                                      @Value("${assets.outbox.max-attempts:5}") int maxAttempts) {
+        this.repository = repository;
+        this.queue = queue;
+        this.storage = storage;
+        this.outbox = outbox;
+        this.spool = spool;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxAttempts = maxAttempts;
+        this.registry = registry;
+        this.events = events;
+    }
+
+    /**
+     * A batch size of 0 leaves the relay off, for instances that should only accept uploads.
+     */
+    @PostConstruct
+    public void start() {
+        if (batchSize == 0) {
+            log.info("Publish relay disabled");
+            return;
+        }
+        running = true;
+        relay = Thread.ofVirtual().name("publish-relay").start(this::relayLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
+
+    @Override
+    public void checkCapacity(AssetDomain asset) {
+        queue.checkCapacity(sizeOf(asset));
+    }
 
-    @Async
     @Override
     public void publishAsync(AssetDomain asset) {
+        wakeups.release();
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                wakeups.drainPermits();
+                if (drain() == 0) {
+                    wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Publish relay could not claim jobs: {}", ex.getMessage());
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims one batch and queues what fits; a job the queue turns away (e.g. too big for the bytes left) is
+     * handed back without holding up the smaller ones after it. Returns 0 when there is nothing to do or
+     * something did not fit, so the relay waits before claiming again.
+     */
+    int drain() {
+        int room = Math.min(batchSize, queue.remainingCapacity());
+        if (room == 0) {
+            return 0;
+        }
+        List<PublishOutbox.Job> jobs = outbox.claim(room);
+        boolean rejected = false;
+        for (PublishOutbox.Job job : jobs) {
+            try {
+                queue.submit(job.contentSize(), () -> process(job));
+            } catch (PublishCapacityExceededException ex) {
+                outbox.release(job.id());
+                rejected = true;
+            }
+        }
+        return rejected ? 0 : jobs.size();
+    }
+
+    void process(PublishOutbox.Job job) {
+        try {
+            // the job was just claimed on the primary; a lagging replica may not show the asset or its last status.
+            // The job's upload date keeps the read, and the transitions after it, in the asset's partition
+            Optional<AssetDomain> found = ReadYourWrites.primary(() -> repository.findById(job.assetId(), job.uploadDate()));
+            AssetDomain asset = found.orElse(null);
+            if (asset == null || asset.getStatus() == AssetStatus.COMPLETED || asset.getStatus() == AssetStatus.FAILED) {
+                // finished by a worker that died before completing the job
+                discardContent(job);
+            } else if (job.attempts() > maxAttempts) {
+                log.error("Giving up on asset {} after {} attempts", job.assetId(), maxAttempts);
+                transition(asset, asset.getStatus(), AssetStatus.FAILED, null);
+                discardContent(job);
+            } else {
+                asset.setContent(reopen(job, asset.getContentDigest()));
+                publish(asset);
+            }
+            outbox.complete(job.id());
+        } catch (RepositoryOverloadedException ex) {
+            // not the asset's fault: handed back with its attempt and content, so shedding alone never fails it
+            log.warn("Publish job {} for asset {} deferred: {}", job.id(), job.assetId(), ex.getMessage());
+            release(job);
+        } catch (RuntimeException ex) {
+            // the lease expires and the job is claimed again
+            log.error("Publish job {} for asset {} failed: {}", job.id(), job.assetId(), ex.getMessage());
+        }
+    }
+
+    private void release(PublishOutbox.Job job) {
+        try {
+            outbox.release(job.id());
+        } catch (RuntimeException ex) {
+            // still overloaded: the lease expires instead
+            log.warn("Publish job {} could not be handed back: {}", job.id(), ex.getMessage());
+        }
+    }
+
+    void publish(AssetDomain asset) {
+        AssetContent content = asset.getContent();
+        AssetStatus current = asset.getStatus() == AssetStatus.UPLOADING ? AssetStatus.UPLOADING : AssetStatus.PENDING;
+        long start = System.nanoTime();
+        String outcome = "failed";
         try {
             //Thread.sleep(10000);
-            byte[] content = asset.getFileBytes();
-            if (content == null || content.length == 0) {
+            if (content == null || content.size() == 0) {
                 log.error("ERROR: The content cannot be empty");
-                repository.updateStatus(asset.getId(), AssetStatus.FAILED);
+                transition(asset, current, AssetStatus.FAILED, null);
                 return;
             }
 
-            repository.updateStatus(asset.getId(), AssetStatus.UPLOADING);
-            log.info("Simulating upload: '{}' ({} bytes).", asset.getFilename(), content.length);
-            String url = buildStorageUrl(asset.getFilename(), asset.getContentType());
-            repository.updateStorageUrl(asset.getId(), url);
-            //Thread.sleep(10000);
-            repository.updateStatus(asset.getId(), AssetStatus.COMPLETED);
-            log.info("Simulation of upload completed.");
+            // an UPLOADING asset comes from a job whose worker died: the lease makes it ours now
+            if (current == AssetStatus.PENDING
+                    && !transition(asset, current, AssetStatus.UPLOADING, null)) {
+                log.warn("Asset {} is already being published, skipping.", asset.getId());
+                outcome = "skipped";
+                return;
+            }
+            current = AssetStatus.UPLOADING;
+            log.info("Uploading: '{}' ({} bytes).", asset.getFilename(), content.size());
+            String url = storage.store(buildStorageKey(asset.getFilename(), asset.getContentType()), content);
+            transition(asset, current, AssetStatus.COMPLETED, url);
+            outcome = "completed";
+            log.info("Upload completed: {}.", url);
+        } catch (RepositoryOverloadedException ex) {
+            // not the asset's fault: the job is handed back and retried with its content still retained
+            outcome = "deferred";
+            throw ex;
         } catch (Exception ex) {
-            log.error("Error simulating file upload.: "+ex.getMessage());
-            repository.updateStatus(asset.getId(), AssetStatus.FAILED);
+            log.error("Error uploading file: " + ex.getMessage());
+            transition(asset, current, AssetStatus.FAILED, null);
+        } finally {
+            Timer.builder("assets.publish")
+                    .description("Time to publish one asset to storage")
+                    .tag("type", contentKind(asset.getContentType()))
+                    .tag("size", sizeBucket(content != null ? content.size() : 0))
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (content != null && !"deferred".equals(outcome)) {
+                content.release();
+            }
+        }
+    }
+
+    private boolean transition(AssetDomain asset, AssetStatus from, AssetStatus to, String url) {
+        boolean changed = repository.transition(asset.getId(), asset.getUploadDate(), from, to, url);
+        if (changed) {
+            Counter.builder("assets.status.transitions")
+                    .description("Asset status changes made by the publisher")
+                    .tag("from", from.name())
+                    .tag("to", to.name())
+                    .register(registry)
+                    .increment();
+            events.statusChanged(asset, from, to, url);
+        }
+        return changed;
+    }
+
+    static String contentKind(String contentType) {
+        if (contentType != null) {
+            String lower = contentType.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("image/")) return "image";
+            if (lower.startsWith("video/")) return "video";
+        }
+        return "other";
+    }
+
+    static String sizeBucket(long bytes) {
+        for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+            if (bytes < SIZE_BUCKETS[i]) {
+                return SIZE_BUCKET_TAGS[i];
+            }
+        }
+        return SIZE_BUCKET_TAGS[SIZE_BUCKETS.length];
+    }
+
+    /**
+     * Null when the job has no content or it is gone, which fails the asset.
+     */
+    private AssetContent reopen(PublishOutbox.Job job, String checksum) {
+        if (job.contentRef() == null) {
+            return null;
+        }
+        try {
+            return spool.reopen(job.contentRef(), checksum);
+        } catch (IOException ex) {
+            log.error("Retained content {} of asset {} is not readable: {}", job.contentRef(), job.assetId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private void discardContent(PublishOutbox.Job job) {
+        AssetContent content = reopen(job, null);
+        if (content != null) {
+            content.release();
+        }
+    }
+
+    /**
+     * The declared size stands in for content not received yet.
+     */
+    private static long sizeOf(AssetDomain asset) {
+        if (asset.getContent() != null) {
+            return asset.getContent().size();
         }
+        return asset.getSize() != null ? asset.getSize() : 0;
     }
 
-    private static String buildStorageUrl(String filename, String contentType) {
+    private static String buildStorageKey(String filename, String contentType) {
         String safeName = sanitizeFilename(filename);
         String folder = resolveFolder(contentType, safeName); // "images" | "videos"
         String uniqueName = UUID.randomUUID() + "-" + safeName;
         return folder + "/" + uniqueName;
     }
 
-    private static String resolveFolder(String contentType, String filename) {
+    static String resolveFolder(String contentType, String filename) {
         if (contentType != null && !contentType.isBlank()) {
             String lower = contentType.toLowerCase(Locale.ROOT);
             if (lower.startsWith("image/")) return "images";
@@ -74,7 +336,7 @@ public class AsyncAssetPublisherAdapter implements AssetPublisherPort {
         throw new BusinessException("Only images and videos are allowed.");
     }
 
-    private static String sanitizeFilename(String raw) {
+    static String sanitizeFilename(String raw) {
         String justName = raw.replace("\\", "/");
         int idx = justName.lastIndexOf('/');
         if (idx >= 0) justName = justName.substring(idx + 1);
@@ -0,0 +1,119 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.async;
+
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, size-aware executor for publish jobs. At most {@code maxConcurrency} jobs run at once,
+ * at most {@code maxQueued} wait, and the content they hold may not add up to more than
+ * {@code maxPendingBytes}. Anything beyond that is rejected straight away instead of piling up.
+ */
+@Slf4j
+public class PublishQueue implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxPendingBytes;
+    private final Duration retryAfter;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private volatile Timer queueWait;
+
+    public PublishQueue(int maxConcurrency, int maxQueued, long maxPendingBytes, Duration retryAfter) {
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), Thread.ofVirtual().name("publisher-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxPendingBytes = maxPendingBytes;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Fails if a job of the given size would be rejected right now. Only a hint: {@link #submit} decides.
+     */
+    public void checkCapacity(long bytes) {
+        if (executor.getQueue().remainingCapacity() == 0 || !fits(pendingBytes.get(), bytes)) {
+            throw reject("Publish queue is full, retry later");
+        }
+    }
+
+    /**
+     * Jobs that can still be queued right now.
+     */
+    public int remainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    public void submit(long bytes, Runnable job) {
+        long pending = pendingBytes.addAndGet(bytes);
+        if (!fits(pending - bytes, bytes)) {
+            pendingBytes.addAndGet(-bytes);
+            throw reject("Publish byte budget exhausted, retry later");
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                Timer wait = queueWait;
+                if (wait != null) {
+                    wait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                }
+                try {
+                    job.run();
+                } finally {
+                    pendingBytes.addAndGet(-bytes);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingBytes.addAndGet(-bytes);
+            throw reject("Publish queue is full, retry later");
+        }
+    }
+
+    /**
+     * A job bigger than the whole budget is still admitted when nothing else is pending,
+     * otherwise it could never be published.
+     */
+    private boolean fits(long alreadyPending, long bytes) {
+        return alreadyPending == 0 || alreadyPending + bytes <= maxPendingBytes;
+    }
+
+    private PublishCapacityExceededException reject(String message) {
+        rejections.incrementAndGet();
+        log.warn("{} (queued: {}, pending bytes: {})", message, executor.getQueue().size(), pendingBytes.get());
+        return new PublishCapacityExceededException(message, retryAfter);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("assets.publish.queue.depth", executor, e -> e.getQueue().size())
+                .description("Publish jobs waiting for a free slot")
+                .register(registry);
+        Gauge.builder("assets.publish.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Publish jobs running")
+                .register(registry);
+        Gauge.builder("assets.publish.pending.bytes", pendingBytes, AtomicLong::get)
+                .description("Content bytes held by queued and running publish jobs")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("assets.publish.rejections", rejections, AtomicLong::get)
+                .description("Publish jobs rejected because the queue or the byte budget was full")
+                .register(registry);
+        queueWait = Timer.builder("assets.publish.queue.wait")
+                .description("Time publish jobs wait for a free slot")
+                .register(registry);
+    }
+}
@@ -0,0 +1,109 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.events;
+
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
+import es.nttdata.assetsproxy.infrastructure.adapter.events.PostgresEventRelay.StatusChange;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the last {@code bufferSize} status changes in a ring, shared by every stream: a stream holds no
+ * events of its own, only the id it has read up to, so a slow client costs nothing until it falls behind
+ * the ring and loses the oldest events. Changes go through the {@link PostgresEventRelay}, so the ring of
+ * every instance gets those made on the others too. Ids restart at 1 with the instance, under a new random
+ * epoch.
+ */
+@Component
+public class InMemoryAssetEventsAdapter implements AssetEventsPort {
+
+    private final AssetStatusEvent[] ring;
+    private final PostgresEventRelay relay;
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long lastId;
+
+    public InMemoryAssetEventsAdapter(@Value("${assets.events.buffer-size:4096}") int bufferSize,
+                                      PostgresEventRelay relay) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("assets.events.buffer-size must be positive");
+        }
+        this.ring = new AssetStatusEvent[bufferSize];
+        this.relay = relay;
+    }
+
+    @PostConstruct
+    public void start() {
+        relay.start(this::append);
+    }
+
+    @Override
+    public void statusChanged(AssetDomain asset, AssetStatus from, AssetStatus to, String url) {
+        StatusChange change = new StatusChange(asset.getId(), asset.getFilename(), asset.getContentType(),
+                from, to, url, OffsetDateTime.now());
+        // once relayed it comes back through the listener, like the changes of the other instances
+        if (!relay.publish(change)) {
+            append(change);
+        }
+    }
+
+    void append(StatusChange change) {
+        lock.lock();
+        try {
+            long id = ++lastId;
+            ring[(int) (id % ring.length)] = new AssetStatusEvent(epoch, id, change.assetId(), change.filename(),
+                    change.contentType(), change.from(), change.to(), change.url(), change.at());
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<AssetStatusEvent> awaitAfter(long lastEventId, int max, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            // a client that remembers a previous run of the instance starts over
+            long after = lastEventId > lastId ? 0 : lastEventId;
+            while (lastId == after && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            long first = Math.max(after + 1, lastId - ring.length + 1);
+            long last = Math.min(lastId, first + max - 1);
+            List<AssetStatusEvent> events = new ArrayList<>((int) Math.max(0, last - first + 1));
+            for (long id = first; id <= last; id++) {
+                events.add(ring[(int) (id % ring.length)]);
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long lastEventId() {
+        lock.lock();
+        try {
+            return lastId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String epoch() {
+        return epoch;
+    }
+}
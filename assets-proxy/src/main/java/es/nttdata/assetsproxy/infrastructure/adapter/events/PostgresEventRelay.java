@@ -0,0 +1,171 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.infrastructure.adapter.repository.AdaptiveConcurrencyLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Shares status changes between instances through PostgreSQL {@code NOTIFY}: every instance keeps one
+ * connection listening on {@value #CHANNEL} and hands each change it hears, its own included, to the sink.
+ * Until that connection is up (and on other databases) {@link #publish} declines, and the caller keeps
+ * the change to itself. Changes notified while an instance is reconnecting are not seen by it. Notifying takes
+ * a permit from the {@link AdaptiveConcurrencyLimiter}. The listening connection, held for good, is opened
+ * outside the pool, so every pooled connection stays available to the permits the limiter hands out.
+ */
+@Slf4j
+@Component
+public class PostgresEventRelay {
+
+    static final String CHANNEL = "asset_status";
+
+    // bounds how long shutdown waits for the listener; a notification wakes it straight away
+    private static final int LISTEN_TIMEOUT_MILLIS = 1000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbc;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final Duration reconnectDelay;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public PostgresEventRelay(DataSourceProperties dataSourceProperties,
+                              JdbcTemplate jdbc,
+                              AdaptiveConcurrencyLimiter limiter,
+                              ObjectMapper objectMapper,
+                              @Value("${assets.events.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbc = jdbc;
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * Starts listening on PostgreSQL; does nothing on other databases.
+     */
+    public void start(Consumer<StatusChange> sink) {
+        try {
+            if (!postgres()) {
+                return;
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Status changes stay on this instance, database not reachable: {}", ex.getMessage());
+            return;
+        }
+        running = true;
+        DataSource unpooled = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        listener = Thread.ofVirtual().name("status-listener").start(() -> listen(unpooled, sink));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Notifies every instance of the change. False when it was not sent, e.g. the listener is down or the
+     * payload exceeds what NOTIFY carries, or the database is overloaded: the change is then only this instance's.
+     */
+    public boolean publish(StatusChange change) {
+        if (!listening) {
+            return false;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(change);
+            limiter.call(() -> jdbc.queryForList("select pg_notify(?, ?)", CHANNEL, payload), true);
+            return true;
+        } catch (JsonProcessingException | DataAccessException | RepositoryOverloadedException ex) {
+            log.warn("Status change of asset {} not shared: {}", change.assetId(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean postgres() {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    private void listen(DataSource unpooled, Consumer<StatusChange> sink) {
+        while (running) {
+            // a connection of its own, held for as long as the instance runs
+            try (Connection connection = unpooled.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                listening = true;
+                log.info("Listening for status changes of other instances");
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(LISTEN_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter(), sink);
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                listening = false;
+                if (running) {
+                    log.warn("Status change listener lost its connection: {}", ex.getMessage());
+                    try {
+                        Thread.sleep(reconnectDelay);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            } finally {
+                listening = false;
+            }
+        }
+    }
+
+    private void receive(String payload, Consumer<StatusChange> sink) {
+        try {
+            sink.accept(objectMapper.readValue(payload, StatusChange.class));
+        } catch (IOException ex) {
+            log.warn("Unreadable status change ignored: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * A status change as it travels between instances, before the receiving one gives it an event id.
+     */
+    public record StatusChange(
+            Long assetId,
+            String filename,
+            String contentType,
+            AssetStatus from,
+            AssetStatus to,
+            String url,
+            OffsetDateTime at
+    ) {
+    }
+}
@@ -0,0 +1,72 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.metrics;
+
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code assets.status} gauge per {@link AssetStatus}. The counts come from the daily count rollups, read at
+ * most once per {@code refresh} however often the gauges are scraped.
+ */
+@Slf4j
+@Component
+public class AssetStatusMetrics implements MeterBinder {
+
+    private final AssetRepositoryPort repository;
+    private final long refreshNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<AssetStatus, Long> counts = Map.of();
+    private volatile long refreshedAt;
+    private volatile boolean loaded;
+
+    public AssetStatusMetrics(AssetRepositoryPort repository,
+                              @Value("${assets.metrics.status-refresh:30s}") Duration refresh) {
+        this.repository = repository;
+        this.refreshNanos = refresh.toNanos();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AssetStatus status : AssetStatus.values()) {
+            Gauge.builder("assets.status", this, m -> m.count(status))
+                    .description("Assets currently in each status")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+    }
+
+    double count(AssetStatus status) {
+        long now = System.nanoTime();
+        if (!loaded || now - refreshedAt >= refreshNanos) {
+            lock.lock();
+            try {
+                if (!loaded || now - refreshedAt >= refreshNanos) {
+                    refresh(now);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return counts.getOrDefault(status, 0L);
+    }
+
+    private void refresh(long now) {
+        try {
+            counts = repository.countByStatus();
+        } catch (RuntimeException ex) {
+            // keep the last counts; retried after the next refresh interval
+            log.warn("Asset status counts could not be refreshed: {}", ex.getMessage());
+        }
+        refreshedAt = now;
+        loaded = true;
+    }
+}
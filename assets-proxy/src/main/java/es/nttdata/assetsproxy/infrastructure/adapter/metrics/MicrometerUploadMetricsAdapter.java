@@ -0,0 +1,73 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.metrics;
+
+import es.nttdata.assetsproxy.domain.port.metrics.UploadMetricsPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class MicrometerUploadMetricsAdapter implements UploadMetricsPort {
+
+    private final Counter lookups;
+    private final Counter hits;
+    private final Counter bytesSaved;
+    private final Timer acceptSingle;
+    private final Timer acceptBatch;
+    private final Counter itemsAccepted;
+    private final Counter itemsRejected;
+
+    public MicrometerUploadMetricsAdapter(MeterRegistry registry) {
+        this.lookups = Counter.builder("assets.dedup.lookups")
+                .description("Uploads checked against already published content")
+                .register(registry);
+        this.hits = Counter.builder("assets.dedup.hits")
+                .description("Uploads that reused the storage URL of identical published content")
+                .register(registry);
+        this.bytesSaved = Counter.builder("assets.dedup.saved")
+                .description("Content bytes that did not have to be published again")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("assets.dedup.hit.ratio", this, m -> m.lookups.count() == 0 ? 0 : m.hits.count() / m.lookups.count())
+                .description("Share of uploads served by deduplication")
+                .register(registry);
+        this.acceptSingle = acceptTimer(registry, "single");
+        this.acceptBatch = acceptTimer(registry, "batch");
+        this.itemsAccepted = itemCounter(registry, "accepted");
+        this.itemsRejected = itemCounter(registry, "rejected");
+    }
+
+    private static Timer acceptTimer(MeterRegistry registry, String mode) {
+        return Timer.builder("assets.upload.accept")
+                .description("Time to validate, insert and hand uploads over to the publisher")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    private static Counter itemCounter(MeterRegistry registry, String result) {
+        return Counter.builder("assets.upload.items")
+                .description("Uploaded assets by accept result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public void contentLookup(boolean hit, long bytes) {
+        lookups.increment();
+        if (hit) {
+            hits.increment();
+            bytesSaved.increment(bytes);
+        }
+    }
+
+    @Override
+    public void accepted(boolean batch, long elapsedNanos, int accepted, int rejected) {
+        (batch ? acceptBatch : acceptSingle).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        itemsAccepted.increment(accepted);
+        itemsRejected.increment(rejected);
+    }
+}
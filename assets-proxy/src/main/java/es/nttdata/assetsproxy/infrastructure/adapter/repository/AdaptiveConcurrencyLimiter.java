@@ -0,0 +1,274 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the repository calls in flight so that, with virtual threads, callers wait here in a bounded queue,
+ * or are turned away, rather than pile up on the connection pool until its acquire timeout. The cap adapts
+ * to query latency like a gradient limiter (TCP Vegas style): every call is compared with a slow moving
+ * latency baseline; while they match the limit grows by about its square root, and as latency climbs above
+ * the baseline, i.e. queries queue in the pool or the database, it shrinks in proportion. Calls failing to
+ * get a connection or timing out cut it by a tenth. Streams, which hold their connection for as long as a
+ * client reads, are capped apart at {@code maxStreams}; each one open lowers the limit of the other calls by
+ * one, so that together they stay within {@code maxLimit}.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    // latency may grow this much over the baseline before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 2.0 / 601;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final int maxStreams;
+    private final Duration maxWait;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final AtomicLong rejected = new AtomicLong();
+    private double limit;
+    private double baselineNanos;
+    private int inFlight;
+    private int queued;
+    private int streams;
+
+    public AdaptiveConcurrencyLimiter(@Value("${assets.db-limiter.min-limit:1}") int minLimit,
+                                      @Value("${assets.db-limiter.max-limit:${spring.datasource.hikari.maximum-pool-size:10}}") int maxLimit,
+                                      @Value("${assets.db-limiter.max-queued:1000}") int maxQueued,
+                                      @Value("${assets.db-limiter.max-wait:2s}") Duration maxWait,
+                                      @Value("${assets.db-limiter.max-streams:1}") int maxStreams) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits " + minLimit + ".." + maxLimit);
+        }
+        if (maxStreams < 0 || maxStreams >= maxLimit) {
+            throw new IllegalArgumentException("max-streams must be between 0 and max-limit - 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.maxStreams = maxStreams;
+        this.maxWait = maxWait;
+        this.limit = maxLimit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("assets.db.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Repository calls allowed in flight at once")
+                .register(registry);
+        Gauge.builder("assets.db.inflight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Repository calls in flight")
+                .register(registry);
+        Gauge.builder("assets.db.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .description("Repository calls waiting for the limit")
+                .register(registry);
+        Gauge.builder("assets.db.streams", this, AdaptiveConcurrencyLimiter::streams)
+                .description("Streaming repository calls open")
+                .register(registry);
+        FunctionCounter.builder("assets.db.rejected", rejected, AtomicLong::get)
+                .description("Repository calls turned away because the queue was full or the wait too long")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code call} once a permit is free. Its latency adjusts the limit when {@code sampled}; calls whose
+     * duration depends on something else, like a client reading a stream, only hold the permit.
+     *
+     * @throws RepositoryOverloadedException when the queue is full or no permit frees up within max-wait
+     */
+    public <T> T call(Supplier<T> call, boolean sampled) {
+        acquire();
+        long start = System.nanoTime();
+        long latency = -1;
+        boolean dropped = false;
+        try {
+            T result = call.get();
+            if (sampled) {
+                latency = System.nanoTime() - start;
+            }
+            return result;
+        } catch (CannotCreateTransactionException | DataAccessResourceFailureException | QueryTimeoutException ex) {
+            dropped = true;
+            throw ex;
+        } finally {
+            release(latency, dropped);
+        }
+    }
+
+    /**
+     * Runs a streaming {@code call}, whose duration is up to the client reading it. It takes one of the
+     * max-streams stream permits, not a regular one, and is turned away at once when none is free: a stream
+     * would keep the next one waiting far longer than max-wait.
+     *
+     * @throws RepositoryOverloadedException when max-streams streams are open
+     */
+    public <T> T stream(Supplier<T> call) {
+        lock.lock();
+        try {
+            if (streams >= maxStreams) {
+                throw reject("Too many streaming searches open");
+            }
+            streams++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return call.get();
+        } finally {
+            lock.lock();
+            try {
+                streams--;
+                signalFree();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // the permits of regular calls: the adaptive limit, less what the open streams take of max-limit
+    private int permits() {
+        return Math.min((int) limit, maxLimit - streams);
+    }
+
+    private void signalFree() {
+        for (int free = Math.min(queued, permits() - inFlight); free > 0; free--) {
+            released.signal();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (queued == 0 && inFlight < permits()) {
+                inFlight++;
+                return;
+            }
+            if (queued >= maxQueued) {
+                throw reject("Too many repository calls waiting");
+            }
+            queued++;
+            try {
+                long remaining = maxWait.toNanos();
+                while (inFlight >= permits()) {
+                    if (remaining <= 0) {
+                        throw reject("No repository permit within " + maxWait);
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw reject("Interrupted waiting for a repository permit");
+            } finally {
+                queued--;
+            }
+            if (queued > 0 && inFlight < permits()) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int active = inFlight--;
+            if (dropped) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (latencyNanos >= 0) {
+                sample(latencyNanos, active);
+            }
+            signalFree();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One latency sample, taken with {@code active} calls in flight.
+     */
+    void sample(long latencyNanos, int active) {
+        lock.lock();
+        try {
+            double latency = Math.max(1, latencyNanos);
+            baselineNanos = baselineNanos == 0 ? latency : baselineNanos + (latency - baselineNanos) * BASELINE_WEIGHT;
+            if (baselineNanos > 2 * latency) {
+                // the load that set the baseline is gone; let it come down faster
+                baselineNanos *= 0.95;
+            }
+            if (active < limit / 2) {
+                // too few calls to say anything about the limit
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latency));
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RepositoryOverloadedException reject(String message) {
+        rejected.incrementAndGet();
+        return new RepositoryOverloadedException(message, maxWait);
+    }
+
+    double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int streams() {
+        lock.lock();
+        try {
+            return streams;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long rejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,170 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.model.AssetCount;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetDailyCountJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incrementally maintained asset counts by upload day, content type and status. Inserts and transitions only
+ * append their deltas to {@code asset_count_deltas}, in the caller's transaction: appends never wait on each
+ * other, whereas updating the few counters of today in place would serialize every writer on their row
+ * locks until commit. The deltas are folded into {@code asset_daily_counts} in the background, and reads add
+ * those not folded yet, so the counts always agree with the assets table.
+ */
+@Slf4j
+@Component
+public class AssetDailyCounts {
+
+    static final int FOLD_BATCH_SIZE = 1000;
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::uploadDay)
+            .thenComparing(Key::contentType)
+            .thenComparing(Key::status);
+
+    private static final String APPEND = "insert into asset_count_deltas (upload_day, content_type, status, delta) values (?, ?, ?, ?)";
+
+    // SKIP LOCKED: replicas folding at the same time take disjoint deltas
+    private static final String CLAIM = "select id, upload_day, content_type, status, delta from asset_count_deltas " +
+            "order by id limit ? for update skip locked";
+
+    private static final String SUM = """
+            select content_type, status, sum(n) from (
+                select content_type, status, asset_count as n from asset_daily_counts where upload_day between ? and ?
+                union all
+                select content_type, status, delta as n from asset_count_deltas where upload_day between ? and ?
+            ) c
+            group by content_type, status having sum(n) > 0 order by content_type, status""";
+
+    private static final String SUM_BY_STATUS = """
+            select status, sum(n) from (
+                select status, asset_count as n from asset_daily_counts
+                union all
+                select status, delta as n from asset_count_deltas
+            ) c
+            group by status having sum(n) > 0""";
+
+    private final AssetDailyCountJpaRepository counts;
+    private final JdbcTemplate jdbc;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final TransactionTemplate transactions;
+
+    public AssetDailyCounts(AssetDailyCountJpaRepository counts, JdbcTemplate jdbc, AdaptiveConcurrencyLimiter limiter,
+                            PlatformTransactionManager transactionManager) {
+        this.counts = counts;
+        this.jdbc = jdbc;
+        this.limiter = limiter;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Counts assets just inserted, one delta per distinct day, content type and status.
+     */
+    void inserted(List<AssetEntity> saved) {
+        Map<Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        for (AssetEntity asset : saved) {
+            deltas.merge(key(asset.getUploadDate(), asset.getContentType(), asset.getStatus()), 1L, Long::sum);
+        }
+        append(deltas);
+    }
+
+    /**
+     * Moves one asset, uploaded at {@code uploadDate} with {@code contentType}, from one status count to another.
+     */
+    void moved(OffsetDateTime uploadDate, String contentType, AssetStatus from, AssetStatus to) {
+        Map<Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        deltas.put(key(uploadDate, contentType, from.name()), -1L);
+        deltas.put(key(uploadDate, contentType, to.name()), 1L);
+        append(deltas);
+    }
+
+    /**
+     * Assets uploaded between both days (UTC, inclusive) by content type and status; empty counts are left out.
+     */
+    List<AssetCount> sum(LocalDate from, LocalDate to) {
+        return jdbc.query(SUM, (rs, i) -> new AssetCount(rs.getString(1), AssetStatus.valueOf(rs.getString(2)), rs.getLong(3)),
+                from, to, from, to);
+    }
+
+    /**
+     * Assets of every day by status; empty counts are left out. Reads the daily counts, whose size grows with
+     * the days rather than with the assets.
+     */
+    Map<AssetStatus, Long> byStatus() {
+        Map<AssetStatus, Long> counts = new EnumMap<>(AssetStatus.class);
+        jdbc.query(SUM_BY_STATUS, rs -> {
+            counts.put(AssetStatus.valueOf(rs.getString(1)), rs.getLong(2));
+        });
+        return counts;
+    }
+
+    /**
+     * Folds the pending deltas into the daily counts, {@link #FOLD_BATCH_SIZE} per transaction, each under a
+     * permit of the {@link AdaptiveConcurrencyLimiter}. The counters are upserted in key order, so concurrent
+     * folds cannot deadlock.
+     */
+    @Scheduled(fixedDelayString = "${assets.counts.fold-interval:1s}")
+    public void fold() {
+        try {
+            Integer folded;
+            do {
+                folded = limiter.call(() -> transactions.execute(status -> foldBatch()), true);
+            } while (folded != null && folded == FOLD_BATCH_SIZE);
+        } catch (DataAccessException | RepositoryOverloadedException ex) {
+            // the deltas stay and are still counted by sum(); retried on the next run
+            log.warn("Asset count deltas could not be folded: {}", ex.getMessage());
+        }
+    }
+
+    private int foldBatch() {
+        List<Long> ids = new ArrayList<>();
+        Map<Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        jdbc.query(CLAIM, rs -> {
+            ids.add(rs.getLong(1));
+            deltas.merge(new Key(rs.getObject(2, LocalDate.class), rs.getString(3), rs.getString(4)), rs.getLong(5), Long::sum);
+        }, FOLD_BATCH_SIZE);
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                counts.add(key.uploadDay(), key.contentType(), key.status(), delta);
+            }
+        });
+        jdbc.batchUpdate("delete from asset_count_deltas where id = ?", ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        return ids.size();
+    }
+
+    private void append(Map<Key, Long> deltas) {
+        jdbc.batchUpdate(APPEND, new ArrayList<>(deltas.entrySet()), deltas.size(), (ps, delta) -> {
+            ps.setObject(1, delta.getKey().uploadDay());
+            ps.setString(2, delta.getKey().contentType());
+            ps.setString(3, delta.getKey().status());
+            ps.setLong(4, delta.getValue());
+        });
+    }
+
+    private static Key key(OffsetDateTime uploadDate, String contentType, String status) {
+        OffsetDateTime day = uploadDate != null ? uploadDate : OffsetDateTime.now(ZoneOffset.UTC);
+        return new Key(day.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate(),
+                contentType != null ? contentType : "", status);
+    }
+
+    private record Key(LocalDate uploadDay, String contentType, String status) {
+    }
+}
@@ -0,0 +1,206 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Group commit for asset inserts. Concurrent callers are collected for at most {@code maxDelay}
+ * (or until {@code maxBatchSize} of them are waiting) and written in one transaction as one JDBC
+ * batch, which the driver rewrites into a multi-row INSERT. Each caller blocks until its batch
+ * commits and gets its own saved entity back, id included. Publish jobs go into the outbox, the assets
+ * into the daily counts, and their idempotency keys are completed, in the same transaction as the assets
+ * themselves. Each transaction takes a permit from the {@link AdaptiveConcurrencyLimiter}, and its latency
+ * is the one the limiter samples: the callers' wait for the batch to fill is not.
+ */
+@Slf4j
+@Component
+public class AssetInsertCoalescer {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final AssetJpaRepository repository;
+    private final PublishOutbox outbox;
+    private final AssetDailyCounts dailyCounts;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final TransactionTemplate transactions;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final Timer insertTimer;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public AssetInsertCoalescer(AssetJpaRepository repository,
+                                PublishOutbox outbox,
+                                AssetDailyCounts dailyCounts,
+                                IdempotencyKeyStore idempotencyKeys,
+                                AdaptiveConcurrencyLimiter limiter,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry registry,
+                                @Value("${assets.insert.max-delay:500us}") Duration maxDelay,
+                                @Value("${assets.insert.max-batch-size:50}") int maxBatchSize,
+                                @Value("${assets.insert.flushers:2}") int flushers) {
+        this.repository = repository;
+        this.outbox = outbox;
+        this.dailyCounts = dailyCounts;
+        this.idempotencyKeys = idempotencyKeys;
+        this.limiter = limiter;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.insertTimer = Timer.builder("assets.insert")
+                .description("Time a caller waits for its asset insert to commit, batching included")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("assets.insert.batch.size")
+                .description("Assets written per insert transaction")
+                .register(registry);
+        if (maxDelayNanos > 0) {
+            for (int i = 0; i < flushers; i++) {
+                this.flushers.add(Thread.ofVirtual().name("asset-insert-", i).start(this::flushLoop));
+            }
+        }
+    }
+
+    /**
+     * Inserts the asset and, when not null, its publish job, completing its idempotency key when not null.
+     */
+    public AssetEntity insert(AssetEntity entity, PublishJobEntity job, String idempotencyKey) {
+        long start = System.nanoTime();
+        try {
+            return doInsert(entity, job, idempotencyKey);
+        } finally {
+            insertTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private AssetEntity doInsert(AssetEntity entity, PublishJobEntity job, String idempotencyKey) {
+        if (maxDelayNanos == 0) {
+            return inTransaction(List.of(entity), Collections.singletonList(job),
+                    Collections.singletonList(idempotencyKey)).getFirst();
+        }
+        if (!running) {
+            throw new IllegalStateException("Insert coalescer is shut down");
+        }
+        PendingInsert pending = new PendingInsert(entity, job, idempotencyKey, new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.result().join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingInsert next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.forEach(p -> p.result().completeExceptionally(new CancellationException("Insert not flushed")));
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        try {
+            List<AssetEntity> saved = inTransaction(
+                    batch.stream().map(PendingInsert::entity).toList(),
+                    batch.stream().map(PendingInsert::job).toList(),
+                    batch.stream().map(PendingInsert::idempotencyKey).toList());
+            IntStream.range(0, batch.size()).forEach(i -> batch.get(i).result().complete(saved.get(i)));
+            log.debug("Inserted {} assets in one batch", batch.size());
+        } catch (RepositoryOverloadedException ex) {
+            // nothing was written: retrying row by row would only ask for more permits
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.getFirst().result().completeExceptionally(ex);
+                return;
+            }
+            // one bad row must not fail its neighbours: fall back to one transaction each
+            log.warn("Batch insert of {} assets failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            for (PendingInsert pending : batch) {
+                pending.entity().setId(null);
+                if (pending.job() != null) {
+                    pending.job().setId(null);
+                }
+                try {
+                    pending.result().complete(inTransaction(
+                            List.of(pending.entity()), Collections.singletonList(pending.job()),
+                            Collections.singletonList(pending.idempotencyKey())).getFirst());
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private List<AssetEntity> inTransaction(List<AssetEntity> entities, List<PublishJobEntity> jobs, List<String> idempotencyKeys) {
+        return limiter.call(() -> transactions.execute(status -> insertAll(entities, jobs, idempotencyKeys)), true);
+    }
+
+    private List<AssetEntity> insertAll(List<AssetEntity> entities, List<PublishJobEntity> jobs, List<String> idempotencyKeys) {
+        List<AssetEntity> saved = repository.saveAll(entities);
+        outbox.enqueue(saved, jobs);
+        dailyCounts.inserted(saved);
+        this.idempotencyKeys.accepted(saved, idempotencyKeys);
+        batchSizes.record(saved.size());
+        return saved;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flushers.forEach(Thread::interrupt);
+        PendingInsert pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new CancellationException("Insert coalescer is shut down"));
+        }
+    }
+
+    private record PendingInsert(AssetEntity entity, PublishJobEntity job, String idempotencyKey,
+                                 CompletableFuture<AssetEntity> result) {
+    }
+}
@@ -0,0 +1,181 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code assets} (PostgreSQL) ahead of time: at startup and then daily it
+ * creates the partitions from the current month to {@code premakeMonths} ahead, and detaches those older
+ * than {@code retentionMonths} full months, which removes a month without a mass DELETE. Detached months
+ * are dropped or, by default, left as standalone tables to archive. Replicas take turns through an
+ * advisory lock. Does nothing on other databases, or while {@code assets} is still unpartitioned.
+ */
+@Slf4j
+@Component
+public class AssetPartitionMaintainer {
+
+    private static final Pattern MONTHLY = Pattern.compile("assets_p(\\d{4})_(\\d{2})");
+    private static final String LOCK = "select pg_try_advisory_xact_lock(hashtext('assets_partitions'))";
+
+    private final JdbcTemplate jdbc;
+    private final PublishOutbox outbox;
+    private final TransactionTemplate transactions;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+    private volatile Boolean postgres;
+
+    public AssetPartitionMaintainer(JdbcTemplate jdbc,
+                                    PublishOutbox outbox,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${assets.partitions.premake-months:3}") int premakeMonths,
+                                    @Value("${assets.partitions.retention-months:0}") int retentionMonths,
+                                    @Value("${assets.partitions.drop-detached:false}") boolean dropDetached) {
+        this.jdbc = jdbc;
+        this.outbox = outbox;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${assets.partitions.cron:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            if (!partitioned()) {
+                return;
+            }
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            List<YearMonth> existing = existingMonths();
+            step("assets_default", () -> jdbc.execute("CREATE TABLE IF NOT EXISTS assets_default PARTITION OF assets DEFAULT"));
+            toCreate(existing, current, premakeMonths).forEach(month -> step(partitionName(month), () -> create(month)));
+            toDetach(existing, current, retentionMonths).forEach(month -> step(partitionName(month), () -> detach(month)));
+        } catch (DataAccessException ex) {
+            // inserts still land in assets_default; retried on the next run
+            log.error("Asset partitions could not be maintained: {}", ex.getMessage());
+        }
+    }
+
+    private boolean partitioned() {
+        if (postgres == null) {
+            postgres = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        if (!postgres) {
+            return false;
+        }
+        String kind = jdbc.queryForObject("select relkind::text from pg_class where oid = to_regclass('assets')", String.class);
+        if (!"p".equals(kind)) {
+            log.warn("Table assets is not partitioned; convert it with db/partition-assets.sql");
+            return false;
+        }
+        return true;
+    }
+
+    private List<YearMonth> existingMonths() {
+        return jdbc.queryForList("select c.relname::text from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                        "where i.inhparent = to_regclass('assets')", String.class).stream()
+                .map(AssetPartitionMaintainer::parseMonth)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * Runs one DDL step in its own transaction, so a month that fails (e.g. assets_default already holds
+     * rows of it) does not hold back the others. Skipped while another replica holds the lock.
+     */
+    private void step(String partition, Runnable ddl) {
+        try {
+            transactions.executeWithoutResult(status -> {
+                if (Boolean.TRUE.equals(jdbc.queryForObject(LOCK, Boolean.class))) {
+                    ddl.run();
+                }
+            });
+        } catch (DataAccessException ex) {
+            log.error("Partition {} could not be maintained: {}", partition, ex.getMessage());
+        }
+    }
+
+    private void create(YearMonth month) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF assets FOR VALUES FROM ('"
+                + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+        log.info("Created partition {}", partitionName(month));
+    }
+
+    void detach(YearMonth month) {
+        String name = partitionName(month);
+        // what the month leaves behind outside its partition: pending jobs, the content they retained and its
+        // daily counts
+        String jobsOfMonth = "from publish_jobs where asset_id in (select id from " + name + ")";
+        jdbc.queryForList("select content_ref " + jobsOfMonth + " and content_ref is not null", String.class)
+                .forEach(outbox::discard);
+        jdbc.update("delete " + jobsOfMonth);
+        jdbc.update("delete from asset_daily_counts where upload_day >= ? and upload_day < ?",
+                month.atDay(1), month.plusMonths(1).atDay(1));
+        jdbc.update("delete from asset_count_deltas where upload_day >= ? and upload_day < ?",
+                month.atDay(1), month.plusMonths(1).atDay(1));
+        jdbc.execute("ALTER TABLE assets DETACH PARTITION " + name);
+        if (dropDetached) {
+            jdbc.execute("DROP TABLE " + name);
+        }
+        log.info("Detached partition {}{}", name, dropDetached ? " and dropped it" : "");
+    }
+
+    static String partitionName(YearMonth month) {
+        return "assets_p%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    static Optional<YearMonth> parseMonth(String partition) {
+        Matcher matcher = MONTHLY.matcher(partition);
+        return matcher.matches()
+                ? Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+                : Optional.empty();
+    }
+
+    /**
+     * Months from {@code current} to {@code premake} months ahead that have no partition yet.
+     */
+    static List<YearMonth> toCreate(Collection<YearMonth> existing, YearMonth current, int premake) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (int i = 0; i <= premake; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Partitions older than the current month and the {@code retention} full months before it; none when
+     * retention is 0.
+     */
+    static List<YearMonth> toDetach(Collection<YearMonth> existing, YearMonth current, int retention) {
+        if (retention <= 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = current.minusMonths(retention);
+        return existing.stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .sorted()
+                .toList();
+    }
+}
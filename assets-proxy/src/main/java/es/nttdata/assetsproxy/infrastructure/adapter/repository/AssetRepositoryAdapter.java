@@ -1,74 +1,212 @@
 package es.nttdata.assetsproxy.infrastructure.adapter.repository;
 
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SearchCursor;
 import es.nttdata.assetsproxy.domain.model.SortDirection;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
 import es.nttdata.assetsproxy.infrastructure.persistence.mapper.AssetEntityMapper;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
 import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetSpecifications.*;
 
 @Slf4j
-@RequiredArgsConstructor
 @Repository
 @Transactional
 public class AssetRepositoryAdapter implements AssetRepositoryPort {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final AssetJpaRepository repository;
     private final AssetEntityMapper mapper;
+    private final AssetInsertCoalescer inserts;
+    private final PublishOutbox outbox;
+    private final AssetDailyCounts dailyCounts;
+    private final long streamTimeoutNanos;
+
+    public AssetRepositoryAdapter(AssetJpaRepository repository,
+                                  AssetEntityMapper mapper,
+                                  AssetInsertCoalescer inserts,
+                                  PublishOutbox outbox,
+                                  AssetDailyCounts dailyCounts,
+                                  @Value("${assets.search.stream-timeout:300}") long streamTimeoutSeconds) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.inserts = inserts;
+        this.outbox = outbox;
+        this.dailyCounts = dailyCounts;
+        this.streamTimeoutNanos = TimeUnit.SECONDS.toNanos(streamTimeoutSeconds);
+    }
 
     @Override
-    public AssetDomain save(AssetDomain asset) {
-        AssetEntity saved = repository.save(mapper.toEntity(asset));
-        return mapper.toDomain(saved);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AssetDomain save(AssetDomain asset, String idempotencyKey) {
+        PublishJobEntity job = outbox.prepare(asset);
+        try {
+            AssetEntity saved = inserts.insert(mapper.toEntity(asset), job, idempotencyKey);
+            return mapper.toDomain(saved);
+        } catch (RuntimeException ex) {
+            outbox.discard(job);
+            throw ex;
+        }
     }
 
     @Override
+    public List<AssetDomain> saveAll(List<AssetDomain> assets) {
+        List<PublishJobEntity> jobs = new ArrayList<>(assets.size());
+        try {
+            assets.forEach(asset -> jobs.add(outbox.prepare(asset)));
+            List<AssetEntity> saved = repository.saveAll(assets.stream().map(mapper::toEntity).toList());
+            outbox.enqueue(saved, jobs);
+            dailyCounts.inserted(saved);
+            return saved.stream()
+                    .map(mapper::toDomain)
+                    .toList();
+        } catch (RuntimeException ex) {
+            jobs.forEach(outbox::discard);
+            throw ex;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<AssetDomain> findById(Long id) {
         return repository.findById(id).map(mapper::toDomain);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<AssetDomain> findById(Long id, OffsetDateTime uploadDate) {
+        if (uploadDate == null) {
+            return findById(id);
+        }
+        return repository.findByIdAndUploadDate(id, uploadDate).map(mapper::toDomain);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findPublishedUrl(String contentDigest, int size) {
+        return repository.findCompletedUrls(contentDigest, size, Limit.of(1)).stream().findFirst();
+    }
+
+    // Searches select read-only AssetRow projections: no managed entities, no dirty checking, no flush.
+    // Time-boxed: a filename regex the index cannot narrow down must not hold a connection for long
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${assets.search.timeout:5}")
     public List<AssetDomain> search(SearchCriteria c) {
-        Specification<AssetEntity> spec = uploadedAtFrom(c.uploadDateStart())
-                .and(uploadedAtTo(c.uploadDateEnd()))
-                .and(filenameLike(c.filenamePattern()))
-                .and(contentTypeEquals(c.filetype()));
+        Specification<AssetEntity> spec = specification(c);
         log.info("Specification {}", spec);
-        Sort sort = (c.sortDirection() == SortDirection.ASC)
-                ? Sort.by("uploadDate").ascending()
-                : Sort.by("uploadDate").descending();
 
-        return repository.findAll(spec, sort).stream()
+        return repository.findRows(spec, sort(c), 0).stream()
                 .map(mapper::toDomain)
                 .toList();
     }
 
+    // Time-boxed too, only longer. The transaction timeout bounds the statement, but between fetches the cursor,
+    // and its connection, stay open for as long as the client takes to read: the deadline is checked per row
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${assets.search.stream-timeout:300}")
+    public long streamSearch(SearchCriteria c, Consumer<AssetDomain> sink) {
+        AtomicLong streamed = new AtomicLong();
+        long deadline = System.nanoTime() + streamTimeoutNanos;
+        try (Stream<AssetRow> rows = repository.streamRows(specification(c), sort(c), STREAM_FETCH_SIZE)) {
+            rows.map(mapper::toDomain).forEach(asset -> {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new QueryTimeoutException("Streaming search ran past "
+                            + TimeUnit.NANOSECONDS.toSeconds(streamTimeoutNanos) + "s after " + streamed.get() + " rows");
+                }
+                sink.accept(asset);
+                streamed.incrementAndGet();
+            });
+        }
+        return streamed.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${assets.search.timeout:5}")
+    public AssetPage searchPage(SearchCriteria c) {
+        boolean ascending = c.sortDirection() == SortDirection.ASC;
+        SearchCursor after = c.after();
+        Specification<AssetEntity> spec = after == null ? specification(c)
+                : specification(c).and(seekAfter(after.uploadDate(), after.id(), ascending));
+        Sort sort = ascending
+                ? Sort.by("uploadDate", "id").ascending()
+                : Sort.by("uploadDate", "id").descending();
+
+        // One extra row tells whether there is a next page without a count query
+        List<AssetRow> rows = repository.findRows(spec, sort, c.limit() + 1);
+        boolean hasNext = rows.size() > c.limit();
+        List<AssetRow> page = hasNext ? rows.subList(0, c.limit()) : rows;
+        AssetRow last = hasNext ? page.getLast() : null;
+
+        return new AssetPage(page.stream().map(mapper::toDomain).toList(),
+                last != null ? new SearchCursor(last.uploadDate(), last.id()) : null);
+    }
+
+    private static Sort sort(SearchCriteria c) {
+        return (c.sortDirection() == SortDirection.ASC)
+                ? Sort.by("uploadDate").ascending()
+                : Sort.by("uploadDate").descending();
+    }
+
+    private static Specification<AssetEntity> specification(SearchCriteria c) {
+        return uploadedAtFrom(c.uploadDateStart())
+                .and(uploadedAtTo(c.uploadDateEnd()))
+                .and(filenameMatches(c.filenamePattern()))
+                .and(contentTypeEquals(c.filetype()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AssetCount> countByTypeAndStatus(LocalDate from, LocalDate to) {
+        return dailyCounts.sum(from, to);
+    }
+
     @Override
-    public void updateStatus(Long id, AssetStatus status) {
-        repository.findById(id).ifPresent(e -> {
-            e.setStatus(status.name());
-            repository.save(e);
-        });
+    @Transactional(readOnly = true)
+    public Map<AssetStatus, Long> countByStatus() {
+        return dailyCounts.byStatus();
     }
 
     @Override
-    public void updateStorageUrl(Long id, String storageUrl) {
-        repository.findById(id).ifPresent(e -> {
-            e.setUrl(storageUrl);
-            repository.save(e);
-        });
+    public boolean transition(Long id, OffsetDateTime uploadDate, AssetStatus from, AssetStatus to, String storageUrl) {
+        if (!from.canTransitionTo(to)) {
+            log.warn("Illegal transition {} -> {} for asset {}", from, to, id);
+            return false;
+        }
+        List<Object[]> moved = repository.transition(id, uploadDate, from.name(), to.name(), storageUrl);
+        if (moved.isEmpty()) {
+            log.warn("Asset {} was not {} anymore, transition to {} discarded", id, from, to);
+            return false;
+        }
+        Object[] key = moved.getFirst();
+        dailyCounts.moved((OffsetDateTime) key[0], (String) key[1], from, to);
+        return true;
     }
 }
@@ -0,0 +1,197 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException;
+import es.nttdata.assetsproxy.domain.port.idempotency.IdempotencyPort;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency keys of uploads in {@code idempotency_keys}, whose primary key makes the first request
+ * the only one to claim a key; later ones find the asset it was accepted as, or a conflict while it is
+ * still in flight, provided they carry the same request fingerprint. The asset is recorded under the key
+ * by {@link #accepted}, in the transaction that inserts it. A claim expires after {@code inFlightTimeout},
+ * so the key of a request that died is freed, and an accepted key after {@code ttl}. Accepted keys read
+ * back are also kept in a bounded LRU, so further replays on the same instance do not reach the database.
+ * Every call of its own to the database takes a permit from the {@link AdaptiveConcurrencyLimiter}.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyStore implements IdempotencyPort {
+
+    private final JdbcTemplate jdbc;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Accepted> accepted;
+
+    public IdempotencyKeyStore(JdbcTemplate jdbc,
+                               AdaptiveConcurrencyLimiter limiter,
+                               @Value("${assets.idempotency.ttl:24h}") Duration ttl,
+                               @Value("${assets.idempotency.in-flight-timeout:15m}") Duration inFlightTimeout,
+                               @Value("${assets.idempotency.cache-size:10000}") int cacheSize) {
+        this.jdbc = jdbc;
+        this.limiter = limiter;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+        this.accepted = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Accepted> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Long> find(String key, String fingerprint) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        Accepted cached = cached(key, now);
+        if (cached == null) {
+            cached = limiter.call(() -> read(key, now), true);
+            if (cached == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(held(key, fingerprint, cached));
+    }
+
+    @Override
+    public Optional<Long> claim(String key, String fingerprint) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        Accepted cached = cached(key, now);
+        if (cached == null) {
+            cached = limiter.call(() -> claimOrRead(key, fingerprint, now), true);
+            if (cached == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(held(key, fingerprint, cached));
+    }
+
+    /**
+     * The asset {@code key} was accepted as, provided {@code fingerprint} is the one it was claimed with.
+     */
+    private Long held(String key, String fingerprint, Accepted cached) {
+        // rows claimed before fingerprints were kept match any request
+        if (cached.fingerprint() != null && !cached.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyMismatchException("Idempotency-Key " + key + " was used for a different upload");
+        }
+        if (cached.assetId() == null) {
+            throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+        }
+        remember(key, cached);
+        return cached.assetId();
+    }
+
+    /**
+     * The unexpired row that holds {@code key}, or null.
+     */
+    private Accepted read(String key, OffsetDateTime now) {
+        List<Accepted> rows = jdbc.query("select asset_id, fingerprint, expires_at from idempotency_keys " +
+                        "where idem_key = ? and expires_at > ?",
+                (rs, i) -> new Accepted(rs.getObject("asset_id", Long.class), rs.getString("fingerprint"),
+                        rs.getObject("expires_at", OffsetDateTime.class)), key, now);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Null when the key is now claimed with {@code fingerprint}, otherwise the row that holds it.
+     */
+    private Accepted claimOrRead(String key, String fingerprint, OffsetDateTime now) {
+        try {
+            jdbc.update("insert into idempotency_keys (idem_key, fingerprint, created_at, expires_at) values (?, ?, ?, ?)",
+                    key, fingerprint, now, now.plus(inFlightTimeout));
+            return null;
+        } catch (DuplicateKeyException ex) {
+            // taken: accepted, in flight, or expired and not purged yet
+        }
+        if (jdbc.update("update idempotency_keys set asset_id = null, fingerprint = ?, created_at = ?, expires_at = ? " +
+                "where idem_key = ? and expires_at <= ?", fingerprint, now, now.plus(inFlightTimeout), key, now) == 1) {
+            return null;
+        }
+        List<Accepted> rows = jdbc.query("select asset_id, fingerprint, expires_at from idempotency_keys where idem_key = ?",
+                (rs, i) -> new Accepted(rs.getObject("asset_id", Long.class), rs.getString("fingerprint"),
+                        rs.getObject("expires_at", OffsetDateTime.class)), key);
+        // purged in between: rare enough to leave to the client's retry, like a request in flight
+        return rows.isEmpty() ? new Accepted(null, null, now) : rows.get(0);
+    }
+
+    /**
+     * Records the assets just saved under the keys claimed for them, in the caller's transaction, so a key
+     * is accepted exactly when its asset commits. {@code keys} is parallel to {@code saved} and may hold nulls.
+     */
+    void accepted(List<AssetEntity> saved, List<String> keys) {
+        OffsetDateTime expiresAt = OffsetDateTime.now(ZoneOffset.UTC).plus(ttl);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            if (keys.get(i) != null) {
+                rows.add(new Object[]{saved.get(i).getId(), expiresAt, keys.get(i)});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("update idempotency_keys set asset_id = ?, expires_at = ? where idem_key = ?", rows);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        lock.lock();
+        try {
+            accepted.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        limiter.call(() -> jdbc.update("delete from idempotency_keys where idem_key = ?", key), true);
+    }
+
+    @Scheduled(fixedDelayString = "${assets.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int purged = limiter.call(() -> jdbc.update("delete from idempotency_keys where expires_at <= ?",
+                OffsetDateTime.now(ZoneOffset.UTC)), true);
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private Accepted cached(String key, OffsetDateTime now) {
+        lock.lock();
+        try {
+            Accepted entry = accepted.get(key);
+            if (entry != null && !entry.expiresAt().isAfter(now)) {
+                accepted.remove(key);
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remember(String key, Accepted entry) {
+        lock.lock();
+        try {
+            accepted.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Accepted(Long assetId, String fingerprint, OffsetDateTime expiresAt) {
+    }
+}
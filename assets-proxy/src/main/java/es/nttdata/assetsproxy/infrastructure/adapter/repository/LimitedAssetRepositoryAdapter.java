@@ -0,0 +1,88 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.model.AssetCount;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The repository the rest of the application gets: each call takes a permit from the
+ * {@link AdaptiveConcurrencyLimiter} before {@link AssetRepositoryAdapter} opens its transaction. Single
+ * inserts are the exception: they wait in the {@link AssetInsertCoalescer}, which takes one permit per flush.
+ */
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class LimitedAssetRepositoryAdapter implements AssetRepositoryPort {
+
+    private final AssetRepositoryAdapter delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    public Optional<AssetDomain> findById(Long id) {
+        return limiter.call(() -> delegate.findById(id), true);
+    }
+
+    @Override
+    public Optional<AssetDomain> findById(Long id, OffsetDateTime uploadDate) {
+        return limiter.call(() -> delegate.findById(id, uploadDate), true);
+    }
+
+    @Override
+    public AssetDomain save(AssetDomain asset, String idempotencyKey) {
+        return delegate.save(asset, idempotencyKey);
+    }
+
+    @Override
+    public List<AssetDomain> saveAll(List<AssetDomain> assets) {
+        return limiter.call(() -> delegate.saveAll(assets), true);
+    }
+
+    @Override
+    public List<AssetDomain> search(SearchCriteria criteria) {
+        return limiter.call(() -> delegate.search(criteria), true);
+    }
+
+    @Override
+    public Optional<String> findPublishedUrl(String contentDigest, int size) {
+        return limiter.call(() -> delegate.findPublishedUrl(contentDigest, size), true);
+    }
+
+    @Override
+    public AssetPage searchPage(SearchCriteria criteria) {
+        return limiter.call(() -> delegate.searchPage(criteria), true);
+    }
+
+    @Override
+    public long streamSearch(SearchCriteria criteria, Consumer<AssetDomain> sink) {
+        // holds its connection for as long as the client reads, which says nothing about the database
+        return limiter.stream(() -> delegate.streamSearch(criteria, sink));
+    }
+
+    @Override
+    public boolean transition(Long id, OffsetDateTime uploadDate, AssetStatus from, AssetStatus to, String storageUrl) {
+        return limiter.call(() -> delegate.transition(id, uploadDate, from, to, storageUrl), true);
+    }
+
+    @Override
+    public List<AssetCount> countByTypeAndStatus(LocalDate from, LocalDate to) {
+        return limiter.call(() -> delegate.countByTypeAndStatus(from, to), true);
+    }
+
+    @Override
+    public Map<AssetStatus, Long> countByStatus() {
+        return limiter.call(() -> delegate.countByStatus(), true);
+    }
+}
@@ -0,0 +1,151 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.PublishJobJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Transactional outbox of publish jobs. A PENDING asset gets its job inserted in the same transaction
+ * as its row, with the content retained in the spool, so nothing is lost if the process dies before
+ * publishing. Workers claim jobs under a lease: a job whose worker died is claimed again once it expires.
+ * Their transactions take a permit from the {@link AdaptiveConcurrencyLimiter}.
+ */
+@Slf4j
+@Component
+public class PublishOutbox {
+
+    private final PublishJobJpaRepository jobs;
+    private final ContentSpoolPort spool;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final TransactionTemplate transactions;
+    private final Duration lease;
+
+    public PublishOutbox(PublishJobJpaRepository jobs,
+                         ContentSpoolPort spool,
+                         AdaptiveConcurrencyLimiter limiter,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${assets.outbox.lease:5m}") Duration lease) {
+        this.jobs = jobs;
+        this.spool = spool;
+        this.limiter = limiter;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.lease = lease;
+    }
+
+    /**
+     * Job for an asset about to be inserted, or null when it is not to be published. Its content is
+     * retained first, so the job can be run from the database alone.
+     */
+    PublishJobEntity prepare(AssetDomain asset) {
+        if (asset.getStatus() != AssetStatus.PENDING) {
+            return null;
+        }
+        PublishJobEntity job = new PublishJobEntity();
+        job.setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC));
+        AssetContent content = asset.getContent();
+        if (content != null) {
+            try {
+                job.setContentRef(spool.retain(content));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Content of " + asset.getFilename() + " could not be retained", ex);
+            }
+            job.setContentSize(content.size());
+        }
+        return job;
+    }
+
+    /**
+     * Inserts the jobs of assets just saved, in the caller's transaction. {@code pending} is parallel to
+     * {@code saved} and may hold nulls.
+     */
+    void enqueue(List<AssetEntity> saved, List<PublishJobEntity> pending) {
+        List<PublishJobEntity> toInsert = new ArrayList<>(pending.size());
+        for (int i = 0; i < saved.size(); i++) {
+            PublishJobEntity job = pending.get(i);
+            if (job != null) {
+                job.setAssetId(saved.get(i).getId());
+                job.setUploadDate(saved.get(i).getUploadDate());
+                toInsert.add(job);
+            }
+        }
+        jobs.saveAll(toInsert);
+    }
+
+    /**
+     * Drops the content retained for a job whose asset was never inserted.
+     */
+    void discard(PublishJobEntity job) {
+        if (job != null) {
+            discard(job.getContentRef());
+        }
+    }
+
+    /**
+     * Drops retained content no job will run anymore, e.g. that of jobs deleted with their month.
+     */
+    void discard(String contentRef) {
+        if (contentRef == null) {
+            return;
+        }
+        try {
+            spool.reopen(contentRef, null).release();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Retained content {} could not be discarded: {}", contentRef, ex.getMessage());
+        }
+    }
+
+    public List<Job> claim(int max) {
+        return inTransaction(() -> {
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            List<PublishJobEntity> claimed = jobs.findClaimable(now, Limit.of(max));
+            claimed.forEach(job -> {
+                job.setLockedUntil(now.plus(lease));
+                job.setAttempts(job.getAttempts() + 1);
+            });
+            return claimed.stream()
+                    .map(job -> new Job(job.getId(), job.getAssetId(), job.getUploadDate(), job.getContentRef(), job.getContentSize(), job.getAttempts()))
+                    .toList();
+        });
+    }
+
+    public void complete(Long jobId) {
+        inTransaction(() -> {
+            jobs.deleteById(jobId);
+            return null;
+        });
+    }
+
+    /**
+     * Hands a claimed job back unrun before its lease expires, e.g. when there was no room to run it. The
+     * attempt its claim counted is given back too, so it cannot run out of attempts without being tried.
+     */
+    public void release(Long jobId) {
+        inTransaction(() -> jobs.unlock(jobId));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return limiter.call(() -> transactions.execute(status -> work.get()), true);
+    }
+
+    public record Job(Long id, Long assetId, OffsetDateTime uploadDate, String contentRef, long contentSize, int attempts) {
+    }
+}
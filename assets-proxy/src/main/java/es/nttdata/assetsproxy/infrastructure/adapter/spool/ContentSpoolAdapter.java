@@ -0,0 +1,235 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps in-flight upload content off the Java heap. Payloads up to {@code memory-threshold} are written
+ * into pooled direct pages while the pool has room ({@code memory-limit} in total); anything larger, or
+ * anything arriving while the pool is exhausted, spills to a temp file in the spool directory. Either
+ * way the heap only holds the metadata, and the content goes away on {@link AssetContent#release()}.
+ * Content waiting in the publish outbox is retained as a synced file under {@code retained/}.
+ */
+@Slf4j
+@Component
+public class ContentSpoolAdapter implements ContentSpoolPort, MeterBinder {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String RETAINED_SUFFIX = ".content";
+
+    private final Path directory;
+    private final Path retained;
+    private final int bufferSize;
+    private final long memoryThreshold;
+    private final DirectBufferPool pool;
+
+    public ContentSpoolAdapter(@Value("${assets.spool.directory:${java.io.tmpdir}/assets-proxy-spool}") Path directory,
+                               @Value("${assets.spool.buffer-size:65536}") int bufferSize,
+                               @Value("${assets.spool.memory-threshold:256KB}") DataSize memoryThreshold,
+                               @Value("${assets.spool.memory-limit:64MB}") DataSize memoryLimit) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.retained = Files.createDirectories(directory.resolve("retained"));
+        this.bufferSize = bufferSize;
+        this.memoryThreshold = memoryThreshold.toBytes();
+        this.pool = new DirectBufferPool(bufferSize, memoryLimit.toBytes());
+    }
+
+    @Override
+    public AssetContent spool(ContentWriter writer) throws IOException {
+        MessageDigest digest = newDigest();
+        SpoolOutputStream sink = new SpoolOutputStream();
+        try (OutputStream out = new DigestOutputStream(sink, digest)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException ex) {
+            sink.discard();
+            throw ex;
+        }
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (sink.file != null) {
+            log.debug("Spooled {} bytes into {}", sink.size, sink.file);
+            return new SpooledFileContent(sink.file, sink.size, checksum);
+        }
+        sink.pages.forEach(ByteBuffer::flip);
+        log.debug("Spooled {} bytes into {} direct pages", sink.size, sink.pages.size());
+        return new SpooledBufferContent(sink.pages, sink.size, checksum, pool);
+    }
+
+    @Override
+    public String retain(AssetContent content) throws IOException {
+        String reference = UUID.randomUUID() + RETAINED_SUFFIX;
+        Path target = retained.resolve(reference);
+        if (content instanceof SpooledFileContent spooled && directory.equals(spooled.file().getParent())) {
+            // same filesystem: a rename, no bytes copied
+            Files.move(spooled.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                content.transferTo(channel);
+                channel.force(true);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(target);
+                throw ex;
+            }
+            content.release();
+        }
+        log.debug("Retained {} bytes as {}", content.size(), reference);
+        return reference;
+    }
+
+    @Override
+    public AssetContent reopen(String reference, String checksum) throws IOException {
+        Path file = retained.resolve(reference);
+        if (!reference.endsWith(RETAINED_SUFFIX) || !retained.equals(file.normalize().getParent())) {
+            throw new IllegalArgumentException("Invalid retained content reference: " + reference);
+        }
+        return new SpooledFileContent(file, Files.size(file), checksum);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("assets.spool.offheap.used", pool, DirectBufferPool::bytesInUse)
+                .description("Direct memory holding in-flight upload content")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("assets.spool.offheap.allocated", pool, DirectBufferPool::bytesAllocated)
+                .description("Direct memory allocated by the spool page pool")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    /**
+     * Fills direct pages until the payload outgrows the threshold or the pool runs dry, then moves what
+     * it has to a temp file and carries on writing there.
+     */
+    private final class SpoolOutputStream extends OutputStream {
+
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private ByteBuffer page;
+        private Path file;
+        private OutputStream fileOut;
+        private long size;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && size + len <= memoryThreshold) {
+                while (len > 0) {
+                    if (page == null || !page.hasRemaining()) {
+                        page = pool.acquire();
+                        if (page == null) {
+                            break;
+                        }
+                        pages.add(page);
+                    }
+                    int n = Math.min(len, page.remaining());
+                    page.put(b, off, n);
+                    off += n;
+                    len -= n;
+                    size += n;
+                }
+                if (len == 0) {
+                    return;
+                }
+            }
+            if (fileOut == null) {
+                spill();
+            }
+            fileOut.write(b, off, len);
+            size += len;
+        }
+
+        private void spill() throws IOException {
+            file = Files.createTempFile(directory, "asset-", ".spool");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            try {
+                for (ByteBuffer written : pages) {
+                    written.flip();
+                    while (written.hasRemaining()) {
+                        channel.write(written);
+                    }
+                }
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+            fileOut = new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize);
+            releasePages();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOut != null) {
+                fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        private void discard() {
+            try {
+                close();
+            } catch (IOException ex) {
+                log.debug("Spool stream could not be closed: {}", ex.getMessage());
+            }
+            releasePages();
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    log.warn("Spool file {} could not be deleted: {}", file, ex.getMessage());
+                }
+            }
+        }
+
+        private void releasePages() {
+            pool.release(pages);
+            pages.clear();
+            page = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size direct (off-heap) pages, allocated on demand up to {@code maxPages} and recycled on
+ * release, so the spool neither grows the heap nor pays for a fresh direct allocation per upload.
+ */
+final class DirectBufferPool {
+
+    private final int pageSize;
+    private final int maxPages;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    DirectBufferPool(int pageSize, long maxBytes) {
+        this.pageSize = pageSize;
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, maxBytes / pageSize);
+    }
+
+    /**
+     * A cleared page, or null when the pool is exhausted.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer page = free.poll();
+        if (page == null) {
+            int current;
+            do {
+                current = allocated.get();
+                if (current >= maxPages) {
+                    return null;
+                }
+            } while (!allocated.compareAndSet(current, current + 1));
+            page = ByteBuffer.allocateDirect(pageSize);
+        }
+        inUse.incrementAndGet();
+        return page.clear();
+    }
+
+    void release(List<ByteBuffer> pages) {
+        for (ByteBuffer page : pages) {
+            free.offer(page.clear());
+        }
+        inUse.addAndGet(-pages.size());
+    }
+
+    int pageSize() {
+        return pageSize;
+    }
+
+    long bytesInUse() {
+        return (long) inUse.get() * pageSize;
+    }
+
+    long bytesAllocated() {
+        return (long) allocated.get() * pageSize;
+    }
+}
@@ -0,0 +1,113 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content held in pooled direct pages. The pages go back to the pool on the first {@link #release()};
+ * streams opened before that must not be read afterwards.
+ */
+final class SpooledBufferContent implements AssetContent {
+
+    private final List<ByteBuffer> pages;
+    private final long size;
+    private final String checksum;
+    private final DirectBufferPool pool;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    SpooledBufferContent(List<ByteBuffer> pages, long size, String checksum, DirectBufferPool pool) {
+        this.pages = pages;
+        this.size = size;
+        this.checksum = checksum;
+        this.pool = pool;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String checksum() {
+        return checksum;
+    }
+
+    @Override
+    public InputStream openStream() {
+        if (released.get()) {
+            throw new IllegalStateException("Spooled content was already released");
+        }
+        return new PagesInputStream(pages.stream().map(ByteBuffer::asReadOnlyBuffer).toList());
+    }
+
+    /**
+     * Gathering write of the direct pages: the channel reads them in place.
+     */
+    @Override
+    public void transferTo(FileChannel target) throws IOException {
+        if (released.get()) {
+            throw new IllegalStateException("Spooled content was already released");
+        }
+        ByteBuffer[] views = pages.stream().map(ByteBuffer::asReadOnlyBuffer).toArray(ByteBuffer[]::new);
+        long remaining = size;
+        while (remaining > 0) {
+            remaining -= target.write(views);
+        }
+    }
+
+    @Override
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            pool.release(pages);
+        }
+    }
+
+    private static final class PagesInputStream extends InputStream {
+
+        private final List<ByteBuffer> pages;
+        private int current;
+
+        private PagesInputStream(List<ByteBuffer> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer page = page();
+            return page == null ? -1 : page.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer page = page();
+            if (page == null) {
+                return -1;
+            }
+            int n = Math.min(len, page.remaining());
+            page.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            ByteBuffer page = page();
+            return page == null ? 0 : page.remaining();
+        }
+
+        private ByteBuffer page() {
+            while (current < pages.size() && !pages.get(current).hasRemaining()) {
+                current++;
+            }
+            return current < pages.size() ? pages.get(current) : null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+@Slf4j
+record SpooledFileContent(Path file, long size, String checksum) implements AssetContent {
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Copies file to file with {@code transferTo}, which the kernel serves without user-space buffers.
+     */
+    @Override
+    public void transferTo(FileChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < size) {
+                long n = source.transferTo(position, size - position, target);
+                if (n <= 0) {
+                    throw new EOFException("Spool file " + file + " ended after " + position + " of " + size + " bytes");
+                }
+                position += n;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile() {
+        return Optional.of(file);
+    }
+
+    @Override
+    public void release() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Spool file {} could not be deleted: {}", file, ex.getMessage());
+        }
+    }
+}
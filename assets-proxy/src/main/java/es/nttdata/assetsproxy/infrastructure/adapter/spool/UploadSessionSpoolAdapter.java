@@ -0,0 +1,338 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.UploadOffsetMismatchException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.domain.port.spool.UploadSessionPort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable upload sessions under {@code sessions/} in the spool directory: the bytes received so far
+ * in {@code <id>.part} and the session itself in {@code <id>.properties}, replaced atomically once a
+ * chunk is synced, so the recorded offset never runs ahead of the data and a session outlives a
+ * restart. Chunks are streamed to the file through a {@code buffer-size} buffer whatever their size,
+ * and fail as soon as they go past the declared size (or {@value #MAX_SIZE} bytes, without one).
+ * A completed session is renamed into the spool, where {@link ContentSpoolPort#retain} picks it up
+ * without copying it again.
+ */
+@Slf4j
+@Component
+public class UploadSessionSpoolAdapter implements UploadSessionPort {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String DATA_SUFFIX = ".part";
+    private static final String SESSION_SUFFIX = ".properties";
+    // asset sizes are stored as INTEGER
+    private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final Path directory;
+    private final Path sessions;
+    private final int bufferSize;
+    private final Duration ttl;
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public UploadSessionSpoolAdapter(@Value("${assets.spool.directory:${java.io.tmpdir}/assets-proxy-spool}") Path directory,
+                                     @Value("${assets.spool.buffer-size:65536}") int bufferSize,
+                                     @Value("${assets.upload.chunked.session-ttl:24h}") Duration ttl) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.sessions = Files.createDirectories(directory.resolve("sessions"));
+        this.bufferSize = bufferSize;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public UploadSession create(String filename, String contentType, Long size) throws IOException {
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), filename, contentType, size, 0, expiry());
+        Files.createFile(data(session.id()));
+        store(session);
+        return session;
+    }
+
+    @Override
+    public Optional<UploadSession> find(String id) throws IOException {
+        if (!isSessionId(id) || !Files.exists(sessionFile(id))) {
+            return Optional.empty();
+        }
+        return Optional.of(load(id));
+    }
+
+    @Override
+    public UploadSession append(String id, long offset, String checksum, ContentSpoolPort.ContentWriter chunk) throws IOException {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            UploadSession session = existing(id);
+            if (offset != session.offset()) {
+                throw new UploadOffsetMismatchException("Upload session " + id + " continues at offset "
+                        + session.offset() + ", not " + offset, session.offset());
+            }
+            MessageDigest digest = newDigest();
+            long received;
+            try (FileChannel channel = FileChannel.open(data(id), StandardOpenOption.WRITE)) {
+                // whatever an interrupted chunk left past the offset goes away
+                channel.truncate(offset);
+                channel.position(offset);
+                try {
+                    OutputStream out = new LimitedOutputStream(new DigestOutputStream(
+                            new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize), digest),
+                            (session.size() != null ? session.size() : MAX_SIZE) - offset,
+                            session.size() != null
+                                    ? "Chunk goes past the declared size of " + session.size() + " bytes"
+                                    : "Upload session goes past " + MAX_SIZE + " bytes");
+                    chunk.writeTo(out);
+                    out.flush();
+                    received = channel.position() - offset;
+                    rejectChunk(received, checksum, digest);
+                } catch (IOException | RuntimeException ex) {
+                    channel.truncate(offset);
+                    throw ex;
+                }
+                channel.force(false);
+            }
+            UploadSession appended = new UploadSession(id, session.filename(), session.contentType(), session.size(),
+                    offset + received, expiry());
+            store(appended);
+            log.debug("Upload session {} received {} bytes at {}", id, received, offset);
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public AssetContent complete(String id, String checksum) throws IOException {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            UploadSession session = existing(id);
+            String actual = checksumOf(id, session.offset());
+            if (checksum != null && !checksum.equalsIgnoreCase(actual)) {
+                throw new BusinessException("Upload checksum does not match the " + session.offset() + " bytes received");
+            }
+            Path target = directory.resolve("asset-" + UUID.randomUUID() + ".spool");
+            Files.move(data(id), target, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(sessionFile(id));
+            locks.remove(id);
+            return new SpooledFileContent(target, session.offset(), actual);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void abort(String id) throws IOException {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            delete(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the sessions no chunk has reached for {@code session-ttl}.
+     */
+    @Scheduled(fixedDelayString = "${assets.upload.chunked.purge-interval:1h}")
+    public void purgeExpired() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(sessions, "*" + SESSION_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String id = name.substring(0, name.length() - SESSION_SUFFIX.length());
+                if (!isSessionId(id)) {
+                    continue;
+                }
+                ReentrantLock lock = lock(id);
+                if (!lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    Optional<UploadSession> session = find(id);
+                    if (session.isPresent() && session.get().expiresAt().isBefore(now)) {
+                        delete(id);
+                        log.info("Upload session {} expired after {} bytes", id, session.get().offset());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Expired upload sessions could not be purged: {}", ex.getMessage());
+        }
+        // locks of sessions deleted while another request was about to take them
+        locks.entrySet().removeIf(entry -> !entry.getValue().isLocked() && !Files.exists(sessionFile(entry.getKey())));
+    }
+
+    private static void rejectChunk(long received, String checksum, MessageDigest digest) {
+        if (checksum != null && !checksum.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()))) {
+            throw new BusinessException("Chunk checksum does not match the " + received + " bytes received");
+        }
+    }
+
+    /**
+     * One sequential read of the assembled file; bytes past {@code size} left by an interrupted chunk are cut first.
+     */
+    private String checksumOf(String id, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(data(id), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private UploadSession existing(String id) throws IOException {
+        return find(id).orElseThrow(() -> new UploadSessionNotFoundException("Upload session " + id + " not found or expired"));
+    }
+
+    private UploadSession load(String id) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(sessionFile(id))) {
+            properties.load(in);
+        }
+        String size = properties.getProperty("size");
+        return new UploadSession(id,
+                properties.getProperty("filename"),
+                properties.getProperty("contentType"),
+                size != null ? Long.valueOf(size) : null,
+                Long.parseLong(properties.getProperty("offset")),
+                OffsetDateTime.parse(properties.getProperty("expiresAt")));
+    }
+
+    private void store(UploadSession session) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("filename", session.filename());
+        properties.setProperty("contentType", session.contentType());
+        if (session.size() != null) {
+            properties.setProperty("size", session.size().toString());
+        }
+        properties.setProperty("offset", Long.toString(session.offset()));
+        properties.setProperty("expiresAt", session.expiresAt().toString());
+        Path temp = sessions.resolve(session.id() + SESSION_SUFFIX + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        Files.move(temp, sessionFile(session.id()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void delete(String id) throws IOException {
+        Files.deleteIfExists(sessionFile(id));
+        Files.deleteIfExists(data(id));
+        locks.remove(id);
+    }
+
+    /**
+     * The lock of an existing session: ids with no session behind them never get one.
+     */
+    private ReentrantLock lock(String id) {
+        if (!isSessionId(id) || !Files.exists(sessionFile(id))) {
+            throw new UploadSessionNotFoundException("Upload session " + id + " not found or expired");
+        }
+        return locks.computeIfAbsent(id, key -> new ReentrantLock());
+    }
+
+    private OffsetDateTime expiry() {
+        return OffsetDateTime.now(ZoneOffset.UTC).plus(ttl);
+    }
+
+    private Path data(String id) {
+        return sessions.resolve(id + DATA_SUFFIX);
+    }
+
+    private Path sessionFile(String id) {
+        return sessions.resolve(id + SESSION_SUFFIX);
+    }
+
+    private static boolean isSessionId(String id) {
+        try {
+            return id != null && UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    int lockCount() {
+        return locks.size();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    /**
+     * Fails the write that would take the chunk past {@code limit} bytes, before any of it reaches the file.
+     */
+    private static final class LimitedOutputStream extends FilterOutputStream {
+
+        private final String message;
+        private long remaining;
+
+        LimitedOutputStream(OutputStream out, long limit, String message) {
+            super(out);
+            this.remaining = limit;
+            this.message = message;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            take(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            take(len);
+            out.write(b, off, len);
+        }
+
+        private void take(int len) {
+            if (len > remaining) {
+                throw new BusinessException(message);
+            }
+            remaining -= len;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.storage;
+
+/**
+ * How hard the local storage pushes a stored file to disk before the asset is marked as completed.
+ */
+public enum FsyncPolicy {
+    /** Leave it to the operating system; a crash may lose recently completed assets. */
+    NONE,
+    /** Force the file contents ({@code fdatasync}). */
+    DATA,
+    /** Force contents and metadata, and the directory entry created by the final rename. */
+    FULL
+}
@@ -0,0 +1,94 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.storage;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores published content on the local filesystem under {@code root}. A key {@code images/<name>} lands
+ * in {@code images/ab/cd/<name>}, two levels of 256 shards picked by a hash of the name, so no directory
+ * grows past a few thousand entries. The bytes are moved from the spool with channel transfers into a
+ * temp file that is renamed into place once complete, so readers never see a partial object. Stored
+ * objects are opened as files, so they can be served with sendfile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "assets.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalFileStorageAdapter implements StoragePort {
+
+    private final Path root;
+    private final FsyncPolicy fsync;
+
+    public LocalFileStorageAdapter(@Value("${assets.storage.local.root:${java.io.tmpdir}/assets-proxy-storage}") Path root,
+                                   @Value("${assets.storage.local.fsync:DATA}") FsyncPolicy fsync) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.fsync = fsync;
+    }
+
+    @Override
+    public String store(String key, AssetContent content) throws IOException {
+        String location = shard(key);
+        Path target = root.resolve(location);
+        if (!target.equals(target.normalize())) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        Path directory = Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                content.transferTo(channel);
+                if (fsync != FsyncPolicy.NONE) {
+                    channel.force(fsync == FsyncPolicy.FULL);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        if (fsync == FsyncPolicy.FULL) {
+            syncDirectory(directory);
+        }
+        log.debug("Stored {} bytes at {}", content.size(), target);
+        return location;
+    }
+
+    @Override
+    public AssetContent open(String location, String checksum) throws IOException {
+        Path file = root.resolve(location).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage location: " + location);
+        }
+        return new StoredFileContent(file, Files.size(file), checksum);
+    }
+
+    /**
+     * {@code images/<name>} becomes {@code images/ab/cd/<name>}.
+     */
+    static String shard(String key) {
+        int slash = key.lastIndexOf('/');
+        String folder = key.substring(0, slash + 1);
+        String name = key.substring(slash + 1);
+        int hash = name.hashCode() * 0x9E3779B9;
+        return "%s%02x/%02x/%s".formatted(folder, (hash >>> 24) & 0xFF, (hash >>> 16) & 0xFF, name);
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // Not every platform lets a directory be opened for syncing
+            log.debug("Directory {} could not be synced: {}", directory, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.storage;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Published content on the local filesystem. Unlike spooled content it belongs to the storage, so
+ * {@link #release()} does not delete it.
+ */
+record StoredFileContent(Path file, long size, String checksum) implements AssetContent {
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public Optional<Path> localFile() {
+        return Optional.of(file);
+    }
+
+    @Override
+    public void release() {
+        // nothing to free: the object stays in storage
+    }
+}
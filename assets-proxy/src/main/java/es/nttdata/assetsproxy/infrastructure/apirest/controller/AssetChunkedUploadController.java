@@ -0,0 +1,81 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.controller;
+
+import es.nttdata.assetsproxy.application.usecase.ChunkedUploadUseCase;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadResponse;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.UploadSessionRequest;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.UploadSessionResponse;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Resumable uploads for large files: a session is opened, the file is sent as a sequence of chunks,
+ * each at the offset the previous one reached, and the session is completed into an asset. After a
+ * failed chunk the client asks for the session and resends from its offset.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/mgmt/1/assets/uploads")
+public class AssetChunkedUploadController {
+
+    static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+    static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-Checksum";
+    static final String ASSET_CHECKSUM_HEADER = "X-Asset-Checksum";
+
+    private final ChunkedUploadUseCase useCase;
+    private final AssetDtoMapper mapper;
+
+    @PostMapping(consumes = "application/json", produces = "application/json")
+    public ResponseEntity<UploadSessionResponse> create(@RequestBody UploadSessionRequest request) {
+        UploadSession session = useCase.create(request.filename(), request.contentType(), request.size());
+        return ResponseEntity.created(URI.create("/api/mgmt/1/assets/uploads/" + session.id()))
+                .header(UPLOAD_OFFSET_HEADER, "0")
+                .body(mapper.toSessionDto(session));
+    }
+
+    @GetMapping(path = "/{id}", produces = "application/json")
+    public ResponseEntity<UploadSessionResponse> find(@PathVariable("id") String id) {
+        return session(useCase.find(id));
+    }
+
+    /**
+     * The body is streamed into the session as it arrives; {@code X-Chunk-Checksum} is the hex SHA-256
+     * of the chunk.
+     */
+    @PutMapping(path = "/{id}", consumes = "application/octet-stream", produces = "application/json")
+    public ResponseEntity<UploadSessionResponse> append(@PathVariable("id") String id,
+                                                        @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+                                                        @RequestHeader(name = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+                                                        InputStream body) {
+        return session(useCase.append(id, offset, checksum, body::transferTo));
+    }
+
+    /**
+     * {@code X-Asset-Checksum}, the hex SHA-256 of the whole file, is checked against what was received.
+     */
+    @PostMapping(path = "/{id}/actions/complete", produces = "application/json")
+    public ResponseEntity<AssetFileUploadResponse> complete(@PathVariable("id") String id,
+                                                            @RequestHeader(name = ASSET_CHECKSUM_HEADER, required = false) String checksum) {
+        Long assetId = useCase.complete(id, checksum);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new AssetFileUploadResponse(assetId.toString()));
+    }
+
+    @DeleteMapping(path = "/{id}")
+    public ResponseEntity<Void> abort(@PathVariable("id") String id) {
+        useCase.abort(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<UploadSessionResponse> session(UploadSession session) {
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.offset()))
+                .body(mapper.toSessionDto(session));
+    }
+}
@@ -0,0 +1,173 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.controller;
+
+import es.nttdata.assetsproxy.application.usecase.DownloadAssetUseCase;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the published content of an asset. Content stored as a file is handed to Tomcat's sendfile,
+ * which copies it from the page cache to the socket without going through the JVM and frees the
+ * request thread at once; elsewhere it is written with {@code FileChannel.transferTo}. A single
+ * {@code Range} is honoured, so players can seek, and the stored digest is the strong ETag.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/mgmt/1/assets")
+public class AssetContentController {
+
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final DownloadAssetUseCase useCase;
+
+    @GetMapping(path = "/{id}/content")
+    public void content(@PathVariable("id") Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        AssetDomain asset = useCase.open(id);
+        AssetContent content = asset.getContent();
+        long size = content.size();
+        String etag = asset.getContentDigest() != null ? "\"" + asset.getContentDigest() + "\"" : null;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        long start = 0;
+        long end = size - 1;
+        HttpRange range = range(request, etag);
+        if (range != null) {
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+            if (start >= size || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentType(asset.getContentType() != null ? asset.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(asset.getFilename(), StandardCharsets.UTF_8).build().toString());
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || size == 0) {
+            return;
+        }
+
+        Optional<Path> file = content.localFile();
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file once the request returns, from its poller
+            request.setAttribute(SENDFILE_FILENAME, file.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (OutputStream out = response.getOutputStream()) {
+            if (file.isPresent()) {
+                transfer(file.get(), start, end - start + 1, Channels.newChannel(out));
+            } else {
+                copy(content, start, end - start + 1, out);
+            }
+        }
+    }
+
+    /**
+     * The requested range, or null to send everything: when there is none, it is not a single valid
+     * byte range, or {@code If-Range} names another version.
+     */
+    private static HttpRange range(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void transfer(Path file, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long n = source.transferTo(position, end - position, target);
+                if (n <= 0) {
+                    throw new EOFException("Stored file " + file + " ended at " + position + " of " + end + " bytes");
+                }
+                position += n;
+            }
+        }
+    }
+
+    private static void copy(AssetContent content, long position, long count, OutputStream out) throws IOException {
+        try (InputStream in = content.openStream()) {
+            in.skipNBytes(position);
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            while (count > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                if (n < 0) {
+                    throw new EOFException("Content ended " + count + " bytes early");
+                }
+                out.write(buffer, 0, n);
+                count -= n;
+            }
+        }
+    }
+}
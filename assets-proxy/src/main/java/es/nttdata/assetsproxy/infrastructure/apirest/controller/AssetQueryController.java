@@ -1,22 +1,45 @@
 package es.nttdata.assetsproxy.infrastructure.apirest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import es.nttdata.assetsproxy.application.usecase.SearchAssetsUseCase;
+import es.nttdata.assetsproxy.application.usecase.WatchAssetsUseCase;
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
 import es.nttdata.assetsproxy.domain.model.SortDirection;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
+import es.nttdata.assetsproxy.domain.validation.SearchCriteriaValidator;
+import es.nttdata.assetsproxy.domain.validation.StatusWatchValidator;
 import es.nttdata.assetsproxy.infrastructure.apirest.dto.Asset;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStats;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStatusChange;
 import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.SearchCursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -24,8 +47,16 @@ import java.util.List;
 @RequestMapping("/api/mgmt/1/assets")
 public class AssetQueryController{
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final char EVENT_ID_SEPARATOR = '-';
+    static final long RECONNECT_MILLIS = 2000;
+
     private final SearchAssetsUseCase useCase;
+    private final WatchAssetsUseCase watchUseCase;
     private final AssetDtoMapper mapper;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(produces = "application/json")
     public ResponseEntity<List<Asset>> search(
@@ -44,10 +75,28 @@ public class AssetQueryController{
             String filetype,
 
             @RequestParam(name = "sortDirection", required = false, defaultValue = "DESC")
-            String sortDirection
+            String sortDirection,
+
+            @RequestParam(name = "limit", required = false)
+            Integer limit,
+
+            @RequestParam(name = "cursor", required = false)
+            String cursor
     ) {
         SortDirection direction = "ASC".equalsIgnoreCase(sortDirection)?SortDirection.ASC:SortDirection.DESC;
 
+        if (limit != null || cursor != null) {
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            SearchCriteria criteria = new SearchCriteria(uploadDateStart, uploadDateEnd, filenamePattern, filetype,
+                    direction, pageSize, null);
+            if (cursor != null) {
+                criteria = new SearchCriteria(uploadDateStart, uploadDateEnd, filenamePattern, filetype,
+                        direction, pageSize, SearchCursorCodec.decode(cursor, criteria));
+            }
+            log.info("Search assets page by {}", criteria);
+            return page(useCase.searchPage(criteria), criteria);
+        }
+
         SearchCriteria criteria = new SearchCriteria(uploadDateStart, uploadDateEnd, filenamePattern, filetype, direction);
         log.info("Search assets by {}", criteria);
         List<Asset> response = mapper.toResponseDtoList(useCase.search(criteria));
@@ -57,4 +106,165 @@ public class AssetQueryController{
         }
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * NDJSON representation of the search: one {@link Asset} per line, written to the socket as rows
+     * come out of the database cursor, so the full result set is never held in memory.
+     */
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> searchStream(
+            @RequestParam(name = "uploadDateStart", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            OffsetDateTime uploadDateStart,
+
+            @RequestParam(name = "uploadDateEnd", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            OffsetDateTime uploadDateEnd,
+
+            @RequestParam(name = "filename", required = false)
+            String filenamePattern,
+
+            @RequestParam(name = "filetype", required = false)
+            String filetype,
+
+            @RequestParam(name = "sortDirection", required = false, defaultValue = "DESC")
+            String sortDirection
+    ) {
+        SortDirection direction = "ASC".equalsIgnoreCase(sortDirection)?SortDirection.ASC:SortDirection.DESC;
+
+        SearchCriteria criteria = new SearchCriteria(uploadDateStart, uploadDateEnd, filenamePattern, filetype, direction);
+        log.info("Stream assets by {}", criteria);
+        // Validated up front: once streaming starts the status line has already been sent
+        SearchCriteriaValidator.validate(criteria);
+
+        ObjectWriter writer = objectMapper.writerFor(Asset.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                AtomicLong written = new AtomicLong();
+                // the first row goes out straight away, the rest whenever the generator buffer fills up
+                useCase.stream(criteria, asset -> writeLine(writer, generator, mapper.toResponseDto(asset),
+                        written.incrementAndGet() == 1));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Asset counts by content type and status for the assets uploaded between both days (UTC, inclusive).
+     * Served from daily rollups, so the cost depends on the number of days, not of assets.
+     */
+    @GetMapping(path = "/stats", produces = "application/json")
+    public ResponseEntity<List<AssetStats>> stats(
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate to
+    ) {
+        return ResponseEntity.ok(mapper.toStatsDtoList(useCase.count(from, to)));
+    }
+
+    /**
+     * Server-Sent Events stream of the status changes made on any instance, optionally of one asset
+     * and/or one content type. Each event carries its id ({@code <epoch>-<sequence>}), so a reconnecting
+     * client (which sends it back as {@code Last-Event-ID}) resumes where it left off as long as it reaches
+     * the same instance run and the event is still retained; otherwise it gets a {@code resync} event first.
+     * A stream costs one virtual thread parked on the shared event buffer.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> events(
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false)
+            String lastEventIdHeader,
+
+            @RequestParam(name = "lastEventId", required = false)
+            String lastEventId,
+
+            @RequestParam(name = "assetId", required = false)
+            Long assetId,
+
+            @RequestParam(name = "contentType", required = false)
+            String contentType
+    ) {
+        StatusWatch watch = statusWatch(lastEventIdHeader != null ? lastEventIdHeader : lastEventId,
+                assetId, contentType);
+        log.info("Watch asset status changes by {}", watch);
+        // Validated up front: once streaming starts the status line has already been sent
+        StatusWatchValidator.validate(watch);
+
+        ObjectWriter writer = objectMapper.writerFor(AssetStatusChange.class);
+        StreamingResponseBody body = out -> {
+            try {
+                write(out, "retry: " + RECONNECT_MILLIS + "\n\n");
+                watchUseCase.watch(watch, event -> writeEvent(writer, out, event), () -> write(out, ":\n\n"),
+                        () -> write(out, "event: resync\ndata: {}\n\n"));
+            } catch (UncheckedIOException ex) {
+                // the client went away
+                log.debug("Status stream closed: {}", ex.getCause().getMessage());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
+    private ResponseEntity<List<Asset>> page(AssetPage page, SearchCriteria criteria) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.next() != null) {
+            ok.header(NEXT_CURSOR_HEADER, SearchCursorCodec.encode(page.next(), criteria));
+        }
+        return ok.body(mapper.toResponseDtoList(page.items()));
+    }
+
+    private static StatusWatch statusWatch(String lastEventId, Long assetId, String contentType) {
+        if (lastEventId == null) {
+            return new StatusWatch(null, null, assetId, contentType);
+        }
+        int separator = lastEventId.lastIndexOf(EVENT_ID_SEPARATOR);
+        try {
+            return new StatusWatch(lastEventId.substring(0, separator),
+                    Long.valueOf(lastEventId.substring(separator + 1)), assetId, contentType);
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Last-Event-ID must be <epoch>-<sequence>");
+        }
+    }
+
+    private void writeEvent(ObjectWriter writer, OutputStream out, AssetStatusEvent event) {
+        try {
+            write(out, "id: " + event.epoch() + EVENT_ID_SEPARATOR + event.id() + "\nevent: status\ndata: "
+                    + writer.writeValueAsString(mapper.toStatusChangeDto(event)) + "\n\n");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void write(OutputStream out, String frame) {
+        try {
+            out.write(frame.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, Asset asset, boolean flush) {
+        try {
+            writer.writeValue(generator, asset);
+            generator.writeRaw('\n');
+            if (flush) {
+                generator.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
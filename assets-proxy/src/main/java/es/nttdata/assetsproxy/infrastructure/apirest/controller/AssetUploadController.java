@@ -1,28 +1,152 @@
 package es.nttdata.assetsproxy.infrastructure.apirest.controller;
 
 import es.nttdata.assetsproxy.application.usecase.UploadAssetUseCase;
-import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadRequest;
+import es.nttdata.assetsproxy.domain.model.UploadResult;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileBatchUploadResponse;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadBatchItem;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadContent;
 import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadResponse;
 import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
-import jakarta.validation.Valid;
+import es.nttdata.assetsproxy.infrastructure.apirest.reader.AssetUploadRequestReader;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/mgmt/1/assets")
 public class AssetUploadController {
 
+    static final String FILENAME_HEADER = "X-Asset-Filename";
+    static final String CONTENT_TYPE_HEADER = "X-Asset-Content-Type";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String CONTENT_DIGEST_HEADER = "Content-Digest";
+
     private final UploadAssetUseCase uploadAssetUseCase;
     private final AssetDtoMapper mapper;
+    private final AssetUploadRequestReader reader;
 
+    /**
+     * The body is an {@code AssetFileUploadRequest}, read as a stream by {@link AssetUploadRequestReader}
+     * instead of being bound, so that the encoded file never sits in the heap. With an
+     * {@code Idempotency-Key} already accepted, the body is not read at all: the retry is recognised by the
+     * {@code Content-Length} and {@code Content-Digest} headers it repeats, as far as the client sends them.
+     */
     @PostMapping(path = "/actions/upload", consumes = "application/json", produces = "application/json")
-    public ResponseEntity<AssetFileUploadResponse> upload(@Valid @RequestBody AssetFileUploadRequest request) {
-        AssetDomain asset = mapper.toDomain(request);
-        Long id = uploadAssetUseCase.accept(asset);
+    public ResponseEntity<AssetFileUploadResponse> upload(@RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                          @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
+                                                          @RequestHeader(name = CONTENT_DIGEST_HEADER, required = false) String contentDigest,
+                                                          InputStream body) {
+        return accept(idempotencyKey, Arrays.asList(contentLength, contentDigest), () -> toDomain(reader.read(body)));
+    }
+
+    /**
+     * Raw variant: the body is the file itself, its metadata travels in headers.
+     */
+    @PostMapping(path = "/actions/upload", consumes = "application/octet-stream", produces = "application/json")
+    public ResponseEntity<AssetFileUploadResponse> uploadBinary(@RequestHeader(FILENAME_HEADER) String filename,
+                                                                @RequestHeader(CONTENT_TYPE_HEADER) String contentType,
+                                                                @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
+                                                                @RequestHeader(name = CONTENT_DIGEST_HEADER, required = false) String contentDigest,
+                                                                InputStream body) {
+        return accept(idempotencyKey, Arrays.asList(filename, contentType, contentLength, contentDigest),
+                () -> toDomain(reader.read(filename, contentType, body)));
+    }
+
+    /**
+     * Multipart variant: a {@code file} part plus optional {@code filename} and {@code contentType}
+     * parts, which default to the ones declared by the file part.
+     */
+    @PostMapping(path = "/actions/upload", consumes = "multipart/form-data", produces = "application/json")
+    public ResponseEntity<AssetFileUploadResponse> uploadMultipart(@RequestPart("file") MultipartFile file,
+                                                                   @RequestParam(name = "filename", required = false) String filename,
+                                                                   @RequestParam(name = "contentType", required = false) String contentType,
+                                                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                   @RequestHeader(name = CONTENT_DIGEST_HEADER, required = false) String contentDigest) {
+        String name = filename != null ? filename : file.getOriginalFilename();
+        String type = contentType != null ? contentType : file.getContentType();
+        // the size of the part, not the Content-Length of the request, which varies with the boundary
+        return accept(idempotencyKey, Arrays.asList(name, type, String.valueOf(file.getSize()), contentDigest), () -> {
+            try (InputStream body = file.getInputStream()) {
+                return toDomain(reader.read(name, type, body));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Batch variant: the body is a JSON array of {@code AssetFileUploadRequest}. Valid elements are
+     * saved in one batched write and published; the response reports every element in request order.
+     */
+    @PostMapping(path = "/actions/batch-upload", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<AssetFileBatchUploadResponse> uploadBatch(InputStream body) {
+        List<AssetFileUploadBatchItem> items = reader.readAll(body);
+        List<AssetDomain> valid;
+        try {
+            valid = items.stream()
+                    .filter(AssetFileUploadBatchItem::isValid)
+                    .map(item -> mapper.toDomain(item.upload()))
+                    .toList();
+        } catch (RuntimeException ex) {
+            items.stream().filter(AssetFileUploadBatchItem::isValid).forEach(item -> release(item.upload()));
+            throw ex;
+        }
+        Iterator<UploadResult> results = valid.isEmpty()
+                ? List.<UploadResult>of().iterator()
+                : uploadAssetUseCase.acceptAll(valid).iterator();
+
+        List<AssetFileBatchUploadResponse.Item> response = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            AssetFileUploadBatchItem item = items.get(i);
+            if (!item.isValid()) {
+                response.add(new AssetFileBatchUploadResponse.Item(i, null, item.error()));
+                continue;
+            }
+            UploadResult result = results.next();
+            response.add(new AssetFileBatchUploadResponse.Item(
+                    i, result.isAccepted() ? result.id().toString() : null, result.error()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new AssetFileBatchUploadResponse(response));
+    }
+
+    /**
+     * Maps a spooled upload, releasing its content if the mapping fails: until the use case has the asset,
+     * nothing else would.
+     */
+    private AssetDomain toDomain(AssetFileUploadContent upload) {
+        try {
+            return mapper.toDomain(upload);
+        } catch (RuntimeException ex) {
+            release(upload);
+            throw ex;
+        }
+    }
+
+    private static void release(AssetFileUploadContent upload) {
+        if (upload.content() != null) {
+            upload.content().release();
+        }
+    }
+
+    private ResponseEntity<AssetFileUploadResponse> accept(String idempotencyKey, List<String> replayMetadata,
+                                                           Supplier<AssetDomain> asset) {
+        Long id = uploadAssetUseCase.accept(idempotencyKey, replayMetadata, asset);
         return ResponseEntity.status(HttpStatus.ACCEPTED)
                 .body(new AssetFileUploadResponse(id.toString()));
     }
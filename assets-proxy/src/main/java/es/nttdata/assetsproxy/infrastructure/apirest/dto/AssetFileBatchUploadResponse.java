@@ -0,0 +1,14 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Per-element outcome of a batch upload, in request order: the asset id, or the error that rejected it.
+ */
+public record AssetFileBatchUploadResponse(List<Item> items) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int index, String id, String error) { }
+}
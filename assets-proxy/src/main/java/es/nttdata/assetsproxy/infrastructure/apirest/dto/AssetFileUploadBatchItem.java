@@ -0,0 +1,23 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+/**
+ * One element of a batch upload as read from the request: either its decoded content or, when the
+ * element itself is invalid, the reason why.
+ */
+public record AssetFileUploadBatchItem(
+        AssetFileUploadContent upload,
+        String error
+) {
+
+    public static AssetFileUploadBatchItem of(AssetFileUploadContent upload) {
+        return new AssetFileUploadBatchItem(upload, null);
+    }
+
+    public static AssetFileUploadBatchItem invalid(String error) {
+        return new AssetFileUploadBatchItem(null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,12 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+
+/**
+ * {@link AssetFileUploadRequest} once its encoded file has been decoded into the spool.
+ */
+public record AssetFileUploadContent(
+        String filename,
+        String contentType,
+        AssetContent content
+) { }
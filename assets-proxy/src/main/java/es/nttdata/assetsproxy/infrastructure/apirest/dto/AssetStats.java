@@ -0,0 +1,7 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+public record AssetStats(
+        String contentType,
+        String status,
+        long count
+) { }
@@ -0,0 +1,13 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+import java.time.OffsetDateTime;
+
+public record AssetStatusChange(
+        String assetId,
+        String filename,
+        String contentType,
+        String from,
+        String to,
+        String url,
+        OffsetDateTime at
+) { }
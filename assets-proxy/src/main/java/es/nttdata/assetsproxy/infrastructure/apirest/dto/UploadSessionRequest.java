@@ -0,0 +1,7 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+public record UploadSessionRequest(
+        String filename,
+        String contentType,
+        Long size
+) { }
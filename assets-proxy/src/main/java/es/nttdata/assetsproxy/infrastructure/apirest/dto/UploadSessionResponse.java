@@ -0,0 +1,12 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.dto;
+
+import java.time.OffsetDateTime;
+
+public record UploadSessionResponse(
+        String id,
+        String filename,
+        String contentType,
+        Long size,
+        long offset,
+        OffsetDateTime expiresAt
+) { }
@@ -2,19 +2,34 @@ package es.nttdata.assetsproxy.infrastructure.apirest.exception;
 
 import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
 import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.exception.UploadOffsetMismatchException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
 
 import static org.springframework.http.ResponseEntity.status;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+    private static final String INVALID_REGULAR_EXPRESSION = "2201B";
+
     @ExceptionHandler(AssetNotFoundException.class)
     public Object handleAssetNotFound(AssetNotFoundException ex, HttpServletRequest req) {
         ProblemDetail pd = problem(HttpStatus.NOT_FOUND, "Asset not found", ex.getMessage(), req,
@@ -22,6 +37,23 @@ public class GlobalExceptionHandler {
         return status(HttpStatus.NOT_FOUND).body(pd);
     }
 
+    @ExceptionHandler(UploadSessionNotFoundException.class)
+    public Object handleUploadSessionNotFound(UploadSessionNotFoundException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.NOT_FOUND, "Upload session not found", ex.getMessage(), req,
+                "urn:problem-type:upload-session-not-found");
+        return status(HttpStatus.NOT_FOUND).body(pd);
+    }
+
+    @ExceptionHandler(UploadOffsetMismatchException.class)
+    public Object handleUploadOffsetMismatch(UploadOffsetMismatchException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.CONFLICT, "Chunk offset mismatch", ex.getMessage(), req,
+                "urn:problem-type:upload-offset-mismatch");
+        pd.setProperty("offset", ex.getOffset());
+        return status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(ex.getOffset()))
+                .body(pd);
+    }
+
     @ExceptionHandler(BusinessException.class)
     public Object handleBusiness(BusinessException ex, HttpServletRequest req) {
         ProblemDetail pd = problem(HttpStatus.BAD_REQUEST, "Business error", ex.getMessage(), req,
@@ -29,6 +61,76 @@ public class GlobalExceptionHandler {
         return status(HttpStatus.BAD_REQUEST).body(pd);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public Object handleIdempotencyConflict(IdempotencyConflictException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.CONFLICT, "Upload in progress", ex.getMessage(), req,
+                "urn:problem-type:idempotency-conflict");
+        return status(HttpStatus.CONFLICT).body(pd);
+    }
+
+    @ExceptionHandler(IdempotencyMismatchException.class)
+    public Object handleIdempotencyMismatch(IdempotencyMismatchException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key reused", ex.getMessage(), req,
+                "urn:problem-type:idempotency-mismatch");
+        return status(HttpStatus.UNPROCESSABLE_ENTITY).body(pd);
+    }
+
+    @ExceptionHandler(PublishCapacityExceededException.class)
+    public Object handlePublishCapacityExceeded(PublishCapacityExceededException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.TOO_MANY_REQUESTS, "Too many uploads in progress", ex.getMessage(), req,
+                "urn:problem-type:publish-capacity-exceeded");
+        return status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(pd);
+    }
+
+    // the statement cancelled by the driver, or the transaction deadline found passed between statements
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class})
+    public Object handleQueryTimeout(Exception ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.SERVICE_UNAVAILABLE, "Search timed out",
+                "The search took too long; narrow the date range or the filename pattern", req,
+                "urn:problem-type:search-timeout");
+        return status(HttpStatus.SERVICE_UNAVAILABLE).body(pd);
+    }
+
+    /**
+     * A filename expression the policy let through but the database's regex engine refuses (SQLState 2201B)
+     * is the client's; any other data access failure stays a server error.
+     */
+    @ExceptionHandler(DataAccessException.class)
+    public Object handleDataAccess(DataAccessException ex, HttpServletRequest req) {
+        if (!INVALID_REGULAR_EXPRESSION.equals(sqlState(ex))) {
+            throw ex;
+        }
+        ProblemDetail pd = problem(HttpStatus.BAD_REQUEST, "Business error",
+                "filename must be a valid regular expression: " + ex.getMostSpecificCause().getMessage(), req,
+                "urn:problem-type:business-error");
+        return status(HttpStatus.BAD_REQUEST).body(pd);
+    }
+
+    @ExceptionHandler(RepositoryOverloadedException.class)
+    public Object handleRepositoryOverloaded(RepositoryOverloadedException ex, HttpServletRequest req) {
+        ProblemDetail pd = problem(HttpStatus.SERVICE_UNAVAILABLE, "Database overloaded", ex.getMessage(), req,
+                "urn:problem-type:repository-overloaded");
+        return status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(pd);
+    }
+
+    private static String sqlState(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private static String retryAfterSeconds(Duration retryAfter) {
+        long seconds = retryAfter != null ? (retryAfter.toMillis() + 999) / 1000 : 0;
+        return String.valueOf(Math.max(1, seconds));
+    }
+
     private ProblemDetail problem(HttpStatus status, String title, String detail,
                                   HttpServletRequest req, String typeUrn) {
         ProblemDetail pd = ProblemDetail.forStatus(status);
@@ -1,15 +1,19 @@
 package es.nttdata.assetsproxy.infrastructure.apirest.mapper;
 
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
-import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadRequest;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
 import es.nttdata.assetsproxy.infrastructure.apirest.dto.Asset;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadContent;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStats;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStatusChange;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.UploadSessionResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
-import org.mapstruct.Named;
 
-import java.util.Base64;
 import java.util.List;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
@@ -20,12 +24,16 @@ public interface AssetDtoMapper {
     @Mapping(target = "url", ignore = true)
     @Mapping(target = "uploadDate", expression = "java(java.time.OffsetDateTime.now())")
     @Mapping(target = "status", expression = "java(es.nttdata.assetsproxy.domain.model.AssetStatus.PENDING)")
-    @Mapping(target = "fileBytes", source = "encodedFile", qualifiedByName = "decodeBase64")
+    @Mapping(target = "content", source = "content")
+    @Mapping(
+            target = "contentDigest",
+            expression = "java(upload.content() != null ? upload.content().checksum() : null)"
+    )
     @Mapping(
             target = "size",
-            expression = "java((int) mapEncodedFileToBytes(dto.encodedFile()).length)"
+            expression = "java(upload.content() != null ? Math.toIntExact(upload.content().size()) : null)"
     )
-    AssetDomain toDomain(AssetFileUploadRequest dto);
+    AssetDomain toDomain(AssetFileUploadContent upload);
 
     @Mapping(
             target = "id",
@@ -38,12 +46,15 @@ public interface AssetDtoMapper {
 
     List<Asset> toResponseDtoList(List<AssetDomain> assets);
 
-    @Named("decodeBase64")
-    default byte[] mapEncodedFileToBytes(String encodedFile) {
-        try {
-            return Base64.getDecoder().decode(encodedFile);
-        } catch (IllegalArgumentException ex) {
-            throw new IllegalArgumentException("encodedFile base64 is not valid", ex);
-        }
-    }
+    AssetStats toStatsDto(AssetCount count);
+
+    List<AssetStats> toStatsDtoList(List<AssetCount> counts);
+
+    @Mapping(
+            target = "assetId",
+            expression = "java(event.assetId() != null ? event.assetId().toString() : null)"
+    )
+    AssetStatusChange toStatusChangeDto(AssetStatusEvent event);
+
+    UploadSessionResponse toSessionDto(UploadSession session);
 }
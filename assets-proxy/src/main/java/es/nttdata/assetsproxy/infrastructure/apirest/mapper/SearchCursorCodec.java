@@ -0,0 +1,81 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.mapper;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SearchCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Turns a {@link SearchCursor} into the opaque token handed to API clients and back. The token also carries a
+ * hash of the sort direction and filters of the search it came from: a position is only meaningful in the
+ * order and among the rows it was taken from, so it is refused by any other search. The page size may change.
+ */
+public final class SearchCursorCodec {
+
+    private static final char SEPARATOR = '|';
+    private static final int SCOPE_BYTES = 12;
+
+    private SearchCursorCodec() {}
+
+    public static String encode(SearchCursor cursor, SearchCriteria criteria) {
+        String raw = cursor.uploadDate().toInstant().toString() + SEPARATOR + cursor.id() + SEPARATOR + scope(criteria);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The position in {@code token}, provided it was handed out for a search with the sort and filters of
+     * {@code criteria}.
+     */
+    public static SearchCursor decode(String token, SearchCriteria criteria) {
+        String[] parts;
+        SearchCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\" + SEPARATOR, -1);
+            cursor = new SearchCursor(
+                    Instant.parse(parts[0]).atOffset(ZoneOffset.UTC),
+                    Long.valueOf(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new BusinessException("cursor is not valid");
+        }
+        if (parts.length != 3) {
+            throw new BusinessException("cursor is not valid");
+        }
+        if (!parts[2].equals(scope(criteria))) {
+            throw new BusinessException("cursor belongs to a search with another sort direction or filters");
+        }
+        return cursor;
+    }
+
+    private static String scope(SearchCriteria criteria) {
+        StringBuilder canonical = new StringBuilder()
+                .append(criteria.sortDirection()).append('\0');
+        append(canonical, criteria.uploadDateStart());
+        append(canonical, criteria.uploadDateEnd());
+        append(canonical, criteria.filenamePattern());
+        append(canonical, criteria.filetype());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, SCOPE_BYTES));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static void append(StringBuilder canonical, OffsetDateTime value) {
+        append(canonical, value != null ? value.toInstant().toString() : null);
+    }
+
+    // "-" marks an absent filter, "=" prefixes a present one: null and "null" never collide
+    private static void append(StringBuilder canonical, String value) {
+        canonical.append(value != null ? "=" + value : "-").append('\0');
+    }
+}
@@ -0,0 +1,213 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.reader;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadBatchItem;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadContent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an {@code AssetFileUploadRequest} JSON document as a token stream. The
+ * {@code encodedFile} value is base64 decoded chunk by chunk straight into the spool,
+ * so neither the encoded String nor the decoded bytes are ever held in the heap.
+ */
+@Component
+public class AssetUploadRequestReader {
+
+    // asset sizes are stored as INTEGER
+    static final long MAX_CONTENT_SIZE = Integer.MAX_VALUE;
+
+    private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS.withPaddingAllowed();
+
+    private final ObjectMapper objectMapper;
+    private final ContentSpoolPort spool;
+    private final int maxBatchItems;
+
+    public AssetUploadRequestReader(ObjectMapper objectMapper,
+                                    ContentSpoolPort spool,
+                                    @Value("${assets.upload.batch.max-items:1000}") int maxBatchItems) {
+        this.objectMapper = objectMapper;
+        this.spool = spool;
+        this.maxBatchItems = maxBatchItems;
+    }
+
+    public AssetFileUploadContent read(InputStream body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new BusinessException("Upload request must be a JSON object");
+            }
+            return validate(readObject(parser));
+        } catch (JsonProcessingException ex) {
+            throw new BusinessException("Upload request is not valid JSON: " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads a JSON array of {@code AssetFileUploadRequest}, spooling each element as it is reached.
+     * An invalid element is reported in its slot and does not stop the others; a body that is not
+     * a JSON array, is malformed or is too long fails as a whole, releasing whatever was spooled.
+     */
+    public List<AssetFileUploadBatchItem> readAll(InputStream body) {
+        List<AssetFileUploadBatchItem> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessException("Batch upload request must be a JSON array");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (items.size() == maxBatchItems) {
+                    throw new BusinessException("Batch upload must not exceed " + maxBatchItems + " items");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    items.add(readItem(parser));
+                } else {
+                    parser.skipChildren();
+                    items.add(AssetFileUploadBatchItem.invalid("item must be a JSON object"));
+                }
+            }
+            if (items.isEmpty()) {
+                throw new BusinessException("Batch upload must contain at least one item");
+            }
+            return items;
+        } catch (JsonProcessingException ex) {
+            releaseAll(items);
+            throw new BusinessException("Upload request is not valid JSON: " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            releaseAll(items);
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            releaseAll(items);
+            throw ex;
+        }
+    }
+
+    /**
+     * Spools a raw (non encoded) body whose metadata travelled outside of it, in headers or form parts.
+     */
+    public AssetFileUploadContent read(String filename, String contentType, InputStream body) {
+        try {
+            return validate(new AssetFileUploadContent(filename, contentType, spool.spool(body::transferTo)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads the fields of the object the parser is positioned at, leaving it on its END_OBJECT.
+     */
+    AssetFileUploadContent readObject(JsonParser parser) throws IOException {
+        String filename = null;
+        String contentType = null;
+        AssetContent content = null;
+        try {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "filename" -> filename = textOrNull(parser, value);
+                    case "contentType" -> contentType = textOrNull(parser, value);
+                    case "encodedFile" -> {
+                        release(content);
+                        content = null;
+                        if (value == JsonToken.VALUE_STRING) {
+                            content = decode(parser);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            release(content);
+            throw ex;
+        }
+        return new AssetFileUploadContent(filename, contentType, content);
+    }
+
+    /**
+     * Reads one array element, moving past the rest of it when it turns out invalid so the next
+     * element can still be read.
+     */
+    private AssetFileUploadBatchItem readItem(JsonParser parser) throws IOException {
+        JsonStreamContext array = parser.getParsingContext().getParent();
+        try {
+            return AssetFileUploadBatchItem.of(validate(readObject(parser)));
+        } catch (BusinessException ex) {
+            while (parser.currentToken() != JsonToken.END_OBJECT || parser.getParsingContext() != array) {
+                if (parser.nextToken() == null) {
+                    break;
+                }
+            }
+            return AssetFileUploadBatchItem.invalid(ex.getMessage());
+        }
+    }
+
+    private AssetContent decode(JsonParser parser) throws IOException {
+        try {
+            return spool.spool(out -> parser.readBinaryValue(BASE64, out));
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            throw new BusinessException("encodedFile base64 is not valid");
+        }
+    }
+
+    private static AssetFileUploadContent validate(AssetFileUploadContent upload) {
+        String error = null;
+        if (isBlank(upload.filename())) {
+            error = "filename must not be blank";
+        } else if (isBlank(upload.contentType())) {
+            error = "contentType must not be blank";
+        } else if (upload.content() == null || upload.content().size() == 0) {
+            error = "file content must not be empty";
+        } else if (upload.content().size() > MAX_CONTENT_SIZE) {
+            error = "file content must not exceed " + MAX_CONTENT_SIZE + " bytes";
+        }
+        if (error != null) {
+            release(upload.content());
+            throw new BusinessException(error);
+        }
+        return upload;
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void releaseAll(List<AssetFileUploadBatchItem> items) {
+        items.stream()
+                .filter(AssetFileUploadBatchItem::isValid)
+                .forEach(item -> release(item.upload().content()));
+    }
+
+    private static void release(AssetContent content) {
+        if (content != null) {
+            content.release();
+        }
+    }
+}
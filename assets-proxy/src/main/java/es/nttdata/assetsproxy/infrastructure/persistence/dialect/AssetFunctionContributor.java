@@ -0,0 +1,29 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.dialect;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code filename_matches(column, regex)}, a case-insensitive regex match. On PostgreSQL it
+ * renders as {@code ~*}, which the pg_trgm GIN index on {@code filename_lc} can serve; elsewhere
+ * (H2 in tests) it falls back to {@code regexp_like}.
+ */
+public class AssetFunctionContributor implements FunctionContributor {
+
+    public static final String FILENAME_MATCHES = "filename_matches";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? "(?1 ~* ?2)"
+                : "regexp_like(?1, ?2, 'i')";
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(FILENAME_MATCHES, pattern)
+                .setInvariantType(functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN))
+                .setExactArgumentCount(2)
+                .register();
+    }
+}
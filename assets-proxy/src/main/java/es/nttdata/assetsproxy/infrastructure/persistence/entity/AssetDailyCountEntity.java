@@ -0,0 +1,47 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rollup row: how many assets uploaded on {@code uploadDay} (UTC) with a content type are in a status.
+ * Kept up to date by folding the deltas of every insert and status transition, never recomputed.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "asset_daily_counts")
+public class AssetDailyCountEntity {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "asset_count", nullable = false)
+    private long assetCount;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "upload_day", nullable = false)
+        private LocalDate uploadDay;
+
+        // '' for assets without a content type: it is part of the primary key
+        @Column(name = "content_type", nullable = false)
+        private String contentType;
+
+        @Column(nullable = false)
+        private String status;
+    }
+}
@@ -12,12 +12,18 @@ import java.time.OffsetDateTime;
 @Table(name = "assets")
 public class AssetEntity {
 
+    // Ids come from the sequence in blocks of 50 so batched inserts need no round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assets_id")
+    @SequenceGenerator(name = "assets_id", sequenceName = "assets_id_seq", allocationSize = 50)
     private Long id;
 
     private String filename;
 
+    // lower(filename), generated by the database and indexed with pg_trgm for the filename search
+    @Column(name = "filename_lc", insertable = false, updatable = false)
+    private String filenameLc;
+
     @Column(name = "content_type")
     private String contentType;
 
@@ -32,4 +38,7 @@ public class AssetEntity {
 
     @Column(nullable = false)
     private String status;
+
+    @Column(name = "content_digest")
+    private String contentDigest;
 }
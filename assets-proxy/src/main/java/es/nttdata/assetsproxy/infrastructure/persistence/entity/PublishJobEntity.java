@@ -0,0 +1,46 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outbox row: an asset still to be published, written in the same transaction as the asset itself.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "publish_jobs")
+public class PublishJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "publish_jobs_id")
+    @SequenceGenerator(name = "publish_jobs_id", sequenceName = "publish_jobs_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "asset_id", nullable = false)
+    private Long assetId;
+
+    // partition key of the asset, so the relay reads and updates it in its own partition; null for older jobs
+    @Column(name = "upload_date")
+    private OffsetDateTime uploadDate;
+
+    // reference of the retained content in the spool, null when the upload had none
+    @Column(name = "content_ref")
+    private String contentRef;
+
+    @Column(name = "content_size", nullable = false)
+    private long contentSize;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // lease of the worker that claimed the job; expired leases are claimed again
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
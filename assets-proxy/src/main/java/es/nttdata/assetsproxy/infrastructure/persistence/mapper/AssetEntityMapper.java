@@ -3,6 +3,7 @@ package es.nttdata.assetsproxy.infrastructure.persistence.mapper;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -17,7 +18,13 @@ public interface AssetEntityMapper {
                     "? asset.getStatus().name() " +
                     ": AssetStatus.PENDING.name())"
     )
+    @Mapping(target = "filenameLc", ignore = true)
     AssetEntity toEntity(AssetDomain asset);
 
+    // the content travels apart from the row: it is reopened from the spool or storage when needed
+    @Mapping(target = "content", ignore = true)
     AssetDomain toDomain(AssetEntity entity);
+
+    @Mapping(target = "content", ignore = true)
+    AssetDomain toDomain(AssetRow row);
 }
@@ -0,0 +1,18 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.projection;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Read-only view of an {@code assets} row, selected straight from the query. Unlike an entity it is
+ * never registered in the persistence context, so it carries no snapshot and costs nothing at flush.
+ */
+public record AssetRow(
+        Long id,
+        String filename,
+        String contentType,
+        Integer size,
+        String url,
+        OffsetDateTime uploadDate,
+        String status,
+        String contentDigest
+) { }
@@ -0,0 +1,35 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Opt-in for callers that must see what they, or someone they heard from, have just written: read-only
+ * transactions started inside {@link #primary} read from the primary instead of the replica, which may lag.
+ * Transactions that already hold a connection keep it, so reads inside a read-write transaction are on the
+ * primary anyway.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private ReadYourWrites() {
+    }
+
+    public static <T> T primary(Supplier<T> reads) {
+        DEPTH.set(DEPTH.get() + 1);
+        try {
+            return reads.get();
+        } finally {
+            int depth = DEPTH.get() - 1;
+            if (depth == 0) {
+                DEPTH.remove();
+            } else {
+                DEPTH.set(depth);
+            }
+        }
+    }
+
+    static boolean required() {
+        return DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,8 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetDailyCountEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AssetDailyCountJpaRepository
+        extends JpaRepository<AssetDailyCountEntity, AssetDailyCountEntity.Key>, AssetDailyCountUpserts {
+}
@@ -0,0 +1,15 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import java.time.LocalDate;
+
+/**
+ * Atomic increments of the daily asset counts.
+ */
+public interface AssetDailyCountUpserts {
+
+    /**
+     * Adds {@code delta} to the count of the given day, content type and status, creating the row when
+     * missing. Safe against concurrent callers creating the same row.
+     */
+    void add(LocalDate uploadDay, String contentType, String status, long delta);
+}
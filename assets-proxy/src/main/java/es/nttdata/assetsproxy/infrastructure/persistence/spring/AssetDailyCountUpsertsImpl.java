@@ -0,0 +1,52 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDate;
+
+/**
+ * On PostgreSQL an {@code INSERT ... ON CONFLICT DO UPDATE}, which stays atomic when two transactions
+ * create the same row; elsewhere (H2 in tests) the equivalent {@code MERGE}.
+ */
+class AssetDailyCountUpsertsImpl implements AssetDailyCountUpserts {
+
+    private static final String POSTGRES_UPSERT = """
+            insert into asset_daily_counts (upload_day, content_type, status, asset_count) values (?1, ?2, ?3, ?4)
+            on conflict (upload_day, content_type, status)
+            do update set asset_count = asset_daily_counts.asset_count + excluded.asset_count""";
+
+    private static final String MERGE_UPSERT = """
+            merge into asset_daily_counts d
+            using (values (cast(?1 as date), cast(?2 as varchar), cast(?3 as varchar), cast(?4 as bigint)))
+                as s (upload_day, content_type, status, delta)
+            on d.upload_day = s.upload_day and d.content_type = s.content_type and d.status = s.status
+            when matched then update set asset_count = d.asset_count + s.delta
+            when not matched then insert (upload_day, content_type, status, asset_count)
+                values (s.upload_day, s.content_type, s.status, s.delta)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String upsert;
+
+    @Override
+    public void add(LocalDate uploadDay, String contentType, String status, long delta) {
+        entityManager.createNativeQuery(upsert())
+                .setParameter(1, uploadDay)
+                .setParameter(2, contentType)
+                .setParameter(3, status)
+                .setParameter(4, delta)
+                .executeUpdate();
+    }
+
+    private String upsert() {
+        if (upsert == null) {
+            upsert = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect ? POSTGRES_UPSERT : MERGE_UPSERT;
+        }
+        return upsert;
+    }
+}
@@ -1,9 +1,24 @@
 package es.nttdata.assetsproxy.infrastructure.persistence.spring;
 
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AssetJpaRepository extends JpaRepository<AssetEntity, Long>, JpaSpecificationExecutor<AssetEntity> {
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AssetJpaRepository extends JpaRepository<AssetEntity, Long>, JpaSpecificationExecutor<AssetEntity>,
+        AssetRowRepository, AssetTransitions {
+
+    // the partition key too: only the partition holding the asset is read
+    Optional<AssetEntity> findByIdAndUploadDate(Long id, OffsetDateTime uploadDate);
+
+    @Query("select a.url from AssetEntity a where a.contentDigest = :digest and a.size = :size " +
+            "and a.status = 'COMPLETED' and a.url is not null")
+    List<String> findCompletedUrls(@Param("digest") String digest, @Param("size") Integer size, Limit limit);
 
 }
@@ -0,0 +1,26 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Searches that select {@link AssetRow} projections instead of hydrating managed entities.
+ */
+public interface AssetRowRepository {
+
+    /**
+     * Rows matching the specification in {@code sort} order, at most {@code limit} of them ({@code 0} for all).
+     */
+    List<AssetRow> findRows(Specification<AssetEntity> spec, Sort sort, int limit);
+
+    /**
+     * Forward-only cursor over the rows matching the specification, fetched {@code fetchSize} rows at a time.
+     * Must be called inside a transaction and the stream closed after use.
+     */
+    Stream<AssetRow> streamRows(Specification<AssetEntity> spec, Sort sort, int fetchSize);
+}
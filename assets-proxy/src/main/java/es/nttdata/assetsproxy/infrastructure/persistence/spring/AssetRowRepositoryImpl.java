@@ -0,0 +1,61 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class AssetRowRepositoryImpl implements AssetRowRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AssetRow> findRows(Specification<AssetEntity> spec, Sort sort, int limit) {
+        TypedQuery<AssetRow> query = query(spec, sort);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<AssetRow> streamRows(Specification<AssetEntity> spec, Sort sort, int fetchSize) {
+        return query(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private TypedQuery<AssetRow> query(Specification<AssetEntity> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AssetRow> query = cb.createQuery(AssetRow.class);
+        Root<AssetEntity> root = query.from(AssetEntity.class);
+        query.select(cb.construct(AssetRow.class,
+                root.get("id"),
+                root.get("filename"),
+                root.get("contentType"),
+                root.get("size"),
+                root.get("url"),
+                root.get("uploadDate"),
+                root.get("status"),
+                root.get("contentDigest")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+}
@@ -1,14 +1,21 @@
 package es.nttdata.assetsproxy.infrastructure.persistence.spring;
 
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import jakarta.persistence.criteria.Path;
 import org.springframework.data.jpa.domain.Specification;
 
+import static es.nttdata.assetsproxy.infrastructure.persistence.dialect.AssetFunctionContributor.FILENAME_MATCHES;
+
 import java.time.OffsetDateTime;
 
 public final class AssetSpecifications {
 
     private AssetSpecifications() {}
 
+    /**
+     * Bounds are compared to the bare upload_date column, the partition key of assets, so PostgreSQL skips
+     * the months outside the range: at planning time, or at executor startup for a generic plan.
+     */
     public static Specification<AssetEntity> uploadedAtFrom(OffsetDateTime start) {
         return (root, q, cb) -> start == null ? cb.conjunction()
                 : cb.greaterThanOrEqualTo(root.get("uploadDate"), start);
@@ -19,9 +26,34 @@ public final class AssetSpecifications {
                 : cb.lessThanOrEqualTo(root.get("uploadDate"), end);
     }
 
-    public static Specification<AssetEntity> filenameLike(String pattern) {
+    /**
+     * Case-insensitive regex match (a plain string is a substring match) on the normalized filename
+     * column, served by its trigram index on PostgreSQL.
+     */
+    public static Specification<AssetEntity> filenameMatches(String pattern) {
         return (root, q, cb) -> (pattern == null || pattern.isBlank()) ? cb.conjunction()
-                : cb.like(cb.lower(root.get("filename")), "%" + pattern.toLowerCase() + "%");
+                : cb.isTrue(cb.function(FILENAME_MATCHES, Boolean.class,
+                        root.get("filenameLc"), cb.literal(pattern)));
+    }
+
+    /**
+     * Keyset predicate: rows strictly after (uploadDate, id) in the given direction. The redundant bound
+     * on upload_date alone keeps it a plain range scan on idx_assets_upload_date_id, whose (upload_date, id)
+     * order is the page order.
+     */
+    public static Specification<AssetEntity> seekAfter(OffsetDateTime uploadDate, Long id, boolean ascending) {
+        return (root, q, cb) -> {
+            if (uploadDate == null || id == null) {
+                return cb.conjunction();
+            }
+            Path<OffsetDateTime> date = root.get("uploadDate");
+            Path<Long> pk = root.get("id");
+            return ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(date, uploadDate),
+                             cb.or(cb.greaterThan(date, uploadDate), cb.greaterThan(pk, id)))
+                    : cb.and(cb.lessThanOrEqualTo(date, uploadDate),
+                             cb.or(cb.lessThan(date, uploadDate), cb.lessThan(pk, id)));
+        };
     }
 
     public static Specification<AssetEntity> contentTypeEquals(String mime) {
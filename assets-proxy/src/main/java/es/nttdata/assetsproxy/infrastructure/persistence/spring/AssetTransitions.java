@@ -0,0 +1,17 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Conditional status updates that hand back what the daily counts need, in the same statement.
+ */
+public interface AssetTransitions {
+
+    /**
+     * Moves the asset from {@code from} to {@code to}, setting its URL when {@code url} is not null. A known
+     * {@code uploadDate} limits the update to the partition holding it. Returns its {@code upload_date} and
+     * {@code content_type} when it was in {@code from}, nothing otherwise.
+     */
+    List<Object[]> transition(Long id, OffsetDateTime uploadDate, String from, String to, String url);
+}
@@ -0,0 +1,62 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * On PostgreSQL an {@code UPDATE ... RETURNING}; elsewhere (H2 in tests) the same update read through
+ * {@code FINAL TABLE}.
+ */
+class AssetTransitionsImpl implements AssetTransitions {
+
+    private static final String UPDATE = """
+            update assets set status = ?3, url = coalesce(cast(?4 as varchar), url)
+            where id = ?1 and status = ?2""";
+
+    // upload_date is the partition key: with it the update is pruned to a single partition
+    private static final String IN_PARTITION = " and upload_date = ?5";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> transition(Long id, OffsetDateTime uploadDate, String from, String to, String url) {
+        Query query = entityManager.createNativeQuery(statement(postgres(), uploadDate != null))
+                .setParameter(1, id)
+                .setParameter(2, from)
+                .setParameter(3, to)
+                .setParameter(4, url);
+        if (uploadDate != null) {
+            query.setParameter(5, uploadDate);
+        }
+        return query.unwrap(NativeQuery.class)
+                .addScalar("upload_date", OffsetDateTime.class)
+                .addScalar("content_type", String.class)
+                .getResultList();
+    }
+
+    static String statement(boolean postgres, boolean inPartition) {
+        String update = inPartition ? UPDATE + IN_PARTITION : UPDATE;
+        return postgres
+                ? update + " returning upload_date, content_type"
+                : "select upload_date, content_type from final table (" + update + ")";
+    }
+
+    private boolean postgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
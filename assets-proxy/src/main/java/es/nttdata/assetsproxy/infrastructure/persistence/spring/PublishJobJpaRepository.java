@@ -0,0 +1,30 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface PublishJobJpaRepository extends JpaRepository<PublishJobEntity, Long> {
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2): concurrent claimers, in this or another replica, get disjoint jobs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("select j from PublishJobEntity j where j.lockedUntil is null or j.lockedUntil < :now order by j.id")
+    List<PublishJobEntity> findClaimable(@Param("now") OffsetDateTime now, Limit limit);
+
+    // a job handed back unrun did not use up an attempt
+    @Modifying
+    @Query("update PublishJobEntity j set j.lockedUntil = null, j.attempts = j.attempts - 1 where j.id = :id and j.attempts > 0")
+    int unlock(@Param("id") Long id);
+}
@@ -0,0 +1,54 @@
+-- One-off conversion of an assets table created before monthly partitioning. schema.sql only creates the
+-- partitioned table when there is none, so existing databases keep working unpartitioned until this runs.
+-- Run it during a maintenance window with the application stopped, then start the application: schema.sql
+-- creates the indexes on every partition and AssetPartitionMaintainer the months ahead.
+--
+--   psql -v ON_ERROR_STOP=1 -d assetsdb -f partition-assets.sql
+
+BEGIN;
+
+ALTER TABLE publish_jobs DROP CONSTRAINT IF EXISTS publish_jobs_asset_id_fkey;
+
+ALTER TABLE assets RENAME TO assets_unpartitioned;
+ALTER TABLE assets_unpartitioned ALTER COLUMN id DROP DEFAULT;
+-- a former SERIAL id owns the sequence: it must outlive the old table
+ALTER SEQUENCE assets_id_seq OWNED BY NONE;
+ALTER TABLE assets_unpartitioned RENAME CONSTRAINT assets_pkey TO assets_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_assets_upload_date, idx_assets_upload_date_id, idx_assets_filename, idx_assets_filename_trgm,
+  idx_assets_status, idx_assets_content_digest;
+
+CREATE TABLE assets (
+  id BIGINT DEFAULT nextval('assets_id_seq'),
+  filename VARCHAR,
+  filename_lc VARCHAR GENERATED ALWAYS AS (lower(filename)) STORED,
+  content_type VARCHAR,
+  size BIGINT,
+  url VARCHAR,
+  content_digest VARCHAR(64),
+  upload_date TIMESTAMPTZ NOT NULL DEFAULT now(),
+  status VARCHAR NOT NULL DEFAULT 'PENDING'
+    CHECK (status IN ('PENDING','UPLOADING','COMPLETED','FAILED')),
+  PRIMARY KEY (id, upload_date)
+) PARTITION BY RANGE (upload_date);
+
+CREATE TABLE assets_default PARTITION OF assets DEFAULT;
+
+-- one partition per month (UTC) holding rows, named and bounded like AssetPartitionMaintainer does
+SELECT format('CREATE TABLE %I PARTITION OF assets FOR VALUES FROM (%L) TO (%L)',
+              to_char(month, '"assets_p"YYYY_MM'),
+              to_char(month, 'YYYY-MM-DD') || ' 00:00:00+00',
+              to_char(month + interval '1 month', 'YYYY-MM-DD') || ' 00:00:00+00')
+FROM (SELECT DISTINCT date_trunc('month', upload_date AT TIME ZONE 'UTC') AS month
+      FROM assets_unpartitioned) months
+ORDER BY month
+\gexec
+
+INSERT INTO assets (id, filename, content_type, size, url, content_digest, upload_date, status)
+SELECT id, filename, content_type, size, url, content_digest, upload_date, status
+FROM assets_unpartitioned;
+
+DROP TABLE assets_unpartitioned;
+
+COMMIT;
+
+ANALYZE assets;
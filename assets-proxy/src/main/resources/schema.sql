@@ -1,14 +1,102 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE SEQUENCE IF NOT EXISTS assets_id_seq INCREMENT BY 50;
+
+-- Range-partitioned by month on upload_date, so date-range searches only read the months they cover and
+-- old months are detached instead of deleted. The partitions (assets_pYYYY_MM, plus assets_default for
+-- anything outside them) are created ahead of time by AssetPartitionMaintainer. An existing unpartitioned
+-- table is left alone here: convert it once with db/partition-assets.sql.
 CREATE TABLE IF NOT EXISTS assets (
-  id SERIAL PRIMARY KEY,
+  id BIGINT DEFAULT nextval('assets_id_seq'),
   filename VARCHAR,
+  filename_lc VARCHAR GENERATED ALWAYS AS (lower(filename)) STORED,
   content_type VARCHAR,
   size BIGINT,
   url VARCHAR,
+  content_digest VARCHAR(64),
   upload_date TIMESTAMPTZ NOT NULL DEFAULT now(),
   status VARCHAR NOT NULL DEFAULT 'PENDING'
-    CHECK (status IN ('PENDING','UPLOADING','COMPLETED','FAILED'))
+    CHECK (status IN ('PENDING','UPLOADING','COMPLETED','FAILED')),
+  -- a partitioned table's keys must include the partition key; ids stay unique through the sequence
+  PRIMARY KEY (id, upload_date)
+) PARTITION BY RANGE (upload_date);
+
+-- Tables created with the former SERIAL id share the sequence name; Hibernate allocates ids in blocks of 50.
+ALTER SEQUENCE assets_id_seq INCREMENT BY 50;
+
+-- Date ranges and keyset pages, which are ordered by (upload_date, id): with id in the index, rows sharing a
+-- timestamp come out in page order instead of being fetched and sorted on every page. It covers the former
+-- index on upload_date alone.
+CREATE INDEX IF NOT EXISTS idx_assets_upload_date_id ON assets (upload_date DESC, id DESC);
+DROP INDEX IF EXISTS idx_assets_upload_date;
+-- Filename searches are case-insensitive regex matches: a trigram index on the lowercased name serves them.
+ALTER TABLE assets ADD COLUMN IF NOT EXISTS filename_lc VARCHAR GENERATED ALWAYS AS (lower(filename)) STORED;
+DROP INDEX IF EXISTS idx_assets_filename;
+CREATE INDEX IF NOT EXISTS idx_assets_filename_trgm ON assets USING gin (filename_lc gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_assets_status ON assets (status);
+-- Uploads whose SHA-256 and size match a completed asset reuse its storage URL instead of publishing again.
+ALTER TABLE assets ADD COLUMN IF NOT EXISTS content_digest VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_assets_content_digest ON assets (content_digest, size) WHERE status = 'COMPLETED';
+
+-- Transactional outbox: one row per asset still to be published, claimed by workers with FOR UPDATE SKIP LOCKED.
+-- No foreign key: assets(id) alone is not unique on the partitioned table. Jobs of detached months are deleted
+-- by AssetPartitionMaintainer, and a job whose asset is gone is dropped by the relay.
+CREATE SEQUENCE IF NOT EXISTS publish_jobs_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS publish_jobs (
+  id BIGINT DEFAULT nextval('publish_jobs_id_seq') PRIMARY KEY,
+  asset_id BIGINT NOT NULL,
+  -- the asset's partition key, so the relay finds and updates it in its own month; null for older jobs
+  upload_date TIMESTAMPTZ,
+  content_ref VARCHAR,
+  content_size BIGINT NOT NULL DEFAULT 0,
+  attempts INT NOT NULL DEFAULT 0,
+  locked_until TIMESTAMPTZ,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
 );
+ALTER TABLE publish_jobs ADD COLUMN IF NOT EXISTS upload_date TIMESTAMPTZ;
 
-CREATE INDEX IF NOT EXISTS idx_assets_upload_date ON assets (upload_date DESC);
-CREATE INDEX IF NOT EXISTS idx_assets_filename ON assets (filename);
-CREATE INDEX IF NOT EXISTS idx_assets_status ON assets (status);
\ No newline at end of file
+-- Asset counts per upload day (UTC), content type and status, adjusted by every insert and status transition
+CREATE TABLE IF NOT EXISTS asset_daily_counts (
+  upload_day DATE NOT NULL,
+  content_type VARCHAR NOT NULL,
+  status VARCHAR NOT NULL,
+  asset_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (upload_day, content_type, status)
+);
+
+-- Changes to those counts, appended by the writers and folded into asset_daily_counts by AssetDailyCounts
+CREATE TABLE IF NOT EXISTS asset_count_deltas (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  upload_day DATE NOT NULL,
+  content_type VARCHAR NOT NULL,
+  status VARCHAR NOT NULL,
+  delta BIGINT NOT NULL
+);
+-- Seeded from the existing assets the first time; from then on only maintained incrementally. Deltas appended
+-- before the first fold describe assets the seed already counts, so they are dropped in the same statement
+-- (one snapshot for both): otherwise the next fold would count those assets twice
+WITH seeding AS (
+  SELECT NOT EXISTS (SELECT 1 FROM asset_daily_counts) AS empty
+), counted AS (
+  DELETE FROM asset_count_deltas WHERE (SELECT empty FROM seeding)
+)
+INSERT INTO asset_daily_counts (upload_day, content_type, status, asset_count)
+SELECT (upload_date AT TIME ZONE 'UTC')::date, coalesce(content_type, ''), status, count(*)
+FROM assets
+WHERE (SELECT empty FROM seeding)
+GROUP BY 1, 2, 3;
+
+-- Idempotency-Key of upload requests. asset_id stays null while the first request is in flight, and is set
+-- in the transaction that inserts the asset; the claim expires after assets.idempotency.in-flight-timeout
+-- and the accepted key after assets.idempotency.ttl. fingerprint is the SHA-256 of the metadata the request
+-- declared before its body (filename, content type, length, Content-Digest), which a replay must repeat. Expired rows are purged by IdempotencyKeyStore.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  idem_key VARCHAR(255) PRIMARY KEY,
+  asset_id BIGINT,
+  fingerprint VARCHAR(64),
+  created_at TIMESTAMPTZ NOT NULL,
+  expires_at TIMESTAMPTZ NOT NULL
+);
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS fingerprint VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
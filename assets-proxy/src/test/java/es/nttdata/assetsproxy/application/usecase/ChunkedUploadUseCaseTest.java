@@ -0,0 +1,104 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.domain.port.async.AssetPublisherPort;
+import es.nttdata.assetsproxy.domain.port.spool.UploadSessionPort;
+import es.nttdata.assetsproxy.domain.port.usecase.UploadAssetPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadUseCaseTest {
+
+    @Mock
+    private UploadSessionPort sessions;
+    @Mock
+    private UploadAssetPort uploads;
+    @Mock
+    private AssetPublisherPort publisher;
+
+    private ChunkedUploadUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new ChunkedUploadUseCase(sessions, uploads, publisher);
+    }
+
+    @Test
+    void complete_handsTheAssembledContentOverAsAPendingAsset() throws IOException {
+        AssetContent content = mock(AssetContent.class);
+        when(content.checksum()).thenReturn("abc");
+        when(sessions.find("s1")).thenReturn(Optional.of(session("s1", 5L, 5)));
+        when(sessions.complete("s1", "abc")).thenReturn(content);
+        when(uploads.accept(any(AssetDomain.class))).thenReturn(31L);
+
+        assertEquals(31L, useCase.complete("s1", "abc"));
+
+        ArgumentCaptor<AssetDomain> asset = ArgumentCaptor.forClass(AssetDomain.class);
+        verify(uploads).accept(asset.capture());
+        assertEquals("clip.mp4", asset.getValue().getFilename());
+        assertEquals("video/mp4", asset.getValue().getContentType());
+        assertEquals(5, asset.getValue().getSize());
+        assertEquals(AssetStatus.PENDING, asset.getValue().getStatus());
+        assertSame(content, asset.getValue().getContent());
+        assertEquals("abc", asset.getValue().getContentDigest());
+    }
+
+    @Test
+    void complete_beforeAllTheDeclaredBytesArrived_isRejected() throws IOException {
+        when(sessions.find("s2")).thenReturn(Optional.of(session("s2", 5L, 3)));
+
+        assertThrows(BusinessException.class, () -> useCase.complete("s2", null));
+        verify(sessions, never()).complete(anyString(), any());
+        verifyNoInteractions(uploads);
+    }
+
+    @Test
+    void complete_whenThePublisherIsFull_keepsTheSession() throws IOException {
+        when(sessions.find("s3")).thenReturn(Optional.of(session("s3", null, 5)));
+        doThrow(new PublishCapacityExceededException("full", Duration.ofSeconds(5)))
+                .when(publisher).checkCapacity(any(AssetDomain.class));
+
+        assertThrows(PublishCapacityExceededException.class, () -> useCase.complete("s3", null));
+        verify(sessions, never()).complete(anyString(), any());
+    }
+
+    @Test
+    void append_toAnUnknownSession_isNotFound() throws IOException {
+        when(sessions.find("nope")).thenReturn(Optional.empty());
+
+        assertThrows(UploadSessionNotFoundException.class, () -> useCase.append("nope", 0, null, out -> { }));
+    }
+
+    @Test
+    void create_requiresFilenameContentTypeAndAPositiveSize() {
+        assertThrows(BusinessException.class, () -> useCase.create(" ", "video/mp4", null));
+        assertThrows(BusinessException.class, () -> useCase.create("clip.mp4", null, null));
+        assertThrows(BusinessException.class, () -> useCase.create("clip.mp4", "video/mp4", 0L));
+        assertThrows(BusinessException.class,
+                () -> useCase.create("clip.mp4", "video/mp4", ChunkedUploadUseCase.MAX_SIZE + 1));
+        verifyNoInteractions(sessions);
+    }
+
+    private static UploadSession session(String id, Long size, long offset) {
+        return new UploadSession(id, "clip.mp4", "video/mp4", size, offset, OffsetDateTime.now().plusHours(1));
+    }
+}
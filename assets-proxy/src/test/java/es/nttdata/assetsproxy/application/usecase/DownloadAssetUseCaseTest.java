@@ -0,0 +1,72 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.NoSuchFileException;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadAssetUseCaseTest {
+
+    @Mock
+    private AssetRepositoryPort repository;
+    @Mock
+    private StoragePort storage;
+    @Mock
+    private AssetContent content;
+
+    private DownloadAssetUseCase useCase;
+
+    @BeforeEach
+    void setUp() {
+        useCase = new DownloadAssetUseCase(repository, storage);
+    }
+
+    private static AssetDomain asset(AssetStatus status, String url) {
+        AssetDomain asset = new AssetDomain(7L, "clip.mp4", "video/mp4", 10, url, OffsetDateTime.now(), status);
+        asset.setContentDigest("abc");
+        return asset;
+    }
+
+    @Test
+    void opens_the_stored_content_of_a_completed_asset() throws Exception {
+        when(repository.findById(7L)).thenReturn(Optional.of(asset(AssetStatus.COMPLETED, "videos/ab/cd/clip.mp4")));
+        when(storage.open("videos/ab/cd/clip.mp4", "abc")).thenReturn(content);
+
+        AssetDomain result = useCase.open(7L);
+
+        assertSame(content, result.getContent());
+    }
+
+    @Test
+    void unknown_or_unpublished_assets_are_not_found() {
+        when(repository.findById(7L)).thenReturn(Optional.empty());
+        when(repository.findById(8L)).thenReturn(Optional.of(asset(AssetStatus.UPLOADING, null)));
+
+        assertThrows(AssetNotFoundException.class, () -> useCase.open(7L));
+        assertThrows(AssetNotFoundException.class, () -> useCase.open(8L));
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void content_missing_from_storage_is_not_found() throws Exception {
+        when(repository.findById(7L)).thenReturn(Optional.of(asset(AssetStatus.COMPLETED, "videos/ab/cd/clip.mp4")));
+        when(storage.open("videos/ab/cd/clip.mp4", "abc")).thenThrow(new NoSuchFileException("clip.mp4"));
+
+        assertThrows(AssetNotFoundException.class, () -> useCase.open(7L));
+    }
+}
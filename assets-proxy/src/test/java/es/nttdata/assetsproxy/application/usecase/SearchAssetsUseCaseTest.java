@@ -2,17 +2,22 @@ package es.nttdata.assetsproxy.application.usecase;
 
 import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
 import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SearchCursor;
 import es.nttdata.assetsproxy.domain.model.SortDirection;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.validation.SearchCriteriaValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -75,4 +80,66 @@ class SearchAssetsUseCaseTest {
         assertEquals(1, result.size());
         assertEquals("logo.png", result.getFirst().getFilename());
     }
+
+    @Test
+    void search_page_requires_limit() {
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC);
+
+        assertThrows(BusinessException.class, () -> useCase.searchPage(criteria));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void search_page_rejects_a_zero_limit() {
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC, 0, null);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> useCase.searchPage(criteria));
+        assertEquals("limit must be between 1 and " + SearchCriteriaValidator.MAX_PAGE_SIZE, exception.getMessage());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void search_page_returns_page_with_next_cursor() {
+        SearchCursor next = new SearchCursor(OffsetDateTime.now(), 8L);
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC, 1, null);
+        AssetPage stub = new AssetPage(List.of(
+                new AssetDomain(8L, "logo.png", "image/png", 100, null, next.uploadDate(), AssetStatus.COMPLETED)
+        ), next);
+        when(repository.searchPage(criteria)).thenReturn(stub);
+
+        AssetPage page = useCase.searchPage(criteria);
+        assertEquals(1, page.items().size());
+        assertEquals(next, page.next());
+    }
+
+    @Test
+    void stream_validates_and_delegates_to_repository() {
+        SearchCriteria criteria = new SearchCriteria(null, null, "logo", null, SortDirection.ASC);
+        when(repository.streamSearch(eq(criteria), any())).thenReturn(3L);
+
+        assertEquals(3L, useCase.stream(criteria, asset -> { }));
+    }
+
+    @Test
+    void stream_rejects_invalid_criteria() {
+        SearchCriteria criteria = new SearchCriteria(null, null, " ", null, SortDirection.ASC);
+
+        assertThrows(BusinessException.class, () -> useCase.stream(criteria, asset -> { }));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void count_rejects_an_inverted_range() {
+        assertThrows(BusinessException.class,
+                () -> useCase.count(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void count_delegates_to_the_rollups() {
+        List<AssetCount> counts = List.of(new AssetCount("image/png", AssetStatus.PENDING, 2));
+        when(repository.countByTypeAndStatus(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31))).thenReturn(counts);
+
+        assertEquals(counts, useCase.count(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31)));
+    }
 }
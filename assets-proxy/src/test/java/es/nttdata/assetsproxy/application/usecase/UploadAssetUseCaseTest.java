@@ -1,9 +1,16 @@
 package es.nttdata.assetsproxy.application.usecase;
 
 import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.UploadResult;
 import es.nttdata.assetsproxy.domain.port.async.AssetPublisherPort;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
+import es.nttdata.assetsproxy.domain.port.idempotency.IdempotencyPort;
+import es.nttdata.assetsproxy.domain.port.metrics.UploadMetricsPort;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +19,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -22,12 +35,18 @@ class UploadAssetUseCaseTest {
     private AssetRepositoryPort repository;
     @Mock
     private AssetPublisherPort publisher;
+    @Mock
+    private UploadMetricsPort metrics;
+    @Mock
+    private AssetEventsPort events;
+    @Mock
+    private IdempotencyPort idempotency;
 
     private UploadAssetUseCase useCase;
 
     @BeforeEach
     void setUp() {
-        useCase = new UploadAssetUseCase(repository, publisher);
+        useCase = new UploadAssetUseCase(repository, publisher, metrics, events, idempotency);
     }
 
     @Test
@@ -38,7 +57,7 @@ class UploadAssetUseCaseTest {
         BusinessException ex = assertThrows(BusinessException.class, () -> useCase.accept(asset));
         assertTrue(ex.getMessage().toLowerCase().contains("name is required"));
         verifyNoInteractions(publisher);
-        verify(repository, never()).save(any());
+        verify(repository, never()).save(any(), any());
     }
 
     @Test
@@ -50,36 +69,234 @@ class UploadAssetUseCaseTest {
                 42L, "photo.png", "image/png", 10, null, toSave.getUploadDate(), AssetStatus.PENDING
         );
 
-        when(repository.save(any(AssetDomain.class))).thenReturn(saved);
+        when(repository.save(any(AssetDomain.class), isNull())).thenReturn(saved);
 
         Long id = useCase.accept(toSave);
 
         assertEquals(42L, id);
 
         ArgumentCaptor<AssetDomain> captor = ArgumentCaptor.forClass(AssetDomain.class);
-        verify(repository).save(any(AssetDomain.class));
+        verify(repository).save(any(AssetDomain.class), isNull());
         verify(publisher).publishAsync(captor.capture());
 
         AssetDomain published = captor.getValue();
         assertEquals(42L, published.getId()); // el id del asset en memoria se actualiza tras save
         assertEquals("photo.png", published.getFilename());
+        verify(metrics).accepted(eq(false), anyLong(), eq(1), eq(0));
     }
 
     @Test
-    void wrap_publisher_exception_as_business_exception() {
+    void reject_before_saving_when_publisher_is_saturated() {
+        AssetContent content = mock(AssetContent.class);
         AssetDomain toSave = new AssetDomain(
-                null, "video.mp4", "video/mp4", 20, null, null, AssetStatus.PENDING
-        );
-        AssetDomain saved = new AssetDomain(
-                99L, "video.mp4", "video/mp4", 20, null, toSave.getUploadDate(), AssetStatus.PENDING
+                null, "photo.png", "image/png", 10, null, null, AssetStatus.PENDING
         );
+        toSave.setContent(content);
+        doThrow(new PublishCapacityExceededException("full", Duration.ofSeconds(5)))
+                .when(publisher).checkCapacity(toSave);
+
+        assertThrows(PublishCapacityExceededException.class, () -> useCase.accept(toSave));
+        verify(repository, never()).save(any(), any());
+        verify(publisher, never()).publishAsync(any());
+        verify(content).release();
+    }
+
+    @Test
+    void reuse_published_url_when_content_already_exists() {
+        AssetContent content = mock(AssetContent.class);
+        AssetDomain toSave = new AssetDomain(null, "logo.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        toSave.setContent(content);
+        toSave.setContentDigest("d1");
+        when(repository.findPublishedUrl("d1", 10)).thenReturn(Optional.of("images/logo.png"));
+        when(repository.save(toSave, null)).thenReturn(
+                new AssetDomain(3L, "logo.png", "image/png", 10, "images/logo.png", null, AssetStatus.COMPLETED));
+
+        Long id = useCase.accept(toSave);
+
+        assertEquals(3L, id);
+        assertEquals("images/logo.png", toSave.getUrl());
+        assertEquals(AssetStatus.COMPLETED, toSave.getStatus());
+        verifyNoInteractions(publisher);
+        verify(content).release();
+        verify(metrics).contentLookup(true, 10);
+        verify(events).statusChanged(toSave, null, AssetStatus.COMPLETED, "images/logo.png");
+        assertEquals(3L, toSave.getId());
+    }
+
+    @Test
+    void publish_when_content_was_not_published_before() {
+        AssetDomain toSave = new AssetDomain(null, "logo.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        toSave.setContentDigest("d1");
+        when(repository.findPublishedUrl("d1", 10)).thenReturn(Optional.empty());
+        when(repository.save(toSave, null)).thenReturn(
+                new AssetDomain(4L, "logo.png", "image/png", 10, null, null, AssetStatus.PENDING));
+
+        useCase.accept(toSave);
+
+        verify(publisher).checkCapacity(toSave);
+        verify(publisher).publishAsync(toSave);
+        verify(metrics).contentLookup(false, 10);
+    }
+
+    @Test
+    void acceptAll_looks_up_each_digest_once() {
+        AssetDomain first = new AssetDomain(null, "a.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        AssetDomain copy = new AssetDomain(null, "b.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        first.setContentDigest("d1");
+        copy.setContentDigest("d1");
+        when(repository.findPublishedUrl("d1", 10)).thenReturn(Optional.of("images/a.png"));
+        when(repository.saveAll(List.of(first, copy))).thenReturn(List.of(
+                new AssetDomain(1L, "a.png", "image/png", 10, "images/a.png", null, AssetStatus.COMPLETED),
+                new AssetDomain(2L, "b.png", "image/png", 10, "images/a.png", null, AssetStatus.COMPLETED)));
+
+        List<UploadResult> results = useCase.acceptAll(List.of(first, copy));
+
+        assertEquals(List.of(UploadResult.accepted(1L), UploadResult.accepted(2L)), results);
+        verify(repository, times(1)).findPublishedUrl("d1", 10);
+        verify(metrics, times(2)).contentLookup(true, 10);
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void acceptAll_saves_valid_assets_in_one_batch_and_reports_each() {
+        AssetContent blankContent = mock(AssetContent.class);
+        AssetDomain first = new AssetDomain(null, "a.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        AssetDomain blank = new AssetDomain(null, " ", "image/png", 10, null, null, AssetStatus.PENDING);
+        blank.setContent(blankContent);
+        AssetDomain second = new AssetDomain(null, "b.mp4", "video/mp4", 20, null, null, AssetStatus.PENDING);
+        when(repository.saveAll(List.of(first, second))).thenReturn(List.of(
+                new AssetDomain(1L, "a.png", "image/png", 10, null, null, AssetStatus.PENDING),
+                new AssetDomain(2L, "b.mp4", "video/mp4", 20, null, null, AssetStatus.PENDING)));
+
+        List<UploadResult> results = useCase.acceptAll(List.of(first, blank, second));
+
+        assertEquals(UploadResult.accepted(1L), results.get(0));
+        assertEquals(UploadResult.rejected("Asset name is required"), results.get(1));
+        assertEquals(UploadResult.accepted(2L), results.get(2));
+        verify(repository, never()).save(any(), any());
+        verify(publisher).publishAsync(first);
+        verify(publisher).publishAsync(second);
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        verify(blankContent).release();
+    }
+
+    @Test
+    void acceptAll_rejects_items_over_capacity_without_saving_them() {
+        AssetContent content = mock(AssetContent.class);
+        AssetDomain fits = new AssetDomain(null, "a.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        AssetDomain over = new AssetDomain(null, "b.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        over.setContent(content);
+        doNothing().doThrow(new PublishCapacityExceededException("Publish queue is full", Duration.ofSeconds(3)))
+                .when(publisher).checkCapacity(any(AssetDomain.class));
+        when(repository.saveAll(List.of(fits))).thenReturn(List.of(
+                new AssetDomain(5L, "a.png", "image/png", 10, null, null, AssetStatus.PENDING)));
+
+        List<UploadResult> results = useCase.acceptAll(List.of(fits, over));
 
-        when(repository.save(any(AssetDomain.class))).thenReturn(saved);
-        doThrow(new RuntimeException("downstream unavailable"))
-                .when(publisher).publishAsync(any(AssetDomain.class));
+        assertTrue(results.get(0).isAccepted());
+        assertFalse(results.get(1).isAccepted());
+        assertTrue(results.get(1).error().contains("retry after 3s"));
+        verify(content).release();
+        verify(publisher, never()).publishAsync(over);
+    }
+
+    private static final List<String> METADATA = Arrays.asList("photo.png", "image/png", "10", null);
+
+    @Test
+    void accept_with_a_replayed_idempotency_key_returns_the_first_id_without_reading_the_body() {
+        when(idempotency.find("k1", UploadAssetUseCase.fingerprint(METADATA))).thenReturn(Optional.of(9L));
+        @SuppressWarnings("unchecked")
+        Supplier<AssetDomain> body = mock(Supplier.class);
+
+        Long id = useCase.accept("k1", METADATA, body);
+
+        assertEquals(9L, id);
+        verifyNoInteractions(body, repository, publisher);
+        verify(idempotency, never()).claim(anyString(), anyString());
+    }
+
+    @Test
+    void accept_when_the_key_is_accepted_after_the_lookup_returns_that_id_and_drops_the_body() {
+        AssetContent content = mock(AssetContent.class);
+        AssetDomain replay = new AssetDomain(null, "photo.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        replay.setContent(content);
+        when(idempotency.find(eq("k1"), anyString())).thenReturn(Optional.empty());
+        when(idempotency.claim(eq("k1"), anyString())).thenReturn(Optional.of(9L));
 
-        BusinessException ex = assertThrows(BusinessException.class, () -> useCase.accept(toSave));
-        assertTrue(ex.getMessage().toLowerCase().contains("publisher rejected the asset downstream"));
-        verify(repository).save(any(AssetDomain.class));
+        assertEquals(9L, useCase.accept("k1", METADATA, () -> replay));
+        verify(content).release();
+        verifyNoInteractions(repository, publisher);
+    }
+
+    @Test
+    void accept_with_a_new_idempotency_key_saves_the_asset_under_it() {
+        AssetDomain toSave = new AssetDomain(null, "photo.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        String fingerprint = UploadAssetUseCase.fingerprint(METADATA);
+        when(idempotency.find("k2", fingerprint)).thenReturn(Optional.empty());
+        when(idempotency.claim("k2", fingerprint)).thenReturn(Optional.empty());
+        when(repository.save(toSave, "k2")).thenReturn(
+                new AssetDomain(12L, "photo.png", "image/png", 10, null, null, AssetStatus.PENDING));
+
+        assertEquals(12L, useCase.accept("k2", METADATA, () -> toSave));
+        verify(idempotency, never()).release(anyString());
+    }
+
+    @Test
+    void accept_releases_the_idempotency_key_when_the_upload_fails() {
+        AssetDomain toSave = new AssetDomain(null, "photo.png", "image/png", 10, null, null, AssetStatus.PENDING);
+        when(idempotency.find(eq("k3"), anyString())).thenReturn(Optional.empty());
+        when(idempotency.claim(eq("k3"), anyString())).thenReturn(Optional.empty());
+        when(repository.save(toSave, "k3")).thenThrow(new IllegalStateException("Insert coalescer is shut down"));
+
+        assertThrows(IllegalStateException.class, () -> useCase.accept("k3", METADATA, () -> toSave));
+        verify(idempotency).release("k3");
+    }
+
+    @Test
+    void accept_does_not_claim_the_idempotency_key_of_an_invalid_upload() {
+        when(idempotency.find(eq("k4"), anyString())).thenReturn(Optional.empty());
+
+        assertThrows(BusinessException.class, () -> useCase.accept("k4", METADATA,
+                () -> new AssetDomain(null, " ", "image/png", 10, null, null, AssetStatus.PENDING)));
+        verify(idempotency, never()).claim(anyString(), anyString());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void accept_refuses_an_idempotency_key_reused_for_another_upload_without_reading_it() {
+        List<String> other = Arrays.asList("other.png", "image/png", "10", null);
+        when(idempotency.find("k5", UploadAssetUseCase.fingerprint(other)))
+                .thenThrow(new IdempotencyMismatchException("Idempotency-Key k5 was used for a different upload"));
+        @SuppressWarnings("unchecked")
+        Supplier<AssetDomain> body = mock(Supplier.class);
+
+        assertThrows(IdempotencyMismatchException.class, () -> useCase.accept("k5", other, body));
+        verifyNoInteractions(body, repository);
+        verify(idempotency, never()).release(anyString());
+    }
+
+    @Test
+    void fingerprint_tells_requests_apart_by_their_declared_metadata() {
+        List<String> same = Arrays.asList("photo.png", "image/png", "10", null);
+        List<String> otherLength = Arrays.asList("photo.png", "image/png", "11", null);
+        List<String> shifted = Arrays.asList("photo.png", "image/png10", "", null);
+
+        assertEquals(UploadAssetUseCase.fingerprint(METADATA), UploadAssetUseCase.fingerprint(same));
+        assertNotEquals(UploadAssetUseCase.fingerprint(METADATA), UploadAssetUseCase.fingerprint(otherLength));
+        assertNotEquals(UploadAssetUseCase.fingerprint(METADATA), UploadAssetUseCase.fingerprint(shifted));
+        assertEquals(64, UploadAssetUseCase.fingerprint(METADATA).length());
+    }
+
+    @Test
+    void accept_rejects_an_oversized_idempotency_key() {
+        assertThrows(BusinessException.class, () -> useCase.accept("k".repeat(256), METADATA, () -> null));
+        verifyNoInteractions(idempotency);
+    }
+
+    @Test
+    void acceptAll_requires_at_least_one_asset() {
+        assertThrows(BusinessException.class, () -> useCase.acceptAll(List.of()));
+        verifyNoInteractions(repository, publisher);
     }
 }
@@ -0,0 +1,108 @@
+package es.nttdata.assetsproxy.application.usecase;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.infrastructure.adapter.events.InMemoryAssetEventsAdapter;
+import es.nttdata.assetsproxy.infrastructure.adapter.events.PostgresEventRelay;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WatchAssetsUseCaseTest {
+
+    private final InMemoryAssetEventsAdapter events = new InMemoryAssetEventsAdapter(16, mock(PostgresEventRelay.class));
+    private final AssetRepositoryPort repository = mock(AssetRepositoryPort.class);
+
+    @Test
+    void watch_byAsset_replaysItsRetainedChanges_andEndsOnceItIsFinal() {
+        changed(1L, "image/png", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        changed(2L, "image/png", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        changed(1L, "image/png", AssetStatus.UPLOADING, AssetStatus.COMPLETED);
+        List<AssetStatusEvent> sent = new ArrayList<>();
+
+        long count = useCase(Duration.ofSeconds(10)).watch(new StatusWatch(null, null, 1L, null), sent::add, () -> { }, () -> { });
+
+        assertEquals(2, count);
+        assertEquals(List.of(1L, 3L), sent.stream().map(AssetStatusEvent::id).toList());
+    }
+
+    @Test
+    void watch_resumesAfterTheLastEventId_andFiltersByContentType() {
+        changed(1L, "image/png", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        changed(2L, "video/mp4", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        changed(3L, "IMAGE/PNG", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        List<AssetStatusEvent> sent = new ArrayList<>();
+
+        useCase(Duration.ofMillis(50)).watch(new StatusWatch(events.epoch(), 1L, null, "image/png"), sent::add, () -> { }, () -> { });
+
+        assertEquals(List.of(3L), sent.stream().map(AssetStatusEvent::assetId).toList());
+    }
+
+    @Test
+    void watch_withoutLastEventId_onlySendsNewChanges_andHeartbeatsWhileIdle() {
+        changed(1L, "image/png", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        AtomicInteger heartbeats = new AtomicInteger();
+        WatchAssetsUseCase useCase = new WatchAssetsUseCase(events, repository, Duration.ofMillis(200), Duration.ofMillis(20));
+
+        long count = useCase.watch(new StatusWatch(null, null, null, null), event -> { }, heartbeats::incrementAndGet, () -> { });
+
+        assertEquals(0, count);
+        assertTrue(heartbeats.get() >= 3, "heartbeats: " + heartbeats.get());
+    }
+
+    @Test
+    void watch_rejectsANegativeLastEventId() {
+        assertThrows(BusinessException.class,
+                () -> useCase(Duration.ofSeconds(1)).watch(new StatusWatch(events.epoch(), -1L, null, null), event -> { }, () -> { }, () -> { }));
+    }
+
+    @Test
+    void watch_fromAnotherEpoch_asksTheClientToResync_andFollowsLiveChanges() {
+        changed(1L, "image/png", AssetStatus.PENDING, AssetStatus.UPLOADING);
+        AtomicInteger resyncs = new AtomicInteger();
+        List<AssetStatusEvent> sent = new ArrayList<>();
+
+        useCase(Duration.ofMillis(50)).watch(new StatusWatch("other", 0L, null, null), sent::add, () -> { },
+                resyncs::incrementAndGet);
+
+        assertEquals(1, resyncs.get());
+        assertTrue(sent.isEmpty(), "changes before the resync are not replayed");
+    }
+
+    @Test
+    void watch_byAsset_whenItIsAlreadyFinished_sendsItsStatus_andEnds() {
+        when(repository.findById(9L)).thenReturn(Optional.of(
+                new AssetDomain(9L, "a.png", "image/png", 1, "images/a.png", null, AssetStatus.COMPLETED)));
+        List<AssetStatusEvent> sent = new ArrayList<>();
+
+        long count = useCase(Duration.ofSeconds(10)).watch(new StatusWatch(null, null, 9L, null), sent::add, () -> { }, () -> { });
+
+        assertEquals(1, count);
+        assertEquals(AssetStatus.COMPLETED, sent.getFirst().to());
+        assertNull(sent.getFirst().from());
+        assertEquals("images/a.png", sent.getFirst().url());
+    }
+
+    private WatchAssetsUseCase useCase(Duration maxDuration) {
+        return new WatchAssetsUseCase(events, repository, maxDuration, Duration.ofSeconds(15));
+    }
+
+    private void changed(Long id, String contentType, AssetStatus from, AssetStatus to) {
+        events.statusChanged(new AssetDomain(id, "a.png", contentType, 1, null, null, from), from, to, null);
+    }
+}
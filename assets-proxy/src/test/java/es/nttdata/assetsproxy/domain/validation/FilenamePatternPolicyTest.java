@@ -0,0 +1,63 @@
+package es.nttdata.assetsproxy.domain.validation;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilenamePatternPolicyTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"banner", "^img_\\d+\\.(png|jpe?g)$", "(ab)+c", "a+b*", "[(a+)]+", "(a{2,5})+", "x(a+)?y"})
+    void acceptsOrdinaryExpressions(String pattern) {
+        assertDoesNotThrow(() -> FilenamePatternPolicy.check(pattern));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(a+)+", "(a*)*b", "((ab+))*", "(x{3,})+", "(\\w+\\s?)*$"})
+    void rejectsNestedUnboundedQuantifiers(String pattern) {
+        BusinessException ex = assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check(pattern));
+        assertTrue(ex.getMessage().contains("nest unbounded quantifiers"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a++", "a*+b", "x{2}+", "\\p{L}+", "\\bword", "\\Qa.b\\E", "(?<name>ab)", "(?i)logo",
+            "(?>ab)", "[a-z&&[^x]]", "[[:alpha:]]", "[\\W]"})
+    void rejectsSyntaxThePostgresEngineDoesNotShare(String pattern) {
+        BusinessException ex = assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check(pattern));
+        assertTrue(ex.getMessage().startsWith("filename pattern must"), ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a+?b", "\\d{2,4}\\.png", "(?:ab)+c", "img(?=_)", "(?<!x)y", "[]a]", "[\\d_-]", "\\.\\$", "(a+){2}"})
+    void acceptsTheSharedSyntax(String pattern) {
+        assertDoesNotThrow(() -> FilenamePatternPolicy.check(pattern));
+    }
+
+    @Test
+    void rejectsBackreferences() {
+        BusinessException ex = assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check("(a)\\1"));
+        assertTrue(ex.getMessage().contains("backreferences"));
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        BusinessException ex = assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check("img[0-9"));
+        assertTrue(ex.getMessage().startsWith("filename must be a valid regular expression"));
+    }
+
+    @Test
+    void rejectsOverlongExpressions() {
+        assertThrows(BusinessException.class,
+                () -> FilenamePatternPolicy.check("a".repeat(FilenamePatternPolicy.MAX_LENGTH + 1)));
+    }
+
+    @Test
+    void cachedVerdictsAreStable() {
+        assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check("(a+)+"));
+        assertThrows(BusinessException.class, () -> FilenamePatternPolicy.check("(a+)+"));
+        assertDoesNotThrow(() -> FilenamePatternPolicy.check(null));
+    }
+}
@@ -62,6 +62,16 @@ class SearchCriteriaValidatorTest {
         assertEquals("Filename must not be empty or blank", exception.getMessage());
     }
 
+    @Test
+    void shouldFail_whenFilenamePatternIsPathological() {
+        when(criteria.filenamePattern()).thenReturn("(a+)+$");
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> SearchCriteriaValidator.validate(criteria));
+
+        assertEquals("filename pattern must not nest unbounded quantifiers", exception.getMessage());
+    }
+
     @Test
     void shouldFail_whenFiletypeIsBlank() {
         when(criteria.filetype()).thenReturn("");
@@ -83,4 +93,14 @@ class SearchCriteriaValidatorTest {
 
         assertEquals("uploadDateStart must be strictly before uploadDateEnd", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFail_whenLimitIsOutOfRange() {
+        when(criteria.limit()).thenReturn(SearchCriteriaValidator.MAX_PAGE_SIZE + 1);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> SearchCriteriaValidator.validate(criteria));
+
+        assertEquals("limit must be between 1 and " + SearchCriteriaValidator.MAX_PAGE_SIZE, exception.getMessage());
+    }
+}
@@ -0,0 +1,80 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.async;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import es.nttdata.assetsproxy.infrastructure.adapter.repository.PublishOutbox;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.PublishJobJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * The relay against the real outbox, with the queue stubbed to turn jobs away.
+ */
+@SpringBootTest(classes = AssetsProxyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class AsyncAssetPublisherAdapterITTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private AssetRepositoryPort repository;
+    @Autowired
+    private PublishOutbox outbox;
+    @Autowired
+    private PublishJobJpaRepository jobRepository;
+    @Autowired
+    private ContentSpoolPort spool;
+    @Autowired
+    private StoragePort storage;
+    @Autowired
+    private AssetEventsPort events;
+
+    private final PublishQueue queue = mock(PublishQueue.class);
+    private AsyncAssetPublisherAdapter publisher;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository.deleteAll();
+        when(queue.remainingCapacity()).thenReturn(10);
+        publisher = new AsyncAssetPublisherAdapter(repository, queue, storage, outbox, spool,
+                new SimpleMeterRegistry(), events, 10, Duration.ofSeconds(1), MAX_ATTEMPTS);
+    }
+
+    @Test
+    void job_turnedAwayMoreThanMaxAttemptsTimes_isStillPublished() throws Exception {
+        AssetDomain asset = new AssetDomain(null, "big.png", "image/png", 3, null, OffsetDateTime.now(), AssetStatus.PENDING);
+        asset.setContent(spool.spool(out -> out.write(new byte[]{1, 2, 3})));
+        Long id = repository.save(asset).getId();
+
+        doThrow(new PublishCapacityExceededException("Publish byte budget exhausted", Duration.ofSeconds(1)))
+                .when(queue).submit(anyLong(), any(Runnable.class));
+        for (int i = 0; i <= MAX_ATTEMPTS + 1; i++) {
+            assertEquals(0, publisher.drain());
+        }
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return null;
+        }).when(queue).submit(anyLong(), any(Runnable.class));
+
+        assertEquals(1, publisher.drain());
+        assertEquals(AssetStatus.COMPLETED, repository.findById(id).orElseThrow().getStatus());
+    }
+}
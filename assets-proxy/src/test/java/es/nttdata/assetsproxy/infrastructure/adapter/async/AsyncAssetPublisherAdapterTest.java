@@ -1,8 +1,16 @@
 package es.nttdata.assetsproxy.infrastructure.adapter.async;
 
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.events.AssetEventsPort;
 import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.domain.port.storage.StoragePort;
+import es.nttdata.assetsproxy.infrastructure.adapter.repository.PublishOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +18,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -18,36 +34,60 @@ class AsyncAssetPublisherAdapterTest {
 
     @Mock
     private AssetRepositoryPort repository;
+    @Mock
+    private PublishQueue queue;
+    @Mock
+    private StoragePort storage;
+    @Mock
+    private PublishOutbox outbox;
+    @Mock
+    private ContentSpoolPort spool;
+    @Mock
+    private AssetEventsPort events;
+
+    private static final OffsetDateTime UPLOADED = OffsetDateTime.parse("2025-11-03T10:15:30Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
     private AsyncAssetPublisherAdapter adapter;
 
     @BeforeEach
-    void setUp() {
-        adapter = new AsyncAssetPublisherAdapter(repository);
+    void setUp() throws IOException {
+        adapter = new AsyncAssetPublisherAdapter(repository, queue, storage, outbox, spool, registry, events, 50, Duration.ofSeconds(1), 3);
+        lenient().when(repository.transition(anyLong(), any(), eq(AssetStatus.PENDING), eq(AssetStatus.UPLOADING), isNull()))
+                .thenReturn(true);
+        lenient().when(storage.store(anyString(), any(AssetContent.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private static AssetContent content(long size) {
+        AssetContent content = mock(AssetContent.class);
+        when(content.size()).thenReturn(size);
+        return content;
     }
 
     @Test
     void publishAsync_whenContentIsNull_marksAsFailed() {
         AssetDomain asset = mock(AssetDomain.class);
         when(asset.getId()).thenReturn(123L);
-        when(asset.getFileBytes()).thenReturn(null);
+        when(asset.getContent()).thenReturn(null);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStatus(123L, AssetStatus.FAILED);
-        verify(repository, never()).updateStorageUrl(anyLong(), anyString());
+        verify(repository).transition(123L, null, AssetStatus.PENDING, AssetStatus.FAILED, null);
+        verify(repository, never()).transition(anyLong(), any(), any(), eq(AssetStatus.COMPLETED), any());
     }
 
     @Test
     void publishAsync_whenContentIsEmpty_marksAsFailed() {
         AssetDomain asset = mock(AssetDomain.class);
         when(asset.getId()).thenReturn(456L);
-        when(asset.getFileBytes()).thenReturn(new byte[0]);
+        AssetContent content = content(0);
+        when(asset.getContent()).thenReturn(content);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStatus(456L, AssetStatus.FAILED);
-        verify(repository, never()).updateStorageUrl(anyLong(), anyString());
+        verify(repository).transition(456L, null, AssetStatus.PENDING, AssetStatus.FAILED, null);
+        verify(repository, never()).transition(anyLong(), any(), any(), eq(AssetStatus.COMPLETED), any());
     }
 
     @Test
@@ -56,14 +96,14 @@ class AsyncAssetPublisherAdapterTest {
         when(asset.getId()).thenReturn(1L);
 
         when(asset.getFilename()).thenReturn("..\\sub/../My Image.JPG");
-        when(asset.getFileBytes()).thenReturn(new byte[]{1,2,3});
+        AssetContent content = content(3);
+        when(asset.getContent()).thenReturn(content);
 
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStorageUrl(eq(1L), urlCaptor.capture());
-        verify(repository).updateStatus(1L, AssetStatus.COMPLETED);
+        verify(repository).transition(eq(1L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), urlCaptor.capture());
 
         String url = urlCaptor.getValue();
 
@@ -76,14 +116,14 @@ class AsyncAssetPublisherAdapterTest {
         AssetDomain asset = mock(AssetDomain.class);
         when(asset.getId()).thenReturn(2L);
         when(asset.getFilename()).thenReturn("clip.MP4");
-        when(asset.getFileBytes()).thenReturn(new byte[]{9,9,9});
+        AssetContent content = content(3);
+        when(asset.getContent()).thenReturn(content);
 
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStorageUrl(eq(2L), urlCaptor.capture());
-        verify(repository).updateStatus(2L, AssetStatus.COMPLETED);
+        verify(repository).transition(eq(2L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), urlCaptor.capture());
 
         String url = urlCaptor.getValue();
         assertTrue(url.toLowerCase().contains("videos"));
@@ -96,12 +136,13 @@ class AsyncAssetPublisherAdapterTest {
         AssetDomain asset = mock(AssetDomain.class);
         when(asset.getId()).thenReturn(3L);
         when(asset.getFilename()).thenReturn("readme.pdf");
-        when(asset.getFileBytes()).thenReturn(new byte[]{1});
+        AssetContent content = content(1);
+        when(asset.getContent()).thenReturn(content);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStatus(3L, AssetStatus.FAILED);
-        verify(repository, never()).updateStorageUrl(anyLong(), anyString());
+        verify(repository).transition(3L, null, AssetStatus.UPLOADING, AssetStatus.FAILED, null);
+        verify(repository, never()).transition(anyLong(), any(), any(), eq(AssetStatus.COMPLETED), any());
     }
 
     @Test
@@ -110,14 +151,14 @@ class AsyncAssetPublisherAdapterTest {
         when(asset.getId()).thenReturn(10L);
         when(asset.getContentType()).thenReturn("image/png");
         when(asset.getFilename()).thenReturn("whatever.dat");
-        when(asset.getFileBytes()).thenReturn(new byte[]{1});
+        AssetContent content = content(1);
+        when(asset.getContent()).thenReturn(content);
 
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStorageUrl(eq(10L), urlCaptor.capture());
-        verify(repository).updateStatus(10L, AssetStatus.COMPLETED);
+        verify(repository).transition(eq(10L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), urlCaptor.capture());
 
         String url = urlCaptor.getValue();
         assertTrue(url.toLowerCase().contains("images"));
@@ -130,16 +171,242 @@ class AsyncAssetPublisherAdapterTest {
         when(asset.getId()).thenReturn(11L);
         when(asset.getContentType()).thenReturn("video/mp4");
         when(asset.getFilename()).thenReturn("something.unknown");
-        when(asset.getFileBytes()).thenReturn(new byte[]{2});
+        AssetContent content = content(1);
+        when(asset.getContent()).thenReturn(content);
 
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        adapter.publishAsync(asset);
+        adapter.publish(asset);
 
-        verify(repository).updateStorageUrl(eq(11L), urlCaptor.capture());
-        verify(repository).updateStatus(11L, AssetStatus.COMPLETED);
+        verify(repository).transition(eq(11L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), urlCaptor.capture());
 
         String url = urlCaptor.getValue();
         assertTrue(url.toLowerCase().contains("videos"));
     }
+
+    @Test
+    void publishAsync_releasesContentOnceFinished() {
+        AssetContent content = content(3);
+        AssetDomain asset = mock(AssetDomain.class);
+        when(asset.getId()).thenReturn(12L);
+        when(asset.getFilename()).thenReturn("logo.png");
+        when(asset.getContent()).thenReturn(content);
+
+        adapter.publish(asset);
+
+        verify(repository).transition(eq(12L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), anyString());
+        verify(content).release();
+    }
+
+    @Test
+    void publishAsync_whenTheRepositoryIsOverloaded_keepsTheContentForTheRetry() {
+        AssetContent content = content(3);
+        AssetDomain asset = mock(AssetDomain.class);
+        when(asset.getId()).thenReturn(13L);
+        when(asset.getFilename()).thenReturn("logo.png");
+        when(asset.getContent()).thenReturn(content);
+        when(repository.transition(eq(13L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), anyString()))
+                .thenThrow(new RepositoryOverloadedException("busy", Duration.ofSeconds(1)));
+
+        assertThrows(RepositoryOverloadedException.class, () -> adapter.publish(asset));
+
+        verify(repository, never()).transition(anyLong(), any(), any(), eq(AssetStatus.FAILED), any());
+        verify(content, never()).release();
+    }
+
+    @Test
+    void drain_claimsWhatTheQueueHasRoomFor_andSubmitsJobsSizedByContent() {
+        when(queue.remainingCapacity()).thenReturn(2);
+        when(outbox.claim(2)).thenReturn(List.of(
+                new PublishOutbox.Job(1L, 10L, null, "a.content", 42, 1),
+                new PublishOutbox.Job(2L, 11L, null, "b.content", 7, 1)));
+
+        assertEquals(2, adapter.drain());
+
+        verify(queue).submit(eq(42L), any(Runnable.class));
+        verify(queue).submit(eq(7L), any(Runnable.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void drain_whenQueueIsFull_claimsNothing() {
+        when(queue.remainingCapacity()).thenReturn(0);
+
+        assertEquals(0, adapter.drain());
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void drain_whenQueueRejectsAJob_handsOnlyThatOneBack() {
+        when(queue.remainingCapacity()).thenReturn(10);
+        when(outbox.claim(10)).thenReturn(List.of(
+                new PublishOutbox.Job(1L, 10L, null, "a.content", 42, 1),
+                new PublishOutbox.Job(2L, 11L, null, "b.content", 1 << 30, 1),
+                new PublishOutbox.Job(3L, 12L, null, "c.content", 7, 1)));
+        doAnswer(inv -> {
+            if (inv.<Long>getArgument(0) > 1000) {
+                throw new PublishCapacityExceededException("Publish byte budget exhausted", Duration.ofSeconds(5));
+            }
+            return null;
+        }).when(queue).submit(anyLong(), any(Runnable.class));
+
+        assertEquals(0, adapter.drain());
+        verify(outbox).release(2L);
+        verify(outbox, never()).release(1L);
+        verify(outbox, never()).release(3L);
+        verify(queue).submit(eq(7L), any(Runnable.class));
+    }
+
+    @Test
+    void process_reopensRetainedContent_publishes_andCompletesTheJob() throws IOException {
+        AssetContent content = content(3);
+        AssetDomain asset = new AssetDomain(20L, "logo.png", "image/png", 3, null, UPLOADED, AssetStatus.PENDING);
+        asset.setContentDigest("d1");
+        when(repository.findById(20L, UPLOADED)).thenReturn(Optional.of(asset));
+        when(spool.reopen("a.content", "d1")).thenReturn(content);
+
+        adapter.process(new PublishOutbox.Job(5L, 20L, UPLOADED, "a.content", 3, 1));
+
+        verify(repository).transition(eq(20L), eq(UPLOADED), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), anyString());
+        verify(content).release();
+        verify(outbox).complete(5L);
+        assertEquals(1, registry.get("assets.status.transitions")
+                .tags("from", "PENDING", "to", "UPLOADING").counter().count());
+        verify(events).statusChanged(asset, AssetStatus.PENDING, AssetStatus.UPLOADING, null);
+        // the conditional update to COMPLETED lost (unstubbed): nothing to announce
+        verify(events, never()).statusChanged(any(), eq(AssetStatus.UPLOADING), any(), any());
+        assertEquals(1, registry.get("assets.publish")
+                .tags("type", "image", "size", "lt64KB", "outcome", "completed").timer().count());
+    }
+
+    @Test
+    void sizeBucket_splitsAtPowersOfTwo() {
+        assertEquals("lt64KB", AsyncAssetPublisherAdapter.sizeBucket(0));
+        assertEquals("lt1MB", AsyncAssetPublisherAdapter.sizeBucket(64 * 1024));
+        assertEquals("lt16MB", AsyncAssetPublisherAdapter.sizeBucket(1024 * 1024));
+        assertEquals("ge256MB", AsyncAssetPublisherAdapter.sizeBucket(256L * 1024 * 1024));
+    }
+
+    @Test
+    void process_whenAWorkerDiedMidUpload_resumesFromUploading() throws IOException {
+        AssetContent content = content(3);
+        AssetDomain asset = new AssetDomain(21L, "logo.png", "image/png", 3, null, null, AssetStatus.UPLOADING);
+        when(repository.findById(21L, UPLOADED)).thenReturn(Optional.of(asset));
+        when(spool.reopen("a.content", null)).thenReturn(content);
+
+        adapter.process(new PublishOutbox.Job(6L, 21L, UPLOADED, "a.content", 3, 2));
+
+        verify(repository, never()).transition(21L, asset.getUploadDate(), AssetStatus.PENDING, AssetStatus.UPLOADING, null);
+        verify(repository).transition(eq(21L), any(), eq(AssetStatus.UPLOADING), eq(AssetStatus.COMPLETED), anyString());
+        verify(outbox).complete(6L);
+    }
+
+    @Test
+    void process_whenAssetIsAlreadyFinished_onlyCleansUp() throws IOException {
+        AssetContent content = mock(AssetContent.class);
+        AssetDomain asset = new AssetDomain(22L, "logo.png", "image/png", 3, "images/logo.png", null, AssetStatus.COMPLETED);
+        when(repository.findById(22L, UPLOADED)).thenReturn(Optional.of(asset));
+        when(spool.reopen("a.content", null)).thenReturn(content);
+
+        adapter.process(new PublishOutbox.Job(7L, 22L, UPLOADED, "a.content", 3, 2));
+
+        verify(repository, never()).transition(anyLong(), any(), any(), any(), any());
+        verifyNoInteractions(storage);
+        verify(content).release();
+        verify(outbox).complete(7L);
+    }
+
+    @Test
+    void process_afterTooManyAttempts_failsTheAsset() throws IOException {
+        AssetDomain asset = new AssetDomain(23L, "logo.png", "image/png", 3, null, null, AssetStatus.UPLOADING);
+        when(repository.findById(23L, UPLOADED)).thenReturn(Optional.of(asset));
+        when(spool.reopen("a.content", null)).thenThrow(new IOException("gone"));
+
+        adapter.process(new PublishOutbox.Job(8L, 23L, UPLOADED, "a.content", 3, 4));
+
+        verify(repository).transition(23L, asset.getUploadDate(), AssetStatus.UPLOADING, AssetStatus.FAILED, null);
+        verifyNoInteractions(storage);
+        verify(outbox).complete(8L);
+    }
+
+    @Test
+    void process_whenTheDatabaseFails_leavesTheJobForItsLeaseToExpire() {
+        when(repository.findById(24L, UPLOADED)).thenThrow(new IllegalStateException("connection refused"));
+
+        adapter.process(new PublishOutbox.Job(9L, 24L, UPLOADED, "a.content", 3, 1));
+
+        verify(outbox, never()).complete(anyLong());
+    }
+
+    @Test
+    void process_whenTheRepositoryIsOverloaded_handsTheJobBackWithoutFailingTheAsset() throws IOException {
+        AssetContent content = content(3);
+        AssetDomain asset = new AssetDomain(25L, "logo.png", "image/png", 3, null, UPLOADED, AssetStatus.PENDING);
+        RepositoryOverloadedException overloaded = new RepositoryOverloadedException("busy", Duration.ofSeconds(1));
+        when(repository.findById(25L, UPLOADED)).thenThrow(overloaded).thenReturn(Optional.of(asset));
+        when(spool.reopen("a.content", null)).thenReturn(content);
+        when(repository.transition(25L, UPLOADED, AssetStatus.PENDING, AssetStatus.UPLOADING, null)).thenThrow(overloaded);
+
+        // shed on the lookup, then on the first transition; each release gives the attempt back
+        adapter.process(new PublishOutbox.Job(10L, 25L, UPLOADED, "a.content", 3, 1));
+        adapter.process(new PublishOutbox.Job(10L, 25L, UPLOADED, "a.content", 3, 1));
+
+        verify(outbox, times(2)).release(10L);
+        verify(outbox, never()).complete(anyLong());
+        verify(repository, never()).transition(anyLong(), any(), any(), eq(AssetStatus.FAILED), any());
+        verify(content, never()).release();
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void publishAsync_onlyWakesTheRelay() {
+        adapter.publishAsync(mock(AssetDomain.class));
+
+        verifyNoInteractions(queue, outbox, repository, storage);
+    }
+
+    @Test
+    void publishAsync_whenAssetIsNoLongerPending_skipsPublish() {
+        AssetContent content = content(3);
+        AssetDomain asset = mock(AssetDomain.class);
+        when(asset.getId()).thenReturn(13L);
+        when(asset.getContent()).thenReturn(content);
+        when(repository.transition(13L, null, AssetStatus.PENDING, AssetStatus.UPLOADING, null)).thenReturn(false);
+
+        adapter.publish(asset);
+
+        verify(repository).transition(13L, null, AssetStatus.PENDING, AssetStatus.UPLOADING, null);
+        verifyNoMoreInteractions(repository);
+        verify(content).release();
+    }
+
+    @Test
+    void publishAsync_storesContentAndCompletesWithItsLocation() throws IOException {
+        AssetContent content = content(3);
+        AssetDomain asset = mock(AssetDomain.class);
+        when(asset.getId()).thenReturn(14L);
+        when(asset.getFilename()).thenReturn("logo.png");
+        when(asset.getContent()).thenReturn(content);
+        when(storage.store(anyString(), eq(content))).thenReturn("images/ab/cd/logo.png");
+
+        adapter.publish(asset);
+
+        verify(storage).store(argThat(key -> key.startsWith("images/") && key.endsWith("-logo.png")), eq(content));
+        verify(repository).transition(14L, null, AssetStatus.UPLOADING, AssetStatus.COMPLETED, "images/ab/cd/logo.png");
+    }
+
+    @Test
+    void publishAsync_whenStorageFails_marksAsFailed() throws IOException {
+        AssetContent content = content(3);
+        AssetDomain asset = mock(AssetDomain.class);
+        when(asset.getId()).thenReturn(15L);
+        when(asset.getFilename()).thenReturn("logo.png");
+        when(asset.getContent()).thenReturn(content);
+        when(storage.store(anyString(), eq(content))).thenThrow(new IOException("disk full"));
+
+        adapter.publish(asset);
+
+        verify(repository).transition(15L, null, AssetStatus.UPLOADING, AssetStatus.FAILED, null);
+        verify(content).release();
+    }
 }
@@ -0,0 +1,104 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.async;
+
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishQueueTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PublishQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        queue.shutdown();
+    }
+
+    private Runnable blocked() {
+        return () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    void rejects_when_byte_budget_is_exhausted() {
+        queue = new PublishQueue(1, 10, 100, Duration.ofSeconds(3));
+
+        queue.submit(80, blocked());
+        PublishCapacityExceededException ex =
+                assertThrows(PublishCapacityExceededException.class, () -> queue.submit(30, blocked()));
+
+        assertEquals(Duration.ofSeconds(3), ex.getRetryAfter());
+        assertThrows(PublishCapacityExceededException.class, () -> queue.checkCapacity(30));
+        assertDoesNotThrow(() -> queue.submit(20, blocked()));
+    }
+
+    @Test
+    void admits_a_single_job_bigger_than_the_budget_when_idle() {
+        queue = new PublishQueue(1, 10, 100, Duration.ofSeconds(3));
+
+        assertDoesNotThrow(() -> queue.submit(500, blocked()));
+        assertThrows(PublishCapacityExceededException.class, () -> queue.submit(1, blocked()));
+    }
+
+    @Test
+    void rejects_when_queue_is_full_and_reports_metrics() {
+        queue = new PublishQueue(1, 1, 1_000, Duration.ofSeconds(3));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+
+        queue.submit(10, blocked());
+        queue.submit(10, blocked());
+        assertThrows(PublishCapacityExceededException.class, () -> queue.submit(10, blocked()));
+
+        assertEquals(20, registry.get("assets.publish.pending.bytes").gauge().value());
+        assertEquals(1, registry.get("assets.publish.rejections").functionCounter().count());
+    }
+
+    @Test
+    void times_how_long_jobs_wait_for_a_slot() throws InterruptedException {
+        queue = new PublishQueue(1, 1, 1_000, Duration.ofSeconds(3));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue.bindTo(registry);
+        CountDownLatch done = new CountDownLatch(1);
+
+        queue.submit(10, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, registry.get("assets.publish.queue.wait").timer().count());
+    }
+
+    @Test
+    void releases_budget_once_job_finishes() throws InterruptedException {
+        queue = new PublishQueue(1, 1, 100, Duration.ofSeconds(3));
+        CountDownLatch done = new CountDownLatch(1);
+
+        queue.submit(100, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // the budget is given back right after the job body returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                queue.checkCapacity(100);
+                queue.submit(1, () -> { });
+                return;
+            } catch (PublishCapacityExceededException ex) {
+                Thread.onSpinWait();
+            }
+        }
+        fail("byte budget was never released");
+    }
+}
@@ -0,0 +1,103 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.events;
+
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryAssetEventsAdapterTest {
+
+    private final PostgresEventRelay relay = mock(PostgresEventRelay.class);
+    private final InMemoryAssetEventsAdapter events = new InMemoryAssetEventsAdapter(4, relay);
+
+    @Test
+    void awaitAfter_returnsTheEventsAfterTheGivenId_inOrder() throws InterruptedException {
+        changed(1L, AssetStatus.PENDING, AssetStatus.UPLOADING);
+        changed(1L, AssetStatus.UPLOADING, AssetStatus.COMPLETED);
+        changed(2L, AssetStatus.PENDING, AssetStatus.UPLOADING);
+
+        List<AssetStatusEvent> after = events.awaitAfter(1, 10, Duration.ZERO);
+
+        assertEquals(List.of(2L, 3L), after.stream().map(AssetStatusEvent::id).toList());
+        assertEquals(AssetStatus.COMPLETED, after.get(0).to());
+        assertEquals("image/png", after.get(0).contentType());
+        assertEquals(3, events.lastEventId());
+    }
+
+    @Test
+    void awaitAfter_whenTheClientFellBehind_skipsToTheOldestRetainedEvent() throws InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            changed((long) i, AssetStatus.PENDING, AssetStatus.UPLOADING);
+        }
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), events.awaitAfter(1, 10, Duration.ZERO).stream()
+                .map(AssetStatusEvent::id).toList());
+        assertEquals(List.of(3L, 4L), events.awaitAfter(1, 2, Duration.ZERO).stream()
+                .map(AssetStatusEvent::id).toList());
+    }
+
+    @Test
+    void awaitAfter_whenTheIdComesFromAPreviousRun_startsOver() throws InterruptedException {
+        changed(1L, AssetStatus.PENDING, AssetStatus.UPLOADING);
+
+        assertEquals(List.of(1L), events.awaitAfter(99, 10, Duration.ZERO).stream()
+                .map(AssetStatusEvent::id).toList());
+    }
+
+    @Test
+    void awaitAfter_waitsForTheNextEvent() throws Exception {
+        assertTrue(events.awaitAfter(0, 10, Duration.ofMillis(10)).isEmpty());
+
+        CompletableFuture<List<AssetStatusEvent>> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return events.awaitAfter(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(next.isDone());
+        changed(7L, AssetStatus.PENDING, AssetStatus.FAILED);
+
+        assertEquals(7L, next.get(5, TimeUnit.SECONDS).get(0).assetId());
+    }
+
+    @Test
+    void statusChanged_whenRelayed_waitsForTheListenerToAppendIt() throws InterruptedException {
+        when(relay.publish(any())).thenReturn(true);
+        ArgumentCaptor<PostgresEventRelay.StatusChange> change = ArgumentCaptor.forClass(PostgresEventRelay.StatusChange.class);
+
+        changed(5L, AssetStatus.PENDING, AssetStatus.UPLOADING);
+
+        verify(relay).publish(change.capture());
+        assertEquals(0, events.lastEventId());
+        events.append(change.getValue());
+        AssetStatusEvent event = events.awaitAfter(0, 10, Duration.ZERO).getFirst();
+        assertEquals(5L, event.assetId());
+        assertEquals(events.epoch(), event.epoch());
+    }
+
+    @Test
+    void epochs_differBetweenRuns() {
+        assertNotEquals(events.epoch(), new InMemoryAssetEventsAdapter(4, relay).epoch());
+    }
+
+    private void changed(Long id, AssetStatus from, AssetStatus to) {
+        events.statusChanged(new AssetDomain(id, "a.png", "image/png", 1, null, null, from), from, to, null);
+    }
+}
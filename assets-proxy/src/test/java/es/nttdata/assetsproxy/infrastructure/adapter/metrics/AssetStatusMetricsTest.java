@@ -0,0 +1,46 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.metrics;
+
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetStatusMetricsTest {
+
+    @Mock
+    private AssetRepositoryPort repository;
+
+    @Test
+    void gauges_reportEveryStatus_fromOneCachedQuery() {
+        when(repository.countByStatus()).thenReturn(Map.of(AssetStatus.PENDING, 3L, AssetStatus.COMPLETED, 7L));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new AssetStatusMetrics(repository, Duration.ofHours(1)).bindTo(registry);
+
+        assertEquals(3, registry.get("assets.status").tag("status", "PENDING").gauge().value());
+        assertEquals(7, registry.get("assets.status").tag("status", "COMPLETED").gauge().value());
+        assertEquals(0, registry.get("assets.status").tag("status", "FAILED").gauge().value());
+        verify(repository, times(1)).countByStatus();
+    }
+
+    @Test
+    void gauges_keepTheLastCounts_whenTheRefreshFails() {
+        when(repository.countByStatus())
+                .thenReturn(Map.of(AssetStatus.PENDING, 3L))
+                .thenThrow(new IllegalStateException("connection refused"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new AssetStatusMetrics(repository, Duration.ZERO).bindTo(registry);
+
+        assertEquals(3, registry.get("assets.status").tag("status", "PENDING").gauge().value());
+        assertEquals(3, registry.get("assets.status").tag("status", "PENDING").gauge().value());
+    }
+}
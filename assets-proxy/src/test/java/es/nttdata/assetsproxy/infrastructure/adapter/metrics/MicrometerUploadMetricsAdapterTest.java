@@ -0,0 +1,41 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MicrometerUploadMetricsAdapterTest {
+
+    @Test
+    void contentLookup_reportsHitRatioAndBytesSaved() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerUploadMetricsAdapter metrics = new MicrometerUploadMetricsAdapter(registry);
+
+        assertEquals(0, registry.get("assets.dedup.hit.ratio").gauge().value());
+
+        metrics.contentLookup(true, 100);
+        metrics.contentLookup(false, 40);
+        metrics.contentLookup(true, 20);
+        metrics.contentLookup(false, 10);
+
+        assertEquals(4, registry.get("assets.dedup.lookups").counter().count());
+        assertEquals(2, registry.get("assets.dedup.hits").counter().count());
+        assertEquals(120, registry.get("assets.dedup.saved").counter().count());
+        assertEquals(0.5, registry.get("assets.dedup.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void accepted_timesCallsByModeAndCountsItemsByResult() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerUploadMetricsAdapter metrics = new MicrometerUploadMetricsAdapter(registry);
+
+        metrics.accepted(false, 1_000_000, 1, 0);
+        metrics.accepted(true, 5_000_000, 7, 3);
+
+        assertEquals(1, registry.get("assets.upload.accept").tag("mode", "single").timer().count());
+        assertEquals(1, registry.get("assets.upload.accept").tag("mode", "batch").timer().count());
+        assertEquals(8, registry.get("assets.upload.items").tag("result", "accepted").counter().count());
+        assertEquals(3, registry.get("assets.upload.items").tag("result", "rejected").counter().count());
+    }
+}
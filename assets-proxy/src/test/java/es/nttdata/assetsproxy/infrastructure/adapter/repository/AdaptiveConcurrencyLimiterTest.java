@@ -0,0 +1,138 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void rising_latency_shrinks_the_limit_and_steady_latency_grows_it_back() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 20, 10, Duration.ofMillis(10), 0);
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(5 * MS, 20);
+        }
+        assertEquals(20, limiter.limit(), 0.001);
+
+        for (int i = 0; i < 30; i++) {
+            limiter.sample(50 * MS, 20);
+        }
+        double shrunk = limiter.limit();
+        assertTrue(shrunk < 10, "limit " + shrunk);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.sample(5 * MS, (int) limiter.limit());
+        }
+        assertTrue(limiter.limit() > shrunk + 5, "limit " + limiter.limit());
+    }
+
+    @Test
+    void samples_without_load_leave_the_limit_alone() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 20, 10, Duration.ofMillis(10), 0);
+        limiter.sample(5 * MS, 1);
+        for (int i = 0; i < 30; i++) {
+            limiter.sample(50 * MS, 1);
+        }
+
+        assertEquals(20, limiter.limit(), 0.001);
+    }
+
+    @Test
+    void failing_to_get_a_connection_backs_off() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 10, 10, Duration.ofMillis(10), 0);
+
+        assertThrows(CannotCreateTransactionException.class, () -> limiter.call(() -> {
+            throw new CannotCreateTransactionException("pool exhausted");
+        }, true));
+
+        assertEquals(9, limiter.limit(), 0.001);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void calls_over_the_limit_wait_for_a_permit_then_are_rejected() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofMillis(50), 0);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> limiter.call(() -> {
+                holding.countDown();
+                await(done);
+                return "first";
+            }, false));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+
+            assertThrows(RepositoryOverloadedException.class, () -> limiter.call(() -> "late", true));
+            assertEquals(1, limiter.rejected());
+
+            Future<String> waiting = executor.submit(() -> limiter.call(() -> "second", true));
+            while (limiter.queued() == 0) {
+                Thread.onSpinWait();
+            }
+            assertThrows(RepositoryOverloadedException.class, () -> limiter.call(() -> "queue full", true));
+            done.countDown();
+
+            assertEquals("first", first.get(1, TimeUnit.SECONDS));
+            assertEquals("second", waiting.get(1, TimeUnit.SECONDS));
+            assertEquals(2, limiter.rejected());
+            assertEquals(0, limiter.inFlight());
+        }
+    }
+
+    @Test
+    void open_streams_are_capped_apart_and_take_their_room_from_the_other_calls() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 10, Duration.ofSeconds(1), 1);
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> stream = executor.submit(() -> limiter.stream(() -> {
+                streaming.countDown();
+                await(done);
+                return "stream";
+            }));
+            assertTrue(streaming.await(1, TimeUnit.SECONDS));
+
+            assertThrows(RepositoryOverloadedException.class, () -> limiter.stream(() -> "second stream"));
+            assertEquals(0, limiter.inFlight());
+            // one regular call fits beside the stream, the next waits for either
+            CountDownLatch holding = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<String> regular = executor.submit(() -> limiter.call(() -> {
+                holding.countDown();
+                await(release);
+                return "regular";
+            }, false));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+            Future<String> waiting = executor.submit(() -> limiter.call(() -> "waiting", true));
+            while (limiter.queued() == 0) {
+                Thread.onSpinWait();
+            }
+            done.countDown();
+
+            assertEquals("stream", stream.get(1, TimeUnit.SECONDS));
+            assertEquals("waiting", waiting.get(1, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals("regular", regular.get(1, TimeUnit.SECONDS));
+            assertEquals(0, limiter.streams());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
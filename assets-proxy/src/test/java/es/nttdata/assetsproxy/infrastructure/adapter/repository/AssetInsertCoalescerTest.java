@@ -0,0 +1,152 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetInsertCoalescerTest {
+
+    @Mock
+    private AssetJpaRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private PublishOutbox outbox;
+    @Mock
+    private AssetDailyCounts dailyCounts;
+    @Mock
+    private IdempotencyKeyStore idempotencyKeys;
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 10, Duration.ofSeconds(1), 0);
+    private AssetInsertCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    private static AssetEntity entity(String filename) {
+        AssetEntity entity = new AssetEntity();
+        entity.setFilename(filename);
+        return entity;
+    }
+
+    @Test
+    void insert_concurrentCallers_areWrittenInOneBatch() throws Exception {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ofSeconds(5), 3, 1);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            List<AssetEntity> batch = inv.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(100L + i);
+            }
+            return batch;
+        });
+        AssetEntity a = entity("a.png");
+        AssetEntity b = entity("b.png");
+        AssetEntity c = entity("c.png");
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<AssetEntity>> results = List.of(a, b, c).stream()
+                    .map(e -> CompletableFuture.supplyAsync(() -> coalescer.insert(e, null, null), callers))
+                    .toList();
+
+            assertSame(a, results.get(0).get());
+            assertSame(b, results.get(1).get());
+            assertSame(c, results.get(2).get());
+        }
+
+        verify(repository, times(1)).saveAll(anyList());
+        verify(transactionManager, times(1)).commit(any());
+        assertNotNull(a.getId());
+        assertNotNull(b.getId());
+        assertNotNull(c.getId());
+    }
+
+    @Test
+    void insert_whenBatchFails_retriesEachRowSoOnlyTheBadOneFails() throws Exception {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ofSeconds(5), 2, 1);
+        AssetEntity good = entity("good.png");
+        AssetEntity bad = entity("bad.png");
+        doThrow(new DataIntegrityViolationException("batch")).when(repository).saveAll(anyList());
+        doReturn(List.of(good)).when(repository).saveAll(List.of(good));
+        doThrow(new DataIntegrityViolationException("bad row")).when(repository).saveAll(List.of(bad));
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<AssetEntity> goodResult = CompletableFuture.supplyAsync(() -> coalescer.insert(good, null, null), callers);
+            CompletableFuture<AssetEntity> badResult = CompletableFuture.supplyAsync(() -> coalescer.insert(bad, null, null), callers);
+
+            assertSame(good, goodResult.get());
+            Exception ex = assertThrows(Exception.class, badResult::get);
+            assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void insert_whenDelayIsZero_savesDirectly() {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ZERO, 50, 2);
+        AssetEntity entity = entity("solo.png");
+        when(repository.saveAll(List.of(entity))).thenReturn(List.of(entity));
+
+        assertSame(entity, coalescer.insert(entity, null, null));
+
+        verify(repository).saveAll(List.of(entity));
+        verify(outbox).enqueue(List.of(entity), Collections.singletonList(null));
+    }
+
+    @Test
+    void insert_withPublishJobAndIdempotencyKey_recordsThemInTheSameTransaction() {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ZERO, 50, 2);
+        AssetEntity entity = entity("solo.png");
+        PublishJobEntity job = new PublishJobEntity();
+        when(repository.saveAll(List.of(entity))).thenReturn(List.of(entity));
+
+        coalescer.insert(entity, job, "k1");
+
+        verify(outbox).enqueue(List.of(entity), List.of(job));
+        verify(idempotencyKeys).accepted(List.of(entity), List.of("k1"));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void insert_takesALimiterPermitForItsTransactionOnly() {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ZERO, 50, 2);
+        AssetEntity entity = entity("solo.png");
+        when(repository.saveAll(List.of(entity))).thenAnswer(inv -> {
+            assertEquals(1, limiter.inFlight());
+            return List.of(entity);
+        });
+
+        coalescer.insert(entity, null, null);
+
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void insert_afterShutdown_isRejected() {
+        coalescer = new AssetInsertCoalescer(repository, outbox, dailyCounts, idempotencyKeys, limiter, transactionManager, new SimpleMeterRegistry(), Duration.ofMillis(1), 50, 1);
+        coalescer.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> coalescer.insert(entity("late.png"), null, null));
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,66 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AssetPartitionMaintainerTest {
+
+    private static final YearMonth NOW = YearMonth.of(2025, 11);
+
+    @Test
+    void partitionNames_roundTrip_andOtherTablesAreIgnored() {
+        assertEquals("assets_p2025_01", AssetPartitionMaintainer.partitionName(YearMonth.of(2025, 1)));
+        assertEquals(Optional.of(YearMonth.of(2025, 1)), AssetPartitionMaintainer.parseMonth("assets_p2025_01"));
+        assertTrue(AssetPartitionMaintainer.parseMonth("assets_default").isEmpty());
+    }
+
+    @Test
+    void toCreate_coversTheCurrentMonthAndTheMonthsAhead_acrossTheYearEnd() {
+        assertEquals(List.of(NOW, YearMonth.of(2025, 12), YearMonth.of(2026, 1)),
+                AssetPartitionMaintainer.toCreate(List.of(), NOW, 2));
+        assertEquals(List.of(YearMonth.of(2026, 1)),
+                AssetPartitionMaintainer.toCreate(List.of(NOW, YearMonth.of(2025, 12)), NOW, 2));
+    }
+
+    @Test
+    void toDetach_keepsTheRetainedMonths_andEverythingWithoutRetention() {
+        List<YearMonth> existing = List.of(YearMonth.of(2025, 10), YearMonth.of(2025, 7), NOW, YearMonth.of(2025, 8));
+
+        assertEquals(List.of(YearMonth.of(2025, 7), YearMonth.of(2025, 8)),
+                AssetPartitionMaintainer.toDetach(existing, NOW, 2));
+        assertTrue(AssetPartitionMaintainer.toDetach(existing, NOW, 0).isEmpty());
+    }
+
+    @Test
+    void detach_discardsTheContentOfTheMonthsJobs_beforeDeletingThem() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        PublishOutbox outbox = mock(PublishOutbox.class);
+        when(jdbc.queryForList("select content_ref from publish_jobs where asset_id in (select id from assets_p2025_07)" +
+                " and content_ref is not null", String.class)).thenReturn(List.of("a.content", "b.content"));
+        AssetPartitionMaintainer maintainer =
+                new AssetPartitionMaintainer(jdbc, outbox, mock(PlatformTransactionManager.class), 3, 2, false);
+
+        maintainer.detach(YearMonth.of(2025, 7));
+
+        InOrder order = inOrder(outbox, jdbc);
+        order.verify(outbox).discard("a.content");
+        order.verify(outbox).discard("b.content");
+        order.verify(jdbc).update("delete from publish_jobs where asset_id in (select id from assets_p2025_07)");
+        order.verify(jdbc).update(eq("delete from asset_daily_counts where upload_day >= ? and upload_day < ?"), any(Object[].class));
+        order.verify(jdbc).execute("ALTER TABLE assets DETACH PARTITION assets_p2025_07");
+    }
+}
@@ -0,0 +1,220 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.model.AssetCount;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SortDirection;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetDailyCountJpaRepository;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.PublishJobJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = AssetsProxyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class AssetRepositoryAdapterITTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 10, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private AssetRepositoryAdapter adapter;
+    @Autowired
+    private AssetJpaRepository jpaRepository;
+    @Autowired
+    private PublishOutbox outbox;
+    @Autowired
+    private PublishJobJpaRepository jobRepository;
+    @Autowired
+    private AssetDailyCountJpaRepository dailyCountRepository;
+    @Autowired
+    private AssetDailyCounts dailyCounts;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanUp() {
+        jobRepository.deleteAll();
+        jpaRepository.deleteAll();
+        dailyCountRepository.deleteAll();
+        jdbc.update("delete from asset_count_deltas");
+    }
+
+    private AssetDomain save(String filename, int minutes) {
+        return adapter.save(new AssetDomain(null, filename, "image/png", 1, null,
+                BASE.plusMinutes(minutes), AssetStatus.PENDING));
+    }
+
+    private List<String> filenames(String pattern) {
+        return adapter.search(new SearchCriteria(null, null, pattern, null, SortDirection.ASC)).stream()
+                .map(AssetDomain::getFilename)
+                .toList();
+    }
+
+    @Test
+    void search_filenameIsACaseInsensitiveRegex() {
+        save("Banner.JPG", 1);
+        save("logo.png", 2);
+        save("old-banner.png", 3);
+
+        assertEquals(List.of("Banner.JPG"), filenames("^banner\\.jpg$"));
+        assertEquals(List.of("Banner.JPG", "old-banner.png"), filenames("BANNER"));
+        assertEquals(List.of("logo.png", "old-banner.png"), filenames("\\.png$"));
+    }
+
+    @Test
+    void saveAll_assignsDistinctIds() {
+        List<AssetDomain> saved = adapter.saveAll(List.of(
+                new AssetDomain(null, "a.png", "image/png", 1, null, BASE, AssetStatus.PENDING),
+                new AssetDomain(null, "b.png", "image/png", 1, null, BASE, AssetStatus.PENDING)));
+
+        assertNotNull(saved.get(0).getId());
+        assertNotNull(saved.get(1).getId());
+        assertNotEquals(saved.get(0).getId(), saved.get(1).getId());
+    }
+
+    @Test
+    void findPublishedUrl_onlyMatchesCompletedAssetsWithTheSameDigestAndSize() {
+        AssetDomain pending = new AssetDomain(null, "a.png", "image/png", 3, null, BASE, AssetStatus.PENDING);
+        pending.setContentDigest("d1");
+        AssetDomain completed = new AssetDomain(null, "b.png", "image/png", 3, "images/b.png", BASE, AssetStatus.COMPLETED);
+        completed.setContentDigest("d1");
+        adapter.save(pending);
+
+        assertTrue(adapter.findPublishedUrl("d1", 3).isEmpty());
+
+        adapter.save(completed);
+
+        assertEquals("images/b.png", adapter.findPublishedUrl("d1", 3).orElseThrow());
+        assertTrue(adapter.findPublishedUrl("d1", 4).isEmpty());
+        assertTrue(adapter.findPublishedUrl("d2", 3).isEmpty());
+    }
+
+    @Test
+    void save_writesThePublishJobWithTheAsset_andClaimsLeaseIt() {
+        Long pending = save("a.png", 1).getId();
+        AssetDomain completed = new AssetDomain(null, "b.png", "image/png", 1, "images/b.png", BASE, AssetStatus.COMPLETED);
+        adapter.save(completed);
+        adapter.saveAll(List.of(new AssetDomain(null, "c.png", "image/png", 1, null, BASE, AssetStatus.PENDING)));
+
+        List<PublishOutbox.Job> claimed = outbox.claim(10);
+
+        assertEquals(2, claimed.size());
+        assertEquals(pending, claimed.getFirst().assetId());
+        assertEquals(1, claimed.getFirst().attempts());
+        assertTrue(outbox.claim(10).isEmpty(), "leased jobs are not claimed twice");
+
+        outbox.release(claimed.get(0).id());
+        outbox.complete(claimed.get(1).id());
+
+        List<PublishOutbox.Job> again = outbox.claim(10);
+        assertEquals(1, again.size());
+        assertEquals(1, again.getFirst().attempts(), "a job handed back unrun keeps its attempts");
+    }
+
+    @Test
+    void transition_onlyAppliesFromTheExpectedStatus() {
+        Long id = save("clip.mp4", 1).getId();
+
+        assertTrue(adapter.transition(id, AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+        assertFalse(adapter.transition(id, AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+        assertTrue(adapter.transition(id, AssetStatus.UPLOADING, AssetStatus.COMPLETED, "videos/clip.mp4"));
+
+        AssetDomain stored = adapter.findById(id).orElseThrow();
+        assertEquals(AssetStatus.COMPLETED, stored.getStatus());
+        assertEquals("videos/clip.mp4", stored.getUrl());
+    }
+
+    @Test
+    void outboxJobs_carryTheUploadDate_thatNarrowsLookupsAndTransitions() {
+        Long id = save("clip.mp4", 1).getId();
+
+        PublishOutbox.Job job = outbox.claim(10).getFirst();
+        assertTrue(BASE.plusMinutes(1).isEqual(job.uploadDate()));
+
+        assertEquals(id, adapter.findById(id, job.uploadDate()).orElseThrow().getId());
+        assertTrue(adapter.findById(id, job.uploadDate().minusMonths(1)).isEmpty());
+        assertFalse(adapter.transition(id, job.uploadDate().minusMonths(1), AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+        assertTrue(adapter.transition(id, job.uploadDate(), AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+    }
+
+    @Test
+    void countByStatus_groupsEveryAsset() {
+        Long id = save("one.png", 1).getId();
+        save("two.png", 2);
+        adapter.transition(id, AssetStatus.PENDING, AssetStatus.UPLOADING, null);
+
+        assertEquals(Map.of(AssetStatus.PENDING, 1L, AssetStatus.UPLOADING, 1L), adapter.countByStatus());
+        dailyCounts.fold();
+        assertEquals(Map.of(AssetStatus.PENDING, 1L, AssetStatus.UPLOADING, 1L), adapter.countByStatus());
+    }
+
+    @Test
+    void countByTypeAndStatus_followsInsertsAndTransitions() {
+        Long first = save("one.png", 1).getId();
+        save("two.png", 2);
+        adapter.saveAll(List.of(new AssetDomain(null, "clip.mp4", "video/mp4", 1, null,
+                BASE.plusDays(1), AssetStatus.PENDING)));
+        adapter.save(new AssetDomain(null, "old.png", "image/png", 1, null, BASE.minusDays(1), AssetStatus.PENDING));
+        adapter.transition(first, AssetStatus.PENDING, AssetStatus.UPLOADING, null);
+        adapter.transition(first, AssetStatus.UPLOADING, AssetStatus.COMPLETED, "images/one.png");
+
+        assertEquals(List.of(
+                        new AssetCount("image/png", AssetStatus.COMPLETED, 1),
+                        new AssetCount("image/png", AssetStatus.PENDING, 1),
+                        new AssetCount("video/mp4", AssetStatus.PENDING, 1)),
+                adapter.countByTypeAndStatus(BASE.toLocalDate(), BASE.plusDays(1).toLocalDate()));
+        assertEquals(List.of(new AssetCount("image/png", AssetStatus.COMPLETED, 1),
+                        new AssetCount("image/png", AssetStatus.PENDING, 1)),
+                adapter.countByTypeAndStatus(BASE.toLocalDate(), BASE.toLocalDate()));
+        List<AssetCount> beforeFold = adapter.countByTypeAndStatus(BASE.minusDays(1).toLocalDate(), BASE.plusDays(1).toLocalDate());
+        dailyCounts.fold();
+        assertEquals(0, jdbc.queryForObject("select count(*) from asset_count_deltas", Integer.class));
+        assertEquals(beforeFold, adapter.countByTypeAndStatus(BASE.minusDays(1).toLocalDate(), BASE.plusDays(1).toLocalDate()));
+    }
+
+    @Test
+    void searchPage_walksEveryRowOnceThroughTheCursor() {
+        for (int i = 0; i < 5; i++) {
+            save("page-" + i + ".png", i % 2); // repeated upload dates exercise the id tie-break
+        }
+        List<Long> seen = new ArrayList<>();
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC, 2, null);
+        AssetPage page;
+        do {
+            page = adapter.searchPage(criteria);
+            page.items().forEach(a -> seen.add(a.getId()));
+            criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC, 2, page.next());
+        } while (page.next() != null);
+
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().distinct().count());
+    }
+
+    @Test
+    void streamSearch_handsOverEveryMatch() {
+        save("one.png", 1);
+        save("two.png", 2);
+        List<String> streamed = new ArrayList<>();
+
+        long count = adapter.streamSearch(new SearchCriteria(null, null, "o", null, SortDirection.ASC),
+                a -> streamed.add(a.getFilename()));
+
+        assertEquals(2, count);
+        assertEquals(List.of("one.png", "two.png"), streamed);
+    }
+}
@@ -1,23 +1,31 @@
 package es.nttdata.assetsproxy.infrastructure.adapter.repository;
 
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SearchCursor;
 import es.nttdata.assetsproxy.domain.model.SortDirection;
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.PublishJobEntity;
 import es.nttdata.assetsproxy.infrastructure.persistence.mapper.AssetEntityMapper;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
 import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.Optional;
+import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,12 +37,22 @@ class AssetRepositoryAdapterTest {
     private AssetJpaRepository repository;
     @Mock
     private AssetEntityMapper mapper;
+    @Mock
+    private AssetInsertCoalescer inserts;
+    @Mock
+    private PublishOutbox outbox;
+    @Mock
+    private AssetDailyCounts dailyCounts;
 
     private AssetRepositoryAdapter adapter;
 
+    private static AssetRow row(Long id, String filename, OffsetDateTime uploadDate) {
+        return new AssetRow(id, filename, "image/png", null, null, uploadDate, "PENDING", null);
+    }
+
     @BeforeEach
     void setUp() {
-        adapter = new AssetRepositoryAdapter(repository, mapper);
+        adapter = new AssetRepositoryAdapter(repository, mapper, inserts, outbox, dailyCounts, 300);
     }
 
     @Test
@@ -64,7 +82,9 @@ class AssetRepositoryAdapterTest {
                 new AssetDomain(101L, "banner.jpg", "image/jpeg", 123, "images/banner.jpg", now, AssetStatus.PENDING);
 
         when(mapper.toEntity(domainIn)).thenReturn(entityIn);
-        when(repository.save(entityIn)).thenReturn(entitySaved);
+        PublishJobEntity job = new PublishJobEntity();
+        when(outbox.prepare(domainIn)).thenReturn(job);
+        when(inserts.insert(entityIn, job, null)).thenReturn(entitySaved);
         when(mapper.toDomain(entitySaved)).thenReturn(domainOut);
 
         AssetDomain result = adapter.save(domainIn);
@@ -73,30 +93,69 @@ class AssetRepositoryAdapterTest {
         assertEquals(101L, result.getId());
         assertEquals("images/banner.jpg", result.getUrl());
         verify(mapper).toEntity(domainIn);
-        verify(repository).save(entityIn);
+        verify(inserts).insert(entityIn, job, null);
         verify(mapper).toDomain(entitySaved);
         verifyNoMoreInteractions(repository, mapper);
     }
 
     @Test
-    void search_buildsSpecification_andDelegatesToFindAll_withSortByUploadDateAsc() {
+    void saveAll_persistsEveryEntityInOneCall_bypassingTheCoalescer() {
+        AssetDomain a = new AssetDomain(null, "a.png", "image/png", 1, null, OffsetDateTime.now(), AssetStatus.PENDING);
+        AssetDomain b = new AssetDomain(null, "b.png", "image/png", 2, null, OffsetDateTime.now(), AssetStatus.PENDING);
+        AssetEntity ea = new AssetEntity();
+        AssetEntity eb = new AssetEntity();
+        AssetDomain savedA = new AssetDomain(1L, "a.png", "image/png", 1, null, a.getUploadDate(), AssetStatus.PENDING);
+        AssetDomain savedB = new AssetDomain(2L, "b.png", "image/png", 2, null, b.getUploadDate(), AssetStatus.PENDING);
+        when(mapper.toEntity(a)).thenReturn(ea);
+        when(mapper.toEntity(b)).thenReturn(eb);
+        PublishJobEntity jobA = new PublishJobEntity();
+        PublishJobEntity jobB = new PublishJobEntity();
+        when(outbox.prepare(a)).thenReturn(jobA);
+        when(outbox.prepare(b)).thenReturn(jobB);
+        when(repository.saveAll(List.of(ea, eb))).thenReturn(List.of(ea, eb));
+        when(mapper.toDomain(ea)).thenReturn(savedA);
+        when(mapper.toDomain(eb)).thenReturn(savedB);
+
+        List<AssetDomain> result = adapter.saveAll(List.of(a, b));
+
+        assertEquals(List.of(savedA, savedB), result);
+        verify(repository).saveAll(List.of(ea, eb));
+        verify(outbox).enqueue(List.of(ea, eb), List.of(jobA, jobB));
+        verifyNoInteractions(inserts);
+    }
+
+    @Test
+    void save_whenInsertFails_discardsTheRetainedContent() {
+        AssetDomain domainIn = new AssetDomain(null, "a.png", "image/png", 1, null, OffsetDateTime.now(), AssetStatus.PENDING);
+        AssetEntity entityIn = new AssetEntity();
+        PublishJobEntity job = new PublishJobEntity();
+        when(outbox.prepare(domainIn)).thenReturn(job);
+        when(mapper.toEntity(domainIn)).thenReturn(entityIn);
+        when(inserts.insert(entityIn, job, null)).thenThrow(new IllegalStateException("Insert coalescer is shut down"));
+
+        assertThrows(IllegalStateException.class, () -> adapter.save(domainIn));
+        verify(outbox).discard(job);
+    }
+
+    @Test
+    void search_buildsSpecification_andSelectsRows_withSortByUploadDateAsc() {
         SearchCriteria criteria =
                 new SearchCriteria(OffsetDateTime.now().minusDays(7), OffsetDateTime.now(), "invoice", "image/png", SortDirection.ASC);
 
-        AssetEntity e1 = new AssetEntity(); e1.setId(1L); e1.setFilename("invoice-1.png");
-        AssetEntity e2 = new AssetEntity(); e2.setId(2L); e2.setFilename("invoice-2.png");
+        AssetRow e1 = row(1L, "invoice-1.png", null);
+        AssetRow e2 = row(2L, "invoice-2.png", null);
 
         AssetDomain a1 = new AssetDomain(1L, "invoice-1.png", "image/png", null, null, null, AssetStatus.PENDING);
         AssetDomain a2 = new AssetDomain(2L, "invoice-2.png", "image/png", null, null, null, AssetStatus.PENDING);
 
-        when(repository.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of(e1, e2));
+        when(repository.findRows(any(Specification.class), any(Sort.class), eq(0))).thenReturn(List.of(e1, e2));
         when(mapper.toDomain(e1)).thenReturn(a1);
         when(mapper.toDomain(e2)).thenReturn(a2);
 
         List<AssetDomain> result = adapter.search(criteria);
 
         ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
-        verify(repository).findAll(any(Specification.class), sortCaptor.capture());
+        verify(repository).findRows(any(Specification.class), sortCaptor.capture(), eq(0));
 
         Sort sort = sortCaptor.getValue();
         assertNotNull(sort);
@@ -116,14 +175,14 @@ class AssetRepositoryAdapterTest {
                 null, null, null, null, null
         );
 
-        when(repository.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of());
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyInt())).thenReturn(List.of());
 
         List<AssetDomain> result = adapter.search(criteria);
 
         assertNotNull(result);
 
         ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
-        verify(repository).findAll(any(Specification.class), sortCaptor.capture());
+        verify(repository).findRows(any(Specification.class), sortCaptor.capture(), anyInt());
         Sort.Order order = sortCaptor.getValue().stream().findFirst().orElseThrow();
 
         assertEquals("uploadDate", order.getProperty());
@@ -131,55 +190,103 @@ class AssetRepositoryAdapterTest {
     }
 
     @Test
-    void updateStatus_findsById_updatesAndSaves() {
-        AssetEntity entity = new AssetEntity();
-        entity.setId(10L);
-        entity.setStatus("PENDING");
+    void transition_runsConditionalUpdate_andMovesTheAssetBetweenDailyCounts() {
+        OffsetDateTime uploaded = OffsetDateTime.now();
+        when(repository.transition(10L, null, "UPLOADING", "COMPLETED", "images/x.jpg"))
+                .thenReturn(List.<Object[]>of(new Object[]{uploaded, "image/jpeg"}));
+
+        assertTrue(adapter.transition(10L, AssetStatus.UPLOADING, AssetStatus.COMPLETED, "images/x.jpg"));
+
+        verify(repository).transition(10L, null, "UPLOADING", "COMPLETED", "images/x.jpg");
+        verify(dailyCounts).moved(uploaded, "image/jpeg", AssetStatus.UPLOADING, AssetStatus.COMPLETED);
+    }
+
+    @Test
+    void transition_whenStatusAlreadyMoved_reportsLoss() {
+        when(repository.transition(999L, null, "PENDING", "UPLOADING", null)).thenReturn(List.of());
 
-        when(repository.findById(10L)).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(entity);
+        assertFalse(adapter.transition(999L, AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+        verifyNoInteractions(dailyCounts);
+    }
 
-        adapter.updateStatus(10L, AssetStatus.COMPLETED);
+    @Test
+    void transition_whenIllegal_isRejectedWithoutTouchingTheDatabase() {
+        assertFalse(adapter.transition(20L, AssetStatus.COMPLETED, AssetStatus.UPLOADING, null));
+        assertFalse(adapter.transition(20L, AssetStatus.PENDING, AssetStatus.COMPLETED, "images/x.jpg"));
 
-        assertEquals("COMPLETED", entity.getStatus());
-        verify(repository).findById(10L);
-        verify(repository).save(entity);
-        verifyNoMoreInteractions(repository);
+        verifyNoInteractions(repository);
     }
 
     @Test
-    void updateStatus_whenIdNotFound_doesNothing() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+    void searchPage_fetchesOneExtraRow_toBuildNextCursor() {
+        OffsetDateTime now = OffsetDateTime.now();
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.DESC, 2,
+                new SearchCursor(now, 50L));
 
-        adapter.updateStatus(999L, AssetStatus.FAILED);
+        AssetRow e1 = row(49L, "a.png", now);
+        AssetRow e2 = row(48L, "b.png", now.minusSeconds(1));
+        AssetRow e3 = row(47L, "c.png", now.minusSeconds(2));
+
+        AssetDomain a1 = new AssetDomain(49L, "a.png", "image/png", null, null, now, AssetStatus.PENDING);
+        AssetDomain a2 = new AssetDomain(48L, "b.png", "image/png", null, null, now.minusSeconds(1), AssetStatus.PENDING);
+
+        when(repository.findRows(any(Specification.class), any(Sort.class), eq(3))).thenReturn(List.of(e1, e2, e3));
+        when(mapper.toDomain(e1)).thenReturn(a1);
+        when(mapper.toDomain(e2)).thenReturn(a2);
 
-        verify(repository).findById(999L);
-        verify(repository, never()).save(any());
+        AssetPage page = adapter.searchPage(criteria);
+
+        assertEquals(List.of(a1, a2), page.items());
+        assertEquals(new SearchCursor(now.minusSeconds(1), 48L), page.next());
+        verify(mapper, never()).toDomain(e3);
     }
 
     @Test
-    void updateStorageUrl_findsById_updatesAndSaves() {
-        AssetEntity entity = new AssetEntity();
-        entity.setId(20L);
-        entity.setUrl(null);
+    void searchPage_lastPage_hasNoNextCursor() {
+        SearchCriteria criteria = new SearchCriteria(null, null, null, null, SortDirection.ASC, 5, null);
 
-        when(repository.findById(20L)).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(entity);
+        when(repository.findRows(any(Specification.class), any(Sort.class), eq(6))).thenReturn(List.of());
 
-        adapter.updateStorageUrl(20L, "https://cdn/x/y.jpg");
+        AssetPage page = adapter.searchPage(criteria);
 
-        assertEquals("https://cdn/x/y.jpg", entity.getUrl());
-        verify(repository).findById(20L);
-        verify(repository).save(entity);
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
     }
 
     @Test
-    void updateStorageUrl_whenIdNotFound_doesNothing() {
-        when(repository.findById(404L)).thenReturn(Optional.empty());
+    void streamSearch_handsEveryRowToTheSink() {
+        SearchCriteria criteria = new SearchCriteria(null, null, "logo", null, SortDirection.ASC);
+
+        AssetRow e1 = row(1L, "logo-1.png", null);
+        AssetRow e2 = row(2L, "logo-2.png", null);
+        AssetDomain a1 = new AssetDomain(1L, "logo-1.png", "image/png", null, null, null, AssetStatus.PENDING);
+        AssetDomain a2 = new AssetDomain(2L, "logo-2.png", "image/png", null, null, null, AssetStatus.PENDING);
+
+        when(repository.streamRows(any(Specification.class), any(Sort.class), anyInt())).thenReturn(Stream.of(e1, e2));
+        when(mapper.toDomain(e1)).thenReturn(a1);
+        when(mapper.toDomain(e2)).thenReturn(a2);
+
+        List<AssetDomain> received = new ArrayList<>();
+        long streamed = adapter.streamSearch(criteria, received::add);
 
-        adapter.updateStorageUrl(404L, "ignored");
+        assertEquals(2L, streamed);
+        assertEquals(List.of(a1, a2), received);
+    }
 
-        verify(repository).findById(404L);
-        verify(repository, never()).save(any());
+    @Test
+    void streamSearch_pastItsTimeout_stopsAndClosesTheCursor() {
+        adapter = new AssetRepositoryAdapter(repository, mapper, inserts, outbox, dailyCounts, 0);
+        AssetRow e1 = row(1L, "logo-1.png", null);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamRows(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(Stream.of(e1).onClose(() -> closed.set(true)));
+        when(mapper.toDomain(e1)).thenReturn(new AssetDomain(1L, "logo-1.png", "image/png", null, null, null, AssetStatus.PENDING));
+        List<AssetDomain> received = new ArrayList<>();
+
+        assertThrows(QueryTimeoutException.class, () -> adapter.streamSearch(
+                new SearchCriteria(null, null, "logo", null, SortDirection.ASC), received::add));
+
+        assertTrue(received.isEmpty());
+        assertTrue(closed.get());
     }
 }
@@ -0,0 +1,136 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.repository;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = AssetsProxyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class IdempotencyKeyStoreITTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanUp() {
+        jdbc.update("delete from idempotency_keys");
+    }
+
+    @Test
+    void claim_letsOneRequestThrough_conflictsWhileInFlight_andReplaysOnceAccepted() {
+        IdempotencyKeyStore store = store(Duration.ofHours(1), Duration.ofMinutes(5));
+
+        assertEquals(Optional.empty(), store.claim("k1", "f1"));
+        assertThrows(IdempotencyConflictException.class, () -> store.claim("k1", "f1"));
+
+        store.accepted(List.of(entity(42L)), List.of("k1"));
+
+        assertEquals(Optional.of(42L), store.claim("k1", "f1"));
+        // another instance, without the key in its cache, finds it in the table
+        assertEquals(Optional.of(42L), store(Duration.ofHours(1), Duration.ofMinutes(5)).claim("k1", "f1"));
+    }
+
+    @Test
+    void find_readsTheKeyWithoutClaimingIt() {
+        IdempotencyKeyStore store = store(Duration.ofHours(1), Duration.ofMinutes(5));
+
+        assertEquals(Optional.empty(), store.find("k5", "f1"));
+        assertEquals(0, jdbc.queryForObject("select count(*) from idempotency_keys", Integer.class));
+
+        store.claim("k5", "f1");
+        assertThrows(IdempotencyConflictException.class, () -> store.find("k5", "f1"));
+        assertThrows(IdempotencyMismatchException.class, () -> store.find("k5", "f2"));
+
+        store.accepted(List.of(entity(46L)), List.of("k5"));
+        assertEquals(Optional.of(46L), store(Duration.ofHours(1), Duration.ofMinutes(5)).find("k5", "f1"));
+    }
+
+    @Test
+    void find_ignoresAnExpiredKey() {
+        IdempotencyKeyStore expiring = store(Duration.ZERO, Duration.ZERO);
+        expiring.claim("k6", "f1");
+        expiring.accepted(List.of(entity(47L)), List.of("k6"));
+
+        assertEquals(Optional.empty(), expiring.find("k6", "f2"));
+    }
+
+    @Test
+    void claim_refusesTheKeyForAnotherRequest_inFlightOrAccepted() {
+        IdempotencyKeyStore store = store(Duration.ofHours(1), Duration.ofMinutes(5));
+        store.claim("k3", "f1");
+
+        assertThrows(IdempotencyMismatchException.class, () -> store.claim("k3", "f2"));
+
+        store.accepted(List.of(entity(43L)), List.of("k3"));
+        assertEquals(Optional.of(43L), store.claim("k3", "f1"));
+        // answered from the cache this time
+        assertThrows(IdempotencyMismatchException.class, () -> store.claim("k3", "f2"));
+    }
+
+    @Test
+    void accepted_isUndoneWithTheTransactionThatInsertsTheAsset() {
+        IdempotencyKeyStore store = store(Duration.ofHours(1), Duration.ofMinutes(5));
+        store.claim("k4", "f1");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.accepted(List.of(entity(44L)), List.of("k4"));
+            status.setRollbackOnly();
+        });
+
+        assertThrows(IdempotencyConflictException.class, () -> store.claim("k4", "f1"));
+    }
+
+    @Test
+    void release_freesTheKeyForTheNextRetry_evenOnceAccepted() {
+        IdempotencyKeyStore store = store(Duration.ofHours(1), Duration.ofMinutes(5));
+        store.claim("k2", "f1");
+        store.accepted(List.of(entity(45L)), List.of("k2"));
+        store.claim("k2", "f1");
+
+        store.release("k2");
+
+        assertEquals(Optional.empty(), store.claim("k2", "f1"));
+    }
+
+    @Test
+    void expiredKeys_areClaimedAgain_andPurged() {
+        IdempotencyKeyStore expiring = store(Duration.ZERO, Duration.ZERO);
+        expiring.claim("stale", "f1");
+        // the request holding it died: its claim has expired, and may be taken by another request
+        assertEquals(Optional.empty(), expiring.claim("stale", "f2"));
+        expiring.accepted(List.of(entity(7L)), List.of("stale"));
+        assertEquals(Optional.empty(), expiring.claim("stale", "f2"));
+
+        expiring.purgeExpired();
+
+        assertEquals(0, jdbc.queryForObject("select count(*) from idempotency_keys", Integer.class));
+    }
+
+    private IdempotencyKeyStore store(Duration ttl, Duration inFlightTimeout) {
+        return new IdempotencyKeyStore(jdbc, new AdaptiveConcurrencyLimiter(1, 4, 10, Duration.ofSeconds(1), 0),
+                ttl, inFlightTimeout, 100);
+    }
+
+    private static AssetEntity entity(Long id) {
+        AssetEntity entity = new AssetEntity();
+        entity.setId(id);
+        return entity;
+    }
+}
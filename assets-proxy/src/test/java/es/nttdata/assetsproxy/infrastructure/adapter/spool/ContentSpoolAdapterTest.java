@@ -0,0 +1,162 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentSpoolAdapterTest {
+
+    @TempDir
+    Path directory;
+
+    private ContentSpoolAdapter spool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // no memory tier: everything goes to files
+        spool = new ContentSpoolAdapter(directory, 16, DataSize.ofBytes(0), DataSize.ofBytes(0));
+    }
+
+    @Test
+    void spool_computesSizeAndChecksum_whileWriting() throws IOException {
+        AssetContent content = spool.spool(out -> out.write("hello".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5L, content.size());
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", content.checksum());
+        try (InputStream in = content.openStream()) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void release_deletesSpoolFile() throws IOException {
+        AssetContent content = spool.spool(out -> out.write(new byte[100]));
+        assertEquals(1, countFiles());
+
+        content.release();
+        content.release();
+
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void spool_whenWriterFails_leavesNothingBehind() throws IOException {
+        assertThrows(IOException.class, () -> spool.spool(out -> {
+            out.write(new byte[10]);
+            throw new IOException("client went away");
+        }));
+
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void spool_smallContent_staysOffHeapWithoutFiles() throws IOException {
+        ContentSpoolAdapter memory = new ContentSpoolAdapter(directory, 16, DataSize.ofBytes(64), DataSize.ofBytes(64));
+
+        AssetContent content = memory.spool(out -> out.write("hello".getBytes(StandardCharsets.UTF_8)));
+
+        assertInstanceOf(SpooledBufferContent.class, content);
+        assertEquals(0, countFiles());
+        assertEquals(5L, content.size());
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", content.checksum());
+        try (InputStream in = content.openStream()) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        content.release();
+        assertThrows(IllegalStateException.class, content::openStream);
+    }
+
+    @Test
+    void spool_contentOverThreshold_spillsEverythingToFile() throws IOException {
+        ContentSpoolAdapter memory = new ContentSpoolAdapter(directory, 16, DataSize.ofBytes(40), DataSize.ofBytes(1024));
+        byte[] payload = new byte[100];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        AssetContent content = memory.spool(out -> {
+            out.write(payload, 0, 30);   // fits in pages
+            out.write(payload, 30, 70);  // crosses the threshold
+        });
+
+        assertInstanceOf(SpooledFileContent.class, content);
+        assertEquals(1, countFiles());
+        try (InputStream in = content.openStream()) {
+            assertArrayEquals(payload, in.readAllBytes());
+        }
+        content.release();
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void spool_whenPoolIsExhausted_spillsAndReusesPagesOnceReleased() throws IOException {
+        ContentSpoolAdapter memory = new ContentSpoolAdapter(directory, 16, DataSize.ofBytes(32), DataSize.ofBytes(32));
+
+        AssetContent first = memory.spool(out -> out.write(new byte[20]));   // takes both pages
+        AssetContent second = memory.spool(out -> out.write(new byte[20]));  // nothing left
+        assertInstanceOf(SpooledBufferContent.class, first);
+        assertInstanceOf(SpooledFileContent.class, second);
+        assertEquals(20L, second.size());
+
+        first.release();
+        first.release();
+        AssetContent third = memory.spool(out -> out.write(new byte[20]));
+        assertInstanceOf(SpooledBufferContent.class, third);
+
+        second.release();
+        third.release();
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void retain_movesSpoolFile_andReopenReadsItBack() throws IOException {
+        AssetContent content = spool.spool(out -> out.write("hello".getBytes(StandardCharsets.UTF_8)));
+
+        String reference = spool.retain(content);
+        content.release();
+
+        assertEquals(0, countFiles());
+        AssetContent reopened = spool.reopen(reference, content.checksum());
+        assertEquals(5L, reopened.size());
+        try (InputStream in = reopened.openStream()) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        reopened.release();
+        assertThrows(IOException.class, () -> spool.reopen(reference, null));
+    }
+
+    @Test
+    void retain_writesOffHeapContentToFile_andFreesItsPages() throws IOException {
+        ContentSpoolAdapter memory = new ContentSpoolAdapter(directory, 16, DataSize.ofBytes(64), DataSize.ofBytes(64));
+        AssetContent content = memory.spool(out -> out.write("hello off-heap".getBytes(StandardCharsets.UTF_8)));
+
+        String reference = memory.retain(content);
+
+        assertThrows(IllegalStateException.class, content::openStream);
+        try (InputStream in = memory.reopen(reference, null).openStream()) {
+            assertEquals("hello off-heap", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void reopen_rejectsReferencesOutsideTheRetainedDirectory() {
+        assertThrows(IllegalArgumentException.class, () -> spool.reopen("../asset-1.spool", null));
+        assertThrows(IllegalArgumentException.class, () -> spool.reopen("../../etc/passwd.content", null));
+    }
+
+    private long countFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.spool;
+
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.exception.UploadOffsetMismatchException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSessionSpoolAdapterTest {
+
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final String HE_SHA256 = "372f7e2fd2d01ce2a1d71dc072acbba4c6fd25a1087cd7f153f4ec0ce37e1ede";
+
+    @TempDir
+    Path directory;
+
+    private UploadSessionSpoolAdapter sessions;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessions = new UploadSessionSpoolAdapter(directory, 4, Duration.ofHours(1));
+    }
+
+    @Test
+    void chunks_areAppendedInOrder_andCompletedIntoSpooledContent() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", 5L);
+
+        assertEquals(2, sessions.append(session.id(), 0, HE_SHA256, out -> out.write(bytes("he"))).offset());
+        assertEquals(5, sessions.append(session.id(), 2, null, out -> out.write(bytes("llo"))).offset());
+        AssetContent content = sessions.complete(session.id(), HELLO_SHA256.toUpperCase());
+
+        assertEquals(5, content.size());
+        assertEquals(HELLO_SHA256, content.checksum());
+        try (InputStream in = content.openStream()) {
+            assertEquals("hello", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        // moved into the spool itself, where retain() renames it
+        assertTrue(content instanceof SpooledFileContent spooled && directory.equals(spooled.file().getParent()));
+        assertTrue(sessions.find(session.id()).isEmpty());
+        content.release();
+    }
+
+    @Test
+    void append_atAnotherOffset_isRejectedWithTheCurrentOne() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", null);
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("he")));
+
+        UploadOffsetMismatchException ex = assertThrows(UploadOffsetMismatchException.class,
+                () -> sessions.append(session.id(), 0, null, out -> out.write(bytes("he"))));
+
+        assertEquals(2, ex.getOffset());
+    }
+
+    @Test
+    void append_whenTheChunkIsCorruptOrCutShort_leavesTheSessionWhereItWas() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", null);
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("he")));
+
+        assertThrows(BusinessException.class,
+                () -> sessions.append(session.id(), 2, HE_SHA256, out -> out.write(bytes("llo"))));
+        assertThrows(IOException.class, () -> sessions.append(session.id(), 2, null, out -> {
+            out.write(bytes("ll"));
+            throw new IOException("connection reset");
+        }));
+
+        assertEquals(2, sessions.find(session.id()).orElseThrow().offset());
+        assertEquals(2, Files.size(directory.resolve("sessions").resolve(session.id() + ".part")));
+    }
+
+    @Test
+    void append_pastTheDeclaredSize_isRejected() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", 3L);
+
+        assertThrows(BusinessException.class, () -> sessions.append(session.id(), 0, null, out -> out.write(bytes("hello"))));
+        assertEquals(0, sessions.find(session.id()).orElseThrow().offset());
+    }
+
+    @Test
+    void append_failsAsSoonAsTheChunkGoesPastTheDeclaredSize() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", 5L);
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("he")));
+        int[] written = new int[1];
+
+        assertThrows(BusinessException.class, () -> sessions.append(session.id(), 2, null, out -> {
+            for (int i = 0; i < 1_000_000; i++) {
+                out.write('x');
+                written[0]++;
+            }
+        }));
+
+        assertEquals(3, written[0]);
+        assertEquals(2, sessions.find(session.id()).orElseThrow().offset());
+        assertEquals(2, Files.size(directory.resolve("sessions").resolve(session.id() + ".part")));
+    }
+
+    @Test
+    void unknownSessions_leaveNoLockBehind() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", null);
+        String unknown = UUID.randomUUID().toString();
+
+        assertThrows(UploadSessionNotFoundException.class, () -> sessions.append(unknown, 0, null, out -> out.write(1)));
+        assertThrows(UploadSessionNotFoundException.class, () -> sessions.complete(unknown, null));
+        assertThrows(UploadSessionNotFoundException.class, () -> sessions.abort(unknown));
+        assertEquals(0, sessions.lockCount());
+
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("he")));
+        sessions.abort(session.id());
+        assertEquals(0, sessions.lockCount());
+    }
+
+    @Test
+    void sessions_surviveARestart() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", 5L);
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("he")));
+
+        UploadSessionSpoolAdapter restarted = new UploadSessionSpoolAdapter(directory, 4, Duration.ofHours(1));
+        UploadSession found = restarted.find(session.id()).orElseThrow();
+
+        assertEquals("clip.mp4", found.filename());
+        assertEquals(5L, found.size());
+        assertEquals(2, found.offset());
+    }
+
+    @Test
+    void complete_withAnotherChecksum_keepsTheSession() throws IOException {
+        UploadSession session = sessions.create("clip.mp4", "video/mp4", null);
+        sessions.append(session.id(), 0, null, out -> out.write(bytes("hello")));
+
+        assertThrows(BusinessException.class, () -> sessions.complete(session.id(), HE_SHA256));
+        assertTrue(sessions.find(session.id()).isPresent());
+    }
+
+    @Test
+    void expiredAndAbortedSessions_areDeleted() throws IOException {
+        UploadSessionSpoolAdapter expiring = new UploadSessionSpoolAdapter(directory, 4, Duration.ofSeconds(-1));
+        UploadSession expired = expiring.create("a.mp4", "video/mp4", null);
+        UploadSession aborted = sessions.create("b.mp4", "video/mp4", null);
+        UploadSession live = sessions.create("c.mp4", "video/mp4", null);
+
+        sessions.abort(aborted.id());
+        sessions.purgeExpired();
+
+        assertTrue(sessions.find(expired.id()).isEmpty());
+        assertTrue(sessions.find(aborted.id()).isEmpty());
+        assertTrue(sessions.find(live.id()).isPresent());
+        assertTrue(sessions.find("../../etc/passwd").isEmpty());
+        assertThrows(UploadSessionNotFoundException.class, () -> sessions.complete(expired.id(), null));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,149 @@
+package es.nttdata.assetsproxy.infrastructure.adapter.storage;
+
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.infrastructure.adapter.spool.ContentSpoolAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileStorageAdapterTest {
+
+    @TempDir
+    Path root;
+    @TempDir
+    Path spoolDirectory;
+
+    private LocalFileStorageAdapter storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalFileStorageAdapter(root, FsyncPolicy.FULL);
+    }
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1024 * 1024})
+    void store_copiesSpooledContent_fromFileOrDirectPages(long memoryThreshold) throws IOException {
+        ContentSpoolAdapter spool = new ContentSpoolAdapter(spoolDirectory, 4096,
+                DataSize.ofBytes(memoryThreshold), DataSize.ofMegabytes(1));
+        byte[] bytes = payload(100_000);
+        AssetContent content = spool.spool(out -> out.write(bytes));
+
+        String location = storage.store("images/1234-logo.png", content);
+
+        assertTrue(location.matches("images/[0-9a-f]{2}/[0-9a-f]{2}/1234-logo\\.png"), location);
+        assertArrayEquals(bytes, Files.readAllBytes(root.resolve(location)));
+        content.release();
+    }
+
+    @Test
+    void store_copiesStreamBackedContent() throws IOException {
+        byte[] bytes = payload(10_000);
+
+        String location = storage.store("videos/clip.mp4", new StreamContent(bytes));
+
+        assertArrayEquals(bytes, Files.readAllBytes(root.resolve(location)));
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count(), "no temp file left behind");
+        }
+    }
+
+    @Test
+    void store_whenContentIsShort_leavesNothingBehind() throws IOException {
+        AssetContent truncated = new StreamContent(new byte[10]) {
+            @Override
+            public long size() {
+                return 20;
+            }
+        };
+
+        assertThrows(IOException.class, () -> storage.store("images/a.png", truncated));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void store_rejectsKeysEscapingTheShard() {
+        assertThrows(IllegalArgumentException.class, () -> storage.store("../images/a.png", new StreamContent(new byte[1])));
+        assertThrows(IllegalArgumentException.class, () -> storage.store("images/..", new StreamContent(new byte[1])));
+    }
+
+    @Test
+    void open_returnsTheStoredFileWithoutCopyingIt() throws IOException {
+        byte[] bytes = payload(5_000);
+        String location = storage.store("videos/clip.mp4", new StreamContent(bytes));
+
+        AssetContent stored = storage.open(location, "digest");
+
+        assertEquals(5_000, stored.size());
+        assertEquals("digest", stored.checksum());
+        assertEquals(root.resolve(location), stored.localFile().orElseThrow());
+        try (InputStream in = stored.openStream()) {
+            assertArrayEquals(bytes, in.readAllBytes());
+        }
+        stored.release();
+        assertTrue(Files.exists(root.resolve(location)), "release leaves the stored object");
+    }
+
+    @Test
+    void open_rejectsMissingOrEscapingLocations() {
+        assertThrows(NoSuchFileException.class, () -> storage.open("videos/00/00/none.mp4", null));
+        assertThrows(IllegalArgumentException.class, () -> storage.open("../outside.mp4", null));
+    }
+
+    @Test
+    void shard_spreadsNamesOverTwoLevels() {
+        assertEquals(LocalFileStorageAdapter.shard("images/a.png"), LocalFileStorageAdapter.shard("images/a.png"));
+        assertNotEquals(LocalFileStorageAdapter.shard("images/a.png"), LocalFileStorageAdapter.shard("images/b.png"));
+        assertTrue(LocalFileStorageAdapter.shard("videos/b.mp4").startsWith("videos/"));
+    }
+
+    private static class StreamContent implements AssetContent {
+
+        private final byte[] bytes;
+
+        StreamContent(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long size() {
+            return bytes.length;
+        }
+
+        @Override
+        public String checksum() {
+            return null;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.controller;
+
+import es.nttdata.assetsproxy.application.usecase.ChunkedUploadUseCase;
+import es.nttdata.assetsproxy.boot.TestBootConfig;
+import es.nttdata.assetsproxy.domain.exception.UploadOffsetMismatchException;
+import es.nttdata.assetsproxy.domain.exception.UploadSessionNotFoundException;
+import es.nttdata.assetsproxy.domain.model.UploadSession;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.UploadSessionResponse;
+import es.nttdata.assetsproxy.infrastructure.apirest.exception.GlobalExceptionHandler;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AssetChunkedUploadController.class)
+@ContextConfiguration(classes = {
+        TestBootConfig.class,
+        AssetChunkedUploadController.class,
+        GlobalExceptionHandler.class
+})
+class AssetChunkedUploadControllerITTest {
+
+    private static final String ID = "6f1c2a9e-4c1d-4f7a-9a55-0c5c3b1d2e10";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ChunkedUploadUseCase useCase;
+    @MockitoBean
+    private AssetDtoMapper mapper;
+
+    @Test
+    void create_returns_201_with_the_session_location() throws Exception {
+        UploadSession session = session(0);
+        when(useCase.create("clip.mp4", "video/mp4", 1024L)).thenReturn(session);
+        when(mapper.toSessionDto(session)).thenReturn(dto(session));
+
+        mvc.perform(post("/api/mgmt/1/assets/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"clip.mp4\",\"contentType\":\"video/mp4\",\"size\":1024}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/mgmt/1/assets/uploads/" + ID))
+                .andExpect(jsonPath("$.id").value(ID))
+                .andExpect(jsonPath("$.offset").value(0));
+    }
+
+    @Test
+    void append_streams_the_chunk_and_returns_the_new_offset() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        when(useCase.append(eq(ID), eq(0L), eq("abc"), any())).thenAnswer(inv -> {
+            ContentSpoolPort.ContentWriter chunk = inv.getArgument(3);
+            chunk.writeTo(received);
+            return session(3);
+        });
+
+        mvc.perform(put("/api/mgmt/1/assets/uploads/" + ID)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(AssetChunkedUploadController.UPLOAD_OFFSET_HEADER, "0")
+                        .header(AssetChunkedUploadController.CHUNK_CHECKSUM_HEADER, "abc")
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "3"));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, received.toByteArray());
+    }
+
+    @Test
+    void append_at_the_wrong_offset_returns_409_with_the_current_one() throws Exception {
+        when(useCase.append(eq(ID), anyLong(), any(), any()))
+                .thenThrow(new UploadOffsetMismatchException("Upload session continues at offset 3, not 0", 3));
+
+        mvc.perform(put("/api/mgmt/1/assets/uploads/" + ID)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(AssetChunkedUploadController.UPLOAD_OFFSET_HEADER, "0")
+                        .content(new byte[]{1}))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Upload-Offset", "3"))
+                .andExpect(jsonPath("$.offset").value(3));
+    }
+
+    @Test
+    void complete_returns_202_with_the_asset_id() throws Exception {
+        when(useCase.complete(ID, "abc")).thenReturn(99L);
+
+        mvc.perform(post("/api/mgmt/1/assets/uploads/" + ID + "/actions/complete")
+                        .header(AssetChunkedUploadController.ASSET_CHECKSUM_HEADER, "abc"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("99"));
+    }
+
+    @Test
+    void complete_of_an_unknown_session_returns_404() throws Exception {
+        when(useCase.complete(ID, null)).thenThrow(new UploadSessionNotFoundException("Upload session not found"));
+
+        mvc.perform(post("/api/mgmt/1/assets/uploads/" + ID + "/actions/complete"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static UploadSession session(long offset) {
+        return new UploadSession(ID, "clip.mp4", "video/mp4", 1024L, offset, OffsetDateTime.now().plusHours(1));
+    }
+
+    private static UploadSessionResponse dto(UploadSession session) {
+        return new UploadSessionResponse(session.id(), session.filename(), session.contentType(), session.size(),
+                session.offset(), session.expiresAt());
+    }
+}
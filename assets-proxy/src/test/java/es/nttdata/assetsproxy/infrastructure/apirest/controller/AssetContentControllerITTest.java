@@ -0,0 +1,161 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.controller;
+
+import es.nttdata.assetsproxy.application.usecase.DownloadAssetUseCase;
+import es.nttdata.assetsproxy.boot.TestBootConfig;
+import es.nttdata.assetsproxy.domain.exception.AssetNotFoundException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.infrastructure.apirest.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AssetContentController.class)
+@ContextConfiguration(classes = {
+        TestBootConfig.class,
+        AssetContentController.class,
+        GlobalExceptionHandler.class
+})
+class AssetContentControllerITTest {
+
+    private static final String BODY = "0123456789";
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private DownloadAssetUseCase useCase;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(directory.resolve("clip.mp4"), BODY, StandardCharsets.US_ASCII);
+        AssetDomain asset = new AssetDomain(7L, "clip.mp4", "video/mp4", BODY.length(), "videos/clip.mp4",
+                OffsetDateTime.now(), AssetStatus.COMPLETED);
+        asset.setContentDigest("abc");
+        asset.setContent(new FileContent(file));
+        when(useCase.open(7L)).thenReturn(asset);
+    }
+
+    @Test
+    void serves_the_whole_content_with_a_strong_etag() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Type", "video/mp4"))
+                .andExpect(header().longValue("Content-Length", 10))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void serves_a_single_range_as_partial_content() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void range_for_another_version_sends_everything() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("Range", "bytes=2-5").header("If-Range", "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void unsatisfiable_range_returns_416() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("Range", "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void matching_if_none_match_returns_304() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("If-None-Match", "\"xyz\", \"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void hands_the_file_to_sendfile_when_the_connector_supports_it() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/7/content").header("Range", "bytes=4-")
+                        .requestAttr(AssetContentController.SENDFILE_SUPPORTED, Boolean.TRUE))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute(AssetContentController.SENDFILE_FILENAME, file.toAbsolutePath().toString()))
+                .andExpect(request().attribute(AssetContentController.SENDFILE_START, 4L))
+                .andExpect(request().attribute(AssetContentController.SENDFILE_END, 10L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void head_sends_headers_only() throws Exception {
+        mvc.perform(head("/api/mgmt/1/assets/7/content"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", 10))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void unpublished_asset_returns_404() throws Exception {
+        when(useCase.open(8L)).thenThrow(new AssetNotFoundException("Asset 8 has no published content"));
+
+        mvc.perform(get("/api/mgmt/1/assets/8/content"))
+                .andExpect(status().isNotFound());
+    }
+
+    private record FileContent(Path file) implements AssetContent {
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public long size() {
+            return BODY.length();
+        }
+
+        @Override
+        public String checksum() {
+            return "abc";
+        }
+
+        @Override
+        public Optional<Path> localFile() {
+            return Optional.of(file);
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
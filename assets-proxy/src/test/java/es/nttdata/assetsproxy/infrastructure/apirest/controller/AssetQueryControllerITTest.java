@@ -1,25 +1,51 @@
 package es.nttdata.assetsproxy.infrastructure.apirest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import es.nttdata.assetsproxy.application.usecase.SearchAssetsUseCase;
+import es.nttdata.assetsproxy.application.usecase.WatchAssetsUseCase;
 import es.nttdata.assetsproxy.boot.TestBootConfig;
+import es.nttdata.assetsproxy.domain.model.AssetCount;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetPage;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.AssetStatusEvent;
 import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SearchCursor;
+import es.nttdata.assetsproxy.domain.model.SortDirection;
+import es.nttdata.assetsproxy.domain.model.StatusWatch;
 import es.nttdata.assetsproxy.infrastructure.apirest.dto.Asset;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStats;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetStatusChange;
+import es.nttdata.assetsproxy.infrastructure.apirest.exception.GlobalExceptionHandler;
 import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import es.nttdata.assetsproxy.infrastructure.apirest.mapper.SearchCursorCodec;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.TransactionTimedOutException;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -27,16 +53,21 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(controllers = AssetQueryController.class)
 @ContextConfiguration(classes = {
         TestBootConfig.class,
-        AssetQueryController.class
+        AssetQueryController.class,
+        GlobalExceptionHandler.class
 })
 class AssetQueryControllerITTest {
 
     @Autowired
     private MockMvc mvc;
+    @Autowired
+    private ObjectMapper om;
 
     @MockitoBean
     private SearchAssetsUseCase useCase;
     @MockitoBean
+    private WatchAssetsUseCase watchUseCase;
+    @MockitoBean
     private AssetDtoMapper mapper;
 
     @Test
@@ -73,4 +104,208 @@ class AssetQueryControllerITTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
     }
+
+    @Test
+    void search_with_limit_returns_page_and_next_cursor_header() throws Exception {
+        SearchCursor next = new SearchCursor(OffsetDateTime.of(2025, 10, 20, 10, 0, 0, 0, ZoneOffset.UTC), 7L);
+        AssetPage page = new AssetPage(List.of(), next);
+        SearchCursor after = new SearchCursor(next.uploadDate().plusHours(1), 9L);
+        SearchCriteria unfiltered = new SearchCriteria(null, null, null, null, SortDirection.DESC, 1, null);
+
+        when(useCase.searchPage(any(SearchCriteria.class))).thenReturn(page);
+        when(mapper.toResponseDtoList(List.of())).thenReturn(List.of());
+
+        mvc.perform(get("/api/mgmt/1/assets")
+                        .param("limit", "1")
+                        .param("cursor", SearchCursorCodec.encode(after, unfiltered)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AssetQueryController.NEXT_CURSOR_HEADER, SearchCursorCodec.encode(next, unfiltered)));
+
+        ArgumentCaptor<SearchCriteria> captor = ArgumentCaptor.forClass(SearchCriteria.class);
+        verify(useCase).searchPage(captor.capture());
+        assertEquals(1, captor.getValue().limit());
+        assertEquals(after, captor.getValue().after());
+    }
+
+    @Test
+    void search_with_a_cursor_of_another_search_returns_400() throws Exception {
+        SearchCursor after = new SearchCursor(OffsetDateTime.of(2025, 10, 20, 10, 0, 0, 0, ZoneOffset.UTC), 9L);
+        String cursor = SearchCursorCodec.encode(after,
+                new SearchCriteria(null, null, "logo", null, SortDirection.DESC, 10, null));
+
+        mvc.perform(get("/api/mgmt/1/assets").param("cursor", cursor).param("sortDirection", "ASC")
+                        .param("filename", "logo"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/mgmt/1/assets").param("cursor", cursor).param("filename", "banner"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/mgmt/1/assets").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(useCase);
+    }
+
+    @Test
+    void search_with_last_page_has_no_next_cursor_header() throws Exception {
+        when(useCase.searchPage(any(SearchCriteria.class))).thenReturn(new AssetPage(List.of(), null));
+        when(mapper.toResponseDtoList(List.of())).thenReturn(List.of());
+
+        mvc.perform(get("/api/mgmt/1/assets").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(AssetQueryController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void search_as_ndjson_writes_one_asset_per_line() throws Exception {
+        OffsetDateTime date = OffsetDateTime.of(2025, 10, 20, 10, 0, 0, 0, ZoneOffset.UTC);
+        AssetDomain a1 = new AssetDomain(1L, "a.png", "image/png", 1, null, date, AssetStatus.PENDING);
+        AssetDomain a2 = new AssetDomain(2L, "b.png", "image/png", 2, null, date, AssetStatus.PENDING);
+        when(mapper.toResponseDto(a1)).thenReturn(new Asset("1", "a.png", "image/png", null, 1, date));
+        when(mapper.toResponseDto(a2)).thenReturn(new Asset("2", "b.png", "image/png", null, 2, date));
+        doAnswer(inv -> {
+            Consumer<AssetDomain> sink = inv.getArgument(1);
+            sink.accept(a1);
+            sink.accept(a2);
+            return 2L;
+        }).when(useCase).stream(any(SearchCriteria.class), any());
+
+        MvcResult result = mvc.perform(get("/api/mgmt/1/assets")
+                        .param("filetype", "image/png")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("1", om.readTree(lines[0]).get("id").asText());
+        assertEquals("b.png", om.readTree(lines[1]).get("filename").asText());
+    }
+
+    @Test
+    void stats_returns_counts_for_the_date_range() throws Exception {
+        List<AssetCount> counts = List.of(new AssetCount("image/png", AssetStatus.COMPLETED, 12));
+        when(useCase.count(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31))).thenReturn(counts);
+        when(mapper.toStatsDtoList(counts)).thenReturn(List.of(new AssetStats("image/png", "COMPLETED", 12)));
+
+        mvc.perform(get("/api/mgmt/1/assets/stats")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].contentType").value("image/png"))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].count").value(12));
+    }
+
+    @Test
+    void events_streams_status_changes_resuming_after_the_last_event_id() throws Exception {
+        OffsetDateTime at = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        AssetStatusEvent event = new AssetStatusEvent("k3x9", 42L, 7L, "logo.png", "image/png",
+                AssetStatus.UPLOADING, AssetStatus.COMPLETED, "images/logo.png", at);
+        when(mapper.toStatusChangeDto(event)).thenReturn(new AssetStatusChange("7", "logo.png", "image/png",
+                "UPLOADING", "COMPLETED", "images/logo.png", at));
+        ArgumentCaptor<StatusWatch> watch = ArgumentCaptor.forClass(StatusWatch.class);
+        doAnswer(inv -> {
+            Consumer<AssetStatusEvent> sink = inv.getArgument(1);
+            sink.accept(event);
+            Runnable idle = inv.getArgument(2);
+            idle.run();
+            return 1L;
+        }).when(watchUseCase).watch(watch.capture(), any(), any(), any());
+
+        MvcResult result = mvc.perform(get("/api/mgmt/1/assets/events")
+                        .header("Last-Event-ID", "k3x9-41")
+                        .param("assetId", "7")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(new StatusWatch("k3x9", 41L, 7L, null), watch.getValue());
+        String[] frames = body.split("\n\n");
+        assertEquals("retry: 2000", frames[0]);
+        String[] lines = frames[1].split("\n");
+        assertEquals("id: k3x9-42", lines[0]);
+        assertEquals("event: status", lines[1]);
+        assertEquals("COMPLETED", om.readTree(lines[2].substring("data: ".length())).get("to").asText());
+        assertEquals(":", frames[2]);
+    }
+
+    @Test
+    void events_tells_a_client_from_another_epoch_to_resync() throws Exception {
+        doAnswer(inv -> {
+            Runnable resync = inv.getArgument(3);
+            resync.run();
+            return 0L;
+        }).when(watchUseCase).watch(any(), any(), any(), any());
+
+        MvcResult result = mvc.perform(get("/api/mgmt/1/assets/events")
+                        .header("Last-Event-ID", "old-12")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+        assertEquals("event: resync\ndata: {}", body.split("\n\n")[1]);
+    }
+
+    @Test
+    void events_rejects_a_malformed_last_event_id_before_streaming() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/events")
+                        .header("Last-Event-ID", "41")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(watchUseCase);
+    }
+
+    @Test
+    void events_rejects_a_negative_last_event_id_before_streaming() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets/events")
+                        .param("lastEventId", "-1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(watchUseCase);
+    }
+
+    @Test
+    void search_as_ndjson_validates_before_streaming() throws Exception {
+        mvc.perform(get("/api/mgmt/1/assets")
+                        .param("filetype", " ")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(useCase);
+    }
+
+    @Test
+    void search_when_the_transaction_deadline_passes_returns_503() throws Exception {
+        when(useCase.search(any(SearchCriteria.class))).thenThrow(new TransactionTimedOutException("Transaction timed out"));
+
+        mvc.perform(get("/api/mgmt/1/assets").param("filenamePattern", "logo"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.type").value("urn:problem-type:search-timeout"));
+    }
+
+    @Test
+    void search_when_the_database_refuses_the_regex_returns_400() throws Exception {
+        when(useCase.search(any(SearchCriteria.class))).thenThrow(new DataIntegrityViolationException("could not execute query",
+                new SQLException("ERROR: invalid regular expression: invalid escape \\ sequence", "2201B")));
+
+        mvc.perform(get("/api/mgmt/1/assets").param("filenamePattern", "logo"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(containsString("invalid escape")));
+    }
 }
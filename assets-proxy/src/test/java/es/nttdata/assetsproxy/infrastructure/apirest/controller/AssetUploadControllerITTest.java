@@ -3,25 +3,56 @@ package es.nttdata.assetsproxy.infrastructure.apirest.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import es.nttdata.assetsproxy.application.usecase.UploadAssetUseCase;
 import es.nttdata.assetsproxy.boot.TestBootConfig;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyConflictException;
+import es.nttdata.assetsproxy.domain.exception.IdempotencyMismatchException;
+import es.nttdata.assetsproxy.domain.exception.PublishCapacityExceededException;
+import es.nttdata.assetsproxy.domain.exception.RepositoryOverloadedException;
+import es.nttdata.assetsproxy.domain.model.UploadResult;
+import es.nttdata.assetsproxy.infrastructure.adapter.spool.ContentSpoolAdapter;
+import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadContent;
 import es.nttdata.assetsproxy.infrastructure.apirest.dto.AssetFileUploadRequest;
+import es.nttdata.assetsproxy.infrastructure.apirest.exception.GlobalExceptionHandler;
 import es.nttdata.assetsproxy.infrastructure.apirest.mapper.AssetDtoMapper;
+import es.nttdata.assetsproxy.infrastructure.apirest.reader.AssetUploadRequestReader;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AssetUploadController.class)
 @ContextConfiguration(classes = {
         TestBootConfig.class,
-        AssetUploadController.class
+        AssetUploadController.class,
+        AssetUploadRequestReader.class,
+        ContentSpoolAdapter.class,
+        GlobalExceptionHandler.class
 })
 class AssetUploadControllerITTest {
 
@@ -35,6 +66,12 @@ class AssetUploadControllerITTest {
     @MockitoBean
     private AssetDtoMapper assetDtoMapper;
 
+    @BeforeEach
+    void setUp() {
+        // without an Idempotency-Key the upload goes straight to accept(asset), stubbed by each test
+        when(uploadAssetUseCase.accept(isNull(), any(), any())).thenCallRealMethod();
+    }
+
     @Test
     void upload_validates_body() throws Exception {
         AssetFileUploadRequest invalid = new AssetFileUploadRequest(
@@ -62,4 +99,246 @@ class AssetUploadControllerITTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value("123"));
     }
+
+    @Test
+    void upload_decodes_encoded_file_into_spool() throws Exception {
+        when(uploadAssetUseCase.accept(any())).thenReturn(5L);
+
+        AssetFileUploadRequest req = new AssetFileUploadRequest(
+                "foto.png",
+                "ZHVtbXk=",  "image/png"
+        );
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isAccepted());
+
+        ArgumentCaptor<AssetFileUploadContent> captor = ArgumentCaptor.forClass(AssetFileUploadContent.class);
+        verify(assetDtoMapper).toDomain(captor.capture());
+        AssetFileUploadContent upload = captor.getValue();
+        assertEquals("foto.png", upload.filename());
+        assertEquals("image/png", upload.contentType());
+        assertEquals(5L, upload.content().size()); // "dummy"
+        upload.content().release();
+    }
+
+    @Test
+    void upload_rejects_invalid_base64() throws Exception {
+        AssetFileUploadRequest req = new AssetFileUploadRequest(
+                "foto.png",
+                "not base64 at all!",  "image/png"
+        );
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+
+        verify(uploadAssetUseCase, never()).accept(any());
+    }
+
+    @Test
+    void upload_binary_takes_metadata_from_headers() throws Exception {
+        when(uploadAssetUseCase.accept(any())).thenReturn(77L);
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(AssetUploadController.FILENAME_HEADER, "clip.mp4")
+                        .header(AssetUploadController.CONTENT_TYPE_HEADER, "video/mp4")
+                        .content(new byte[]{1, 2, 3, 4}))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("77"));
+
+        ArgumentCaptor<AssetFileUploadContent> captor = ArgumentCaptor.forClass(AssetFileUploadContent.class);
+        verify(assetDtoMapper).toDomain(captor.capture());
+        AssetFileUploadContent upload = captor.getValue();
+        assertEquals("clip.mp4", upload.filename());
+        assertEquals("video/mp4", upload.contentType());
+        assertEquals(4L, upload.content().size());
+        upload.content().release();
+    }
+
+    @Test
+    void upload_binary_releases_the_spooled_content_when_it_cannot_be_mapped() throws Exception {
+        ArgumentCaptor<AssetFileUploadContent> captor = ArgumentCaptor.forClass(AssetFileUploadContent.class);
+        when(assetDtoMapper.toDomain(captor.capture())).thenThrow(new ArithmeticException("integer overflow"));
+
+        // unhandled, so MockMvc rethrows it
+        assertThrows(ServletException.class, () -> mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(AssetUploadController.FILENAME_HEADER, "clip.mp4")
+                .header(AssetUploadController.CONTENT_TYPE_HEADER, "video/mp4")
+                .content(new byte[]{1, 2, 3, 4})));
+
+        assertThrows(Exception.class, () -> captor.getValue().content().openStream().close());
+        verify(uploadAssetUseCase, never()).accept(any());
+    }
+
+    @Test
+    void upload_binary_without_filename_header_is_rejected() throws Exception {
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(AssetUploadController.CONTENT_TYPE_HEADER, "video/mp4")
+                        .content(new byte[]{1}))
+                .andExpect(status().isBadRequest());
+
+        verify(uploadAssetUseCase, never()).accept(any());
+    }
+
+    @Test
+    void upload_multipart_defaults_metadata_to_file_part() throws Exception {
+        when(uploadAssetUseCase.accept(any())).thenReturn(78L);
+        MockMultipartFile file = new MockMultipartFile("file", "banner.jpg", "image/jpeg", new byte[]{5, 6});
+
+        mvc.perform(multipart("/api/mgmt/1/assets/actions/upload").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("78"));
+
+        ArgumentCaptor<AssetFileUploadContent> captor = ArgumentCaptor.forClass(AssetFileUploadContent.class);
+        verify(assetDtoMapper).toDomain(captor.capture());
+        AssetFileUploadContent upload = captor.getValue();
+        assertEquals("banner.jpg", upload.filename());
+        assertEquals("image/jpeg", upload.contentType());
+        assertEquals(2L, upload.content().size());
+        upload.content().release();
+    }
+
+    @Test
+    void upload_returns_429_with_retry_after_when_publisher_is_saturated() throws Exception {
+        when(uploadAssetUseCase.accept(any()))
+                .thenThrow(new PublishCapacityExceededException("Publish queue is full, retry later", Duration.ofSeconds(7)));
+
+        AssetFileUploadRequest req = new AssetFileUploadRequest(
+                "foto.png",
+                "ZHVtbXk=",  "image/png"
+        );
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void upload_returns_503_with_retry_after_when_the_database_is_overloaded() throws Exception {
+        when(uploadAssetUseCase.accept(any()))
+                .thenThrow(new RepositoryOverloadedException("No repository permit within PT2S", Duration.ofMillis(1500)));
+
+        AssetFileUploadRequest req = new AssetFileUploadRequest(
+                "foto.png",
+                "ZHVtbXk=",  "image/png"
+        );
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.type").value("urn:problem-type:repository-overloaded"));
+    }
+
+    @Test
+    void upload_hands_the_idempotency_key_to_the_use_case_along_with_the_unread_body() throws Exception {
+        doReturn(55L).when(uploadAssetUseCase).accept(eq("retry-1"), any(), any());
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(AssetUploadController.FILENAME_HEADER, "clip.mp4")
+                        .header(AssetUploadController.CONTENT_TYPE_HEADER, "video/mp4")
+                        .header(AssetUploadController.CONTENT_DIGEST_HEADER, "sha-256=:AQID:")
+                        .header(AssetUploadController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("55"));
+
+        verify(uploadAssetUseCase).accept(eq("retry-1"),
+                eq(Arrays.asList("clip.mp4", "video/mp4", "3", "sha-256=:AQID:")), any());
+        verify(uploadAssetUseCase, never()).accept(any());
+        verify(assetDtoMapper, never()).toDomain(any());
+    }
+
+    @Test
+    void upload_returns_409_while_the_same_idempotency_key_is_in_flight() throws Exception {
+        doThrow(new IdempotencyConflictException("A request with Idempotency-Key retry-2 is still in progress"))
+                .when(uploadAssetUseCase).accept(eq("retry-2"), any(), any());
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(AssetUploadController.IDEMPOTENCY_KEY_HEADER, "retry-2")
+                        .content(om.writeValueAsString(new AssetFileUploadRequest("foto.png", "ZHVtbXk=", "image/png"))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.type").value("urn:problem-type:idempotency-conflict"));
+    }
+
+    @Test
+    void upload_returns_422_when_the_idempotency_key_was_used_for_another_upload() throws Exception {
+        doThrow(new IdempotencyMismatchException("Idempotency-Key retry-3 was used for a different upload"))
+                .when(uploadAssetUseCase).accept(eq("retry-3"), any(), any());
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(AssetUploadController.IDEMPOTENCY_KEY_HEADER, "retry-3")
+                        .content(om.writeValueAsString(new AssetFileUploadRequest("foto.png", "ZHVtbXk=", "image/png"))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.type").value("urn:problem-type:idempotency-mismatch"));
+    }
+
+    @Test
+    void batch_upload_reports_every_item_in_order() throws Exception {
+        when(uploadAssetUseCase.acceptAll(anyList()))
+                .thenReturn(List.of(UploadResult.accepted(10L), UploadResult.rejected("Publish queue is full")));
+
+        List<AssetFileUploadRequest> batch = List.of(
+                new AssetFileUploadRequest("a.png", "ZHVtbXk=", "image/png"),
+                new AssetFileUploadRequest("b.png", "not base64 at all!", "image/png"),
+                new AssetFileUploadRequest("", "ZHVtbXk=", "image/png"),
+                new AssetFileUploadRequest("d.mp4", "ZHVtbXk=", "video/mp4")
+        );
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/batch-upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(batch)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.items.length()").value(4))
+                .andExpect(jsonPath("$.items[0].id").value("10"))
+                .andExpect(jsonPath("$.items[0].error").doesNotExist())
+                .andExpect(jsonPath("$.items[1].error").value("encodedFile base64 is not valid"))
+                .andExpect(jsonPath("$.items[2].error").value("filename must not be blank"))
+                .andExpect(jsonPath("$.items[3].index").value(3))
+                .andExpect(jsonPath("$.items[3].id").doesNotExist())
+                .andExpect(jsonPath("$.items[3].error").value("Publish queue is full"));
+
+        ArgumentCaptor<AssetFileUploadContent> captor = ArgumentCaptor.forClass(AssetFileUploadContent.class);
+        verify(assetDtoMapper, times(2)).toDomain(captor.capture());
+        assertEquals("a.png", captor.getAllValues().get(0).filename());
+        assertEquals("d.mp4", captor.getAllValues().get(1).filename());
+        captor.getAllValues().forEach(upload -> upload.content().release());
+        verify(uploadAssetUseCase).acceptAll(anyList());
+    }
+
+    @Test
+    void batch_upload_requires_an_array() throws Exception {
+        AssetFileUploadRequest req = new AssetFileUploadRequest("foto.png", "ZHVtbXk=", "image/png");
+
+        mvc.perform(post("/api/mgmt/1/assets/actions/batch-upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+
+        verify(uploadAssetUseCase, never()).acceptAll(anyList());
+    }
+
+    @Test
+    void batch_upload_with_only_invalid_items_does_not_reach_the_use_case() throws Exception {
+        mvc.perform(post("/api/mgmt/1/assets/actions/batch-upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"filename\":\"x.png\"}, 42]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.items[0].error").value("contentType must not be blank"))
+                .andExpect(jsonPath("$.items[1].error").value("item must be a JSON object"));
+
+        verify(uploadAssetUseCase, never()).acceptAll(anyList());
+    }
 }
@@ -0,0 +1,38 @@
+package es.nttdata.assetsproxy.infrastructure.apirest.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.nttdata.assetsproxy.domain.exception.BusinessException;
+import es.nttdata.assetsproxy.domain.model.AssetContent;
+import es.nttdata.assetsproxy.domain.port.spool.ContentSpoolPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetUploadRequestReaderTest {
+
+    @Mock
+    private ContentSpoolPort spool;
+    @Mock
+    private AssetContent content;
+
+    @Test
+    void read_rejectsContentOverTheStorableSize_andReleasesIt() throws Exception {
+        when(spool.spool(any())).thenReturn(content);
+        when(content.size()).thenReturn(AssetUploadRequestReader.MAX_CONTENT_SIZE + 1);
+        AssetUploadRequestReader reader = new AssetUploadRequestReader(new ObjectMapper(), spool, 10);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> reader.read("huge.bin", "application/octet-stream", new ByteArrayInputStream(new byte[1])));
+
+        assertTrue(ex.getMessage().contains("must not exceed"), ex.getMessage());
+        verify(content).release();
+    }
+}
@@ -3,6 +3,7 @@ package es.nttdata.assetsproxy.infrastructure.persistence.mapper;
 import es.nttdata.assetsproxy.domain.model.AssetDomain;
 import es.nttdata.assetsproxy.domain.model.AssetStatus;
 import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.projection.AssetRow;
 import org.junit.jupiter.api.Test;
 
 import java.time.OffsetDateTime;
@@ -32,4 +33,21 @@ class AssetEntityMapperImplTest {
         assertThat(entity.getSize()).isEqualTo(123L);
         assertThat(entity.getUploadDate()).isEqualTo(now);
     }
+
+    @Test
+    void should_map_row_projection_to_domain() {
+        OffsetDateTime now = OffsetDateTime.now();
+        AssetRow row = new AssetRow(7L, "clip.mp4", "video/mp4", 42, "videos/clip.mp4", now, "UPLOADING", "abc123");
+
+        AssetDomain domain = mapper.toDomain(row);
+
+        assertThat(domain.getId()).isEqualTo(7L);
+        assertThat(domain.getFilename()).isEqualTo("clip.mp4");
+        assertThat(domain.getContentType()).isEqualTo("video/mp4");
+        assertThat(domain.getSize()).isEqualTo(42);
+        assertThat(domain.getUrl()).isEqualTo("videos/clip.mp4");
+        assertThat(domain.getUploadDate()).isEqualTo(now);
+        assertThat(domain.getStatus()).isEqualTo(AssetStatus.UPLOADING);
+        assertThat(domain.getContentDigest()).isEqualTo("abc123");
+    }
 }
@@ -0,0 +1,92 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.routing;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.model.AssetDomain;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.domain.model.SearchCriteria;
+import es.nttdata.assetsproxy.domain.model.SortDirection;
+import es.nttdata.assetsproxy.domain.port.repository.AssetRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A second in-memory database stands in for the replica; nothing replicates to it, so where a read went
+ * shows in what it returns.
+ */
+@SpringBootTest(classes = AssetsProxyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "assets.datasource.replica.jdbc-url=jdbc:h2:mem:replicadb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "assets.datasource.replica.username=sa"
+        })
+@ActiveProfiles("h2")
+class ReplicaRoutingITTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 10, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private AssetRepositoryPort repository;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema-h2.sql")).execute(replicaDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate database : List.of(jdbc, replica)) {
+            database.update("delete from publish_jobs");
+            database.update("delete from assets");
+            database.update("delete from asset_daily_counts");
+            database.update("delete from asset_count_deltas");
+        }
+    }
+
+    @Test
+    void reads_go_to_the_replica_and_writes_to_the_primary() {
+        AssetDomain saved = repository.save(new AssetDomain(null, "banner.png", "image/png", 1, null, BASE, AssetStatus.PENDING));
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from assets", Integer.class));
+        assertTrue(repository.findById(saved.getId()).isEmpty(), "not replicated yet");
+        assertTrue(search().isEmpty());
+
+        replica.update("insert into assets (id, filename, content_type, size, upload_date, status) values (?, ?, ?, ?, ?, ?)",
+                saved.getId(), "banner.png", "image/png", 1, BASE, "PENDING");
+
+        assertEquals("banner.png", repository.findById(saved.getId()).orElseThrow().getFilename());
+        assertEquals(1, search().size());
+    }
+
+    @Test
+    void read_your_writes_reads_from_the_primary() {
+        AssetDomain saved = repository.save(new AssetDomain(null, "logo.png", "image/png", 1, null, BASE, AssetStatus.PENDING));
+        assertTrue(repository.transition(saved.getId(), AssetStatus.PENDING, AssetStatus.UPLOADING, null));
+
+        AssetDomain read = ReadYourWrites.primary(() -> repository.findById(saved.getId())).orElseThrow();
+
+        assertEquals(AssetStatus.UPLOADING, read.getStatus());
+        assertEquals(1, ReadYourWrites.primary(this::search).size());
+        assertFalse(ReadYourWrites.required());
+    }
+
+    private List<AssetDomain> search() {
+        return repository.search(new SearchCriteria(null, null, null, null, SortDirection.ASC));
+    }
+}
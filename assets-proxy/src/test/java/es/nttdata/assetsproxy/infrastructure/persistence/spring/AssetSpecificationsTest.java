@@ -102,30 +102,35 @@ class AssetSpecificationsBranchesTest {
     }
 
     @Test
-    void filenameLike_whenPatternNonBlank_usesLowerLikeContaining() {
-        String pattern = "initFileName";
+    void filenameMatches_whenPatternNonBlank_usesCaseInsensitiveRegexOnNormalizedColumn() {
+        String pattern = "^init.*\\.png$";
 
-        Path<String> filenamePath = (Path<String>) mock(Path.class);
-        Expression<String> lowerExpr = (Expression<String>) mock(Expression.class);
+        Path<String> filenameLcPath = (Path<String>) mock(Path.class);
+        Expression<String> patternExpr = (Expression<String>) mock(Expression.class);
+        Expression<Boolean> matchExpr = (Expression<Boolean>) mock(Expression.class);
         Predicate expected = mock(Predicate.class);
 
-        when(root.get("filename")).thenReturn((Path)filenamePath);
-        when(cb.lower(filenamePath)).thenReturn(lowerExpr);
+        when(root.get("filenameLc")).thenReturn((Path)filenameLcPath);
+        when(cb.literal(pattern)).thenReturn(patternExpr);
+        when(cb.function("filename_matches", Boolean.class, filenameLcPath, patternExpr)).thenReturn(matchExpr);
+        when(cb.isTrue(matchExpr)).thenReturn(expected);
 
-        ArgumentCaptor<String> likeValue = ArgumentCaptor.forClass(String.class);
-        when(cb.like(eq(lowerExpr), likeValue.capture())).thenReturn(expected);
-
-        Predicate result = AssetSpecifications.filenameLike(pattern).toPredicate(root, query, cb);
+        Predicate result = AssetSpecifications.filenameMatches(pattern).toPredicate(root, query, cb);
 
         assertSame(expected, result);
-        verify(cb).lower(filenamePath);
-        verify(cb).like(eq(lowerExpr), anyString());
-        String valueUsed = likeValue.getValue();
-        assertTrue(valueUsed.startsWith("%") && valueUsed.endsWith("%"));
-        assertTrue(valueUsed.contains(pattern.toLowerCase()));
+        verify(cb, never()).like(any(Expression.class), anyString());
         verify(cb, never()).conjunction();
     }
 
+    @Test
+    void filenameMatches_whenPatternBlank_isConjunction() {
+        Predicate all = mock(Predicate.class);
+        when(cb.conjunction()).thenReturn(all);
+
+        assertSame(all, AssetSpecifications.filenameMatches(" ").toPredicate(root, query, cb));
+        verifyNoInteractions(root);
+    }
+
     @Test
     void contentTypeEquals_whenMimeNonBlank_usesEqual() {
         String mime = "image/png";
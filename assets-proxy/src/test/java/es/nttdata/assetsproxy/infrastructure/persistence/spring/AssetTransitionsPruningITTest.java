@@ -0,0 +1,73 @@
+package es.nttdata.assetsproxy.infrastructure.persistence.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans of the PostgreSQL transition against a partitioned assets table, built in temporary tables. Needs a
+ * database: run with ASSETS_IT_DB_URL (and DB_USER / DB_PASS) set.
+ */
+@EnabledIfEnvironmentVariable(named = "ASSETS_IT_DB_URL", matches = ".+")
+class AssetTransitionsPruningITTest {
+
+    private static final Map<String, String> VALUES = Map.of(
+            "?1", "1",
+            "?2", "'PENDING'",
+            "?3", "'UPLOADING'",
+            "?4", "null",
+            "?5", "timestamptz '2025-10-01 12:00:00+00'");
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource(System.getenv("ASSETS_IT_DB_URL"),
+                System.getenv().getOrDefault("DB_USER", "assets"), System.getenv().getOrDefault("DB_PASS", "assets"), true);
+        jdbc = new JdbcTemplate(dataSource);
+        // temporary tables come first in the search path: the real assets table, if any, is not touched
+        jdbc.execute("create temp table assets (id bigint, content_type varchar, url varchar, status varchar, " +
+                "upload_date timestamptz not null, primary key (id, upload_date)) partition by range (upload_date)");
+        jdbc.execute("create temp table assets_p2025_10 partition of assets " +
+                "for values from ('2025-10-01 00:00:00+00') to ('2025-11-01 00:00:00+00')");
+        jdbc.execute("create temp table assets_p2025_11 partition of assets " +
+                "for values from ('2025-11-01 00:00:00+00') to ('2025-12-01 00:00:00+00')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    private String plan(String statement) {
+        String sql = statement;
+        for (Map.Entry<String, String> value : VALUES.entrySet()) {
+            sql = sql.replace(value.getKey(), value.getValue());
+        }
+        return String.join("\n", jdbc.queryForList("explain (costs off) " + sql, String.class));
+    }
+
+    @Test
+    void transition_withTheUploadDate_touchesOnlyItsPartition() {
+        String plan = plan(AssetTransitionsImpl.statement(true, true));
+
+        assertTrue(plan.contains("assets_p2025_10"), plan);
+        assertFalse(plan.contains("assets_p2025_11"), plan);
+    }
+
+    @Test
+    void transition_withoutTheUploadDate_probesEveryPartition() {
+        String plan = plan(AssetTransitionsImpl.statement(true, false));
+
+        assertTrue(plan.contains("assets_p2025_10") && plan.contains("assets_p2025_11"), plan);
+    }
+}
@@ -0,0 +1,360 @@
+package es.nttdata.assetsproxy.load;
+
+import es.nttdata.assetsproxy.boot.AssetsProxyApplication;
+import es.nttdata.assetsproxy.domain.model.AssetStatus;
+import es.nttdata.assetsproxy.infrastructure.persistence.entity.AssetEntity;
+import es.nttdata.assetsproxy.infrastructure.persistence.spring.AssetJpaRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * In-process load test: boots the application on a random port against H2 in PostgreSQL mode, with
+ * the publish relay on, and has {@code load.clients} virtual-thread clients drive a mix of uploads
+ * and searches through the REST endpoints for {@code load.duration}. Reports throughput and latency
+ * percentiles per operation, heap and GC activity, and how long accepted assets take to reach
+ * COMPLETED. Excluded from {@code mvn test}; run it with {@code mvn -Pload test}.
+ * <p>
+ * Every setting is a system property, and so is any application property, so pool and executor
+ * sizes can be compared run against run, e.g.
+ * {@code mvn -Pload test -Dload.clients=400 -Dspring.datasource.hikari.maximum-pool-size=20}.
+ * <ul>
+ *     <li>{@code load.clients} concurrent clients (default 200)</li>
+ *     <li>{@code load.warmup}, {@code load.duration} (default 5s, 30s)</li>
+ *     <li>{@code load.upload-share} fraction of requests that are uploads (default 0.3)</li>
+ *     <li>{@code load.upload-sizes} upload size weights, e.g. {@code 1KB:70,256KB:25,4MB:5}</li>
+ *     <li>{@code load.searches} search shape weights among {@code recent}, {@code filename},
+ *     {@code filetype}, {@code range}, {@code stream}</li>
+ *     <li>{@code load.completion-timeout} how long accepted uploads may take to publish once the
+ *     clients stop (default 60s)</li>
+ * </ul>
+ */
+@Tag("load")
+@SpringBootTest(classes = AssetsProxyApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.es.nttdata.assetsproxy=WARN")
+@ActiveProfiles("h2")
+class AssetsProxyLoadTest {
+
+    private static final String BASE_PATH = "/api/mgmt/1/assets";
+    private static final Duration COMPLETION_POLL = Duration.ofMillis(50);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private AssetJpaRepository repository;
+
+    private final SimpleMeterRegistry latencies = new SimpleMeterRegistry();
+    private final Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+    private final Map<Long, Long> awaitingCompletion = new ConcurrentHashMap<>();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private volatile boolean measuring;
+
+    @DynamicPropertySource
+    static void loadProperties(DynamicPropertyRegistry registry) throws IOException {
+        // its own database and directories, and the relay the h2 profile turns off for the other tests
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        registry.add("assets.outbox.batch-size", () -> 50);
+        registry.add("assets.outbox.poll-interval", () -> "100ms");
+        String spool = Files.createTempDirectory("assets-load-spool").toString();
+        String storage = Files.createTempDirectory("assets-load-storage").toString();
+        registry.add("assets.spool.directory", () -> spool);
+        registry.add("assets.storage.local.root", () -> storage);
+        registry.add("assets.storage.local.fsync", () -> "NONE");
+    }
+
+    @Test
+    void uploadAndSearchMix() throws Exception {
+        int clients = Integer.getInteger("load.clients", 200);
+        Duration warmup = Duration.parse("PT" + System.getProperty("load.warmup", "5s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("load.duration", "30s"));
+        Duration completionTimeout = Duration.parse("PT" + System.getProperty("load.completion-timeout", "60s"));
+        double uploadShare = Double.parseDouble(System.getProperty("load.upload-share", "0.3"));
+        Weighted<Long> uploadSizes = Weighted.parse(System.getProperty("load.upload-sizes", "1KB:70,256KB:25,4MB:5"),
+                AssetsProxyLoadTest::parseSize);
+        Weighted<String> searches = Weighted.parse(
+                System.getProperty("load.searches", "recent:4,filename:2,filetype:2,range:1,stream:1"), s -> s);
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Thread completions = Thread.ofVirtual().name("load-completions").start(this::trackCompletions);
+
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long deadline = warmupEnd + duration.toNanos();
+        GcSample gcBefore;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int client = i;
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (ThreadLocalRandom.current().nextDouble() < uploadShare) {
+                            upload(http, client, uploadSizes.pick());
+                        } else {
+                            search(http, client, searches.pick());
+                        }
+                    }
+                    return null;
+                });
+            }
+            TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+            gcBefore = GcSample.take();
+            measuring = true;
+        }
+        measuring = false;
+        GcSample gc = GcSample.take().minus(gcBefore);
+
+        long drainDeadline = System.nanoTime() + completionTimeout.toNanos();
+        while (!awaitingCompletion.isEmpty() && System.nanoTime() < drainDeadline) {
+            Thread.sleep(COMPLETION_POLL);
+        }
+        completions.interrupt();
+        http.close();
+
+        report(clients, duration, gc);
+        assertEquals(0, statuses.entrySet().stream()
+                .filter(e -> e.getKey().startsWith("5") && !e.getKey().equals("503"))
+                .mapToLong(e -> e.getValue().get()).sum(), "server errors: " + statuses);
+        assertTrue(awaitingCompletion.isEmpty(), awaitingCompletion.size() + " accepted assets never completed");
+    }
+
+    private void upload(HttpClient http, int client, long size) throws Exception {
+        byte[] content = new byte[(int) size];
+        ThreadLocalRandom.current().nextBytes(content); // distinct bytes, or deduplication skips the publish
+        HttpRequest request = HttpRequest.newBuilder(uri("/actions/upload"))
+                .header("Content-Type", "application/octet-stream")
+                .header("X-Asset-Filename", "load-" + client + ".png")
+                .header("X-Asset-Content-Type", "image/png")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(content))
+                .build();
+        HttpResponse<String> response = send(http, "upload " + formatSize(size), request);
+        if (response != null && response.statusCode() == 202) {
+            Long id = Long.valueOf(response.body().replaceAll("\\D", ""));
+            if (measuring) {
+                awaitingCompletion.put(id, System.nanoTime());
+                uploadedBytes.addAndGet(size);
+            }
+        }
+    }
+
+    private void search(HttpClient http, int client, String shape) throws Exception {
+        String query = switch (shape) {
+            case "recent" -> "?limit=50";
+            case "filename" -> "?limit=50&filename=" + URLEncoder.encode("load-" + client % 10, StandardCharsets.UTF_8);
+            case "filetype" -> "?limit=50&filetype=" + URLEncoder.encode("image/png", StandardCharsets.UTF_8);
+            case "range", "stream" -> {
+                OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+                yield "?uploadDateStart=" + URLEncoder.encode(now.minusSeconds(1).toString(), StandardCharsets.UTF_8)
+                        + "&uploadDateEnd=" + URLEncoder.encode(now.toString(), StandardCharsets.UTF_8);
+            }
+            default -> throw new IllegalArgumentException("Unknown search shape " + shape);
+        };
+        HttpRequest request = HttpRequest.newBuilder(uri(query))
+                .header("Accept", shape.equals("stream") ? "application/x-ndjson" : "application/json")
+                .GET()
+                .build();
+        send(http, "search " + shape, request);
+    }
+
+    private HttpResponse<String> send(HttpClient http, String operation, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        String status;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            status = String.valueOf(response.statusCode());
+        } catch (IOException ex) {
+            response = null;
+            status = ex.getClass().getSimpleName();
+        }
+        if (measuring) {
+            timer(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        }
+        return response;
+    }
+
+    /**
+     * Polls the outstanding assets; completion times are accurate to {@link #COMPLETION_POLL}.
+     */
+    private void trackCompletions() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(COMPLETION_POLL);
+                List<Long> ids = new ArrayList<>(awaitingCompletion.keySet());
+                long now = System.nanoTime();
+                for (int from = 0; from < ids.size(); from += 500) {
+                    for (AssetEntity asset : repository.findAllById(ids.subList(from, Math.min(ids.size(), from + 500)))) {
+                        if (AssetStatus.COMPLETED.name().equals(asset.getStatus())
+                                || AssetStatus.FAILED.name().equals(asset.getStatus())) {
+                            Long acceptedAt = awaitingCompletion.remove(asset.getId());
+                            timer("accepted to COMPLETED").record(now - acceptedAt, TimeUnit.NANOSECONDS);
+                            if (AssetStatus.FAILED.name().equals(asset.getStatus())) {
+                                statuses.computeIfAbsent("publish FAILED", s -> new AtomicLong()).incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Percentiles over the whole run rather than Micrometer's default rolling window.
+     */
+    private Timer timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(latencies);
+    }
+
+    private void report(int clients, Duration duration, GcSample gc) {
+        double seconds = duration.toNanos() / 1e9;
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "%n=== Load test: %d clients, %ss measured ===%n", clients, duration.toSeconds()));
+        out.append(String.format(Locale.ROOT, "%-28s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        latencies.getMeters().stream()
+                .filter(Timer.class::isInstance)
+                .map(Timer.class::cast)
+                .sorted((a, b) -> a.getId().getName().compareTo(b.getId().getName()))
+                .forEach(timer -> {
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    Map<Double, Double> percentiles = new LinkedHashMap<>();
+                    for (ValueAtPercentile value : snapshot.percentileValues()) {
+                        percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+                    }
+                    out.append(String.format(Locale.ROOT, "%-28s %10d %10.1f %10.2f %10.2f %10.2f%n",
+                            timer.getId().getName(), snapshot.count(), snapshot.count() / seconds,
+                            percentiles.get(0.5), percentiles.get(0.99), percentiles.get(0.999)));
+                });
+        out.append(String.format(Locale.ROOT, "uploaded: %.1f MB/s%n", uploadedBytes.get() / seconds / (1 << 20)));
+        Map<String, Long> responses = new TreeMap<>();
+        statuses.forEach((status, count) -> responses.put(status, count.get()));
+        out.append("responses: ").append(responses).append('\n');
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        out.append(String.format(Locale.ROOT, "heap: peak %d MB (sum of pool peaks), now %d MB%n",
+                peakHeap >> 20, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20));
+        out.append(String.format(Locale.ROOT, "gc: %d collections, %d ms (%.2f%% of the run)%n",
+                gc.count(), gc.millis(), 100.0 * gc.millis() / duration.toMillis()));
+        System.out.println(out);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + BASE_PATH + path);
+    }
+
+    static long parseSize(String size) {
+        String upper = size.trim().toUpperCase(Locale.ROOT);
+        if (upper.endsWith("MB")) return Long.parseLong(upper.substring(0, upper.length() - 2)) << 20;
+        if (upper.endsWith("KB")) return Long.parseLong(upper.substring(0, upper.length() - 2)) << 10;
+        if (upper.endsWith("B")) return Long.parseLong(upper.substring(0, upper.length() - 1));
+        return Long.parseLong(upper);
+    }
+
+    private static String formatSize(long size) {
+        if (size >= 1 << 20 && size % (1 << 20) == 0) return (size >> 20) + "MB";
+        if (size >= 1 << 10 && size % (1 << 10) == 0) return (size >> 10) + "KB";
+        return size + "B";
+    }
+
+    /**
+     * Picks values in proportion to their weights, parsed from {@code value:weight,value:weight}.
+     */
+    private record Weighted<T>(List<T> values, int[] cumulative) {
+
+        static <T> Weighted<T> parse(String spec, Function<String, T> parser) {
+            List<T> values = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.split(":");
+                values.add(parser.apply(parts[0].trim()));
+                weights.add(parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+            }
+            int[] cumulative = new int[weights.size()];
+            int total = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                total += weights.get(i);
+                cumulative[i] = total;
+            }
+            return new Weighted<>(values, cumulative);
+        }
+
+        T pick() {
+            int roll = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (roll < cumulative[i]) {
+                    return values.get(i);
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private record GcSample(long count, long millis) {
+
+        static GcSample take() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            return new GcSample(count, millis);
+        }
+
+        GcSample minus(GcSample before) {
+            return new GcSample(count - before.count, millis - before.millis);
+        }
+    }
+}
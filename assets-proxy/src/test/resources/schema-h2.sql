@@ -0,0 +1,63 @@
+CREATE SEQUENCE IF NOT EXISTS assets_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS assets (
+  id BIGINT DEFAULT nextval('assets_id_seq') PRIMARY KEY,
+  filename VARCHAR,
+  filename_lc VARCHAR GENERATED ALWAYS AS (LOWER(filename)),
+  content_type VARCHAR,
+  size BIGINT,
+  url VARCHAR,
+  content_digest VARCHAR(64),
+  upload_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+  status VARCHAR NOT NULL DEFAULT 'PENDING'
+    CHECK (status IN ('PENDING','UPLOADING','COMPLETED','FAILED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_assets_upload_date_id ON assets (upload_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_assets_filename_lc ON assets (filename_lc);
+CREATE INDEX IF NOT EXISTS idx_assets_status ON assets (status);
+CREATE INDEX IF NOT EXISTS idx_assets_content_digest ON assets (content_digest, size);
+
+CREATE SEQUENCE IF NOT EXISTS publish_jobs_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS publish_jobs (
+  id BIGINT DEFAULT nextval('publish_jobs_id_seq') PRIMARY KEY,
+  asset_id BIGINT NOT NULL REFERENCES assets (id) ON DELETE CASCADE,
+  upload_date TIMESTAMP WITH TIME ZONE,
+  content_ref VARCHAR,
+  content_size BIGINT NOT NULL DEFAULT 0,
+  attempts INT NOT NULL DEFAULT 0,
+  locked_until TIMESTAMP WITH TIME ZONE,
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- Asset counts per upload day (UTC), content type and status, adjusted by every insert and status transition
+CREATE TABLE IF NOT EXISTS asset_daily_counts (
+  upload_day DATE NOT NULL,
+  content_type VARCHAR NOT NULL,
+  status VARCHAR NOT NULL,
+  asset_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (upload_day, content_type, status)
+);
+
+-- Changes to those counts, appended by the writers and folded into asset_daily_counts by AssetDailyCounts
+CREATE TABLE IF NOT EXISTS asset_count_deltas (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  upload_day DATE NOT NULL,
+  content_type VARCHAR NOT NULL,
+  status VARCHAR NOT NULL,
+  delta BIGINT NOT NULL
+);
+
+-- Idempotency-Key of upload requests. asset_id stays null while the first request is in flight, and is set
+-- in the transaction that inserts the asset; the claim expires after assets.idempotency.in-flight-timeout
+-- and the accepted key after assets.idempotency.ttl. fingerprint is the SHA-256 of the metadata the request
+-- declared before its body (filename, content type, length, Content-Digest), which a replay must repeat. Expired rows are purged by IdempotencyKeyStore.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  idem_key VARCHAR(255) PRIMARY KEY,
+  asset_id BIGINT,
+  fingerprint VARCHAR(64),
+  created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+  expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);